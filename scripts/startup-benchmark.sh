@@ -0,0 +1,120 @@
+#!/usr/bin/env bash
+#
+# Cold-start time and resident memory of the employee service in each packaging:
+#
+#   jar       the plain fat jar (java -jar)
+#   aot       the same jar with the Spring AOT initializers (-Dspring.aot.enabled=true)
+#   aot-cds   AOT on an unpacked class path plus an application CDS archive from a training run
+#   native    the GraalVM executable, when target/spring-boot-testing exists
+#
+# Build with "./mvnw -Paot -DskipTests package" (and "./mvnw -Pnative native:compile" for native).
+# "Ready" is the first HTTP response from /actuator/health; RSS is read right after that.
+#
+# Usage: scripts/startup-benchmark.sh [runs] [-- application arguments]
+# e.g.   scripts/startup-benchmark.sh 5 -- --spring.datasource.url=jdbc:h2:mem:bench \
+#          --spring.datasource.username=sa --spring.datasource.password= \
+#          --spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+shift || true
+if [[ "${1:-}" == "--" ]]; then
+  shift
+fi
+APP_ARGS=("$@")
+
+PORT=${PORT:-18080}
+TIMEOUT=${TIMEOUT:-120}
+MAIN_CLASS=com.example.springboottesting.SpringBootTestingApplication
+WORK=target/startup-benchmark
+JAR=$(ls target/spring-boot-testing-*.jar 2>/dev/null | grep -v -- '-plain\|\.original' | head -n 1 || true)
+NATIVE=target/spring-boot-testing
+
+if [[ -z "$JAR" ]]; then
+  echo "No jar in target/, build it first: ./mvnw -Paot -DskipTests package" >&2
+  exit 1
+fi
+if ! unzip -l "$JAR" | grep '__ApplicationContextInitializer' > /dev/null; then
+  echo "$JAR was not AOT-processed, build it with -Paot" >&2
+  exit 1
+fi
+
+now_ms() {
+  date +%s%3N
+}
+
+rss_kb() {
+  if [[ -r "/proc/$1/status" ]]; then
+    awk '/^VmRSS:/ { print $2 }' "/proc/$1/status"
+  else
+    ps -o rss= -p "$1" | tr -d ' '
+  fi
+}
+
+# Starts the command, waits for the first HTTP answer, prints "<millis> <rss kB>" and stops it.
+measure() {
+  local start pid code elapsed rss
+  start=$(now_ms)
+  "$@" --server.port="$PORT" "${APP_ARGS[@]}" > "$WORK/last.log" 2>&1 &
+  pid=$!
+  while true; do
+    code=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$PORT/actuator/health" || true)
+    if [[ "$code" != "000" ]]; then
+      break
+    fi
+    if ! kill -0 "$pid" 2>/dev/null || (( $(now_ms) - start > TIMEOUT * 1000 )); then
+      echo "Application did not start, see $WORK/last.log" >&2
+      kill "$pid" 2>/dev/null || true
+      exit 1
+    fi
+    sleep 0.05
+  done
+  elapsed=$(( $(now_ms) - start ))
+  rss=$(rss_kb "$pid")
+  # SIGTERM is a normal JVM exit, which is also when a CDS archive gets written.
+  kill -TERM "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$elapsed $rss"
+}
+
+report() {
+  local name=$1
+  shift
+  local times=() rss=() result
+  for ((i = 0; i < RUNS; i++)); do
+    result=$(measure "$@")
+    times+=("${result% *}")
+    rss+=("${result#* }")
+  done
+  printf '%-8s  %8s ms  %8s MB\n' "$name" "$(median "${times[@]}")" "$(( $(median "${rss[@]}") / 1024 ))"
+}
+
+median() {
+  printf '%s\n' "$@" | sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+rm -rf "$WORK"
+mkdir -p "$WORK/unpacked"
+
+# CDS only archives classes loaded from jar files by the built-in class loaders, so the fat
+# jar is unpacked into a plain class path with the application classes re-jarred.
+(cd "$WORK/unpacked" && unzip -q "../../../$JAR")
+jar --create --file "$WORK/application.jar" -C "$WORK/unpacked/BOOT-INF/classes" .
+CLASSPATH_CDS="$WORK/application.jar:$WORK/unpacked/BOOT-INF/lib/*"
+
+echo "Training run for the CDS archive..."
+measure java -XX:ArchiveClassesAtExit="$WORK/application.jsa" -Dspring.aot.enabled=true \
+  -cp "$CLASSPATH_CDS" "$MAIN_CLASS" > /dev/null
+
+echo "Median of $RUNS runs, $(java -version 2>&1 | head -n 1)"
+printf '%-8s  %11s  %11s\n' mode ready rss
+report jar java -jar "$JAR"
+report aot java -Dspring.aot.enabled=true -jar "$JAR"
+report aot-cds java -XX:SharedArchiveFile="$WORK/application.jsa" -Dspring.aot.enabled=true \
+  -cp "$CLASSPATH_CDS" "$MAIN_CLASS"
+if [[ -x "$NATIVE" ]]; then
+  report native "$NATIVE"
+fi
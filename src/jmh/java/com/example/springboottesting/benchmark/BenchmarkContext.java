@@ -0,0 +1,48 @@
+package com.example.springboottesting.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.springboottesting.SpringBootTestingApplication;
+import com.example.springboottesting.model.Employee;
+
+/**
+ * Boots the application against the in-memory H2 database of the {@code test} profile
+ * so benchmarks measure the real service, repository and MVC stack.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class)
+                .web(webApplicationType)
+                .profiles("test")
+                // The load benchmarks send far more from one client than the rate limiter lets through.
+                .properties("server.port=0", "logging.level.root=WARN", "spring.main.banner-mode=off",
+                        "app.rate-limit.enabled=false")
+                .properties(properties)
+                .run();
+    }
+
+    static List<Employee> employees(String prefix, int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(employee(prefix + i));
+        }
+        return employees;
+    }
+
+    static Employee employee(String key) {
+        return Employee.builder()
+                .firstName("First" + key)
+                .lastName("Last" + key)
+                .email(key + "@bench.example.com")
+                .build();
+    }
+}
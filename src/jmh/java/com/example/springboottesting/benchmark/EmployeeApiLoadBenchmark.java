@@ -0,0 +1,125 @@
+package com.example.springboottesting.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.service.EmployeeService;
+
+/**
+ * Load test of the real HTTP stack comparing the default platform-thread Tomcat pool with the
+ * {@code virtual-threads} profile. The {@code virtual} mode needs the benchmark JVM to be Java 21+.
+ * A small Tomcat pool and an artificial per-query delay make the thread bottleneck visible on H2:
+ * {@code mvn -Pbenchmark verify -Djmh.args=EmployeeApiLoadBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(256)
+public class EmployeeApiLoadBenchmark {
+
+    @Param({ "platform", "virtual" })
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    private long[] ids;
+
+    @Setup
+    public void setup() {
+        String[] properties = {
+                "server.tomcat.threads.max=32",
+                "spring.datasource.hikari.maximum-pool-size=32",
+                // Simulates network round trips to a remote database on top of in-memory H2.
+                "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + SlowStatementInspector.class.getName() };
+        context = "virtual".equals(mode)
+                ? BenchmarkContext.start(WebApplicationType.SERVLET, concat(properties, "app.virtual-threads.enabled=true"))
+                : BenchmarkContext.start(WebApplicationType.SERVLET, properties);
+
+        ids = context.getBean(EmployeeService.class)
+                .saveEmployees(BenchmarkContext.employees("load", 1_000)).stream()
+                .mapToLong(BatchItemResult::getId)
+                .toArray();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/employees";
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getEmployeesPage() throws Exception {
+        return send(baseUrl + "/page?size=50");
+    }
+
+    @Benchmark
+    public int getEmployeeById() throws Exception {
+        return send(baseUrl + "/" + ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    private int send(String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String[] concat(String[] properties, String extra) {
+        String[] all = Arrays.copyOf(properties, properties.length + 1);
+        all[properties.length] = extra;
+        return all;
+    }
+
+    /**
+     * Adds a fixed delay to every SQL statement to stand in for database latency.
+     */
+    public static class SlowStatementInspector implements StatementInspector {
+
+        @Override
+        public String inspect(String sql) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return sql;
+        }
+    }
+}
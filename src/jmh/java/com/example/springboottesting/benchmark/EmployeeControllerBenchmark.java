@@ -0,0 +1,161 @@
+package com.example.springboottesting.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeControllerBenchmark {
+
+    static final int SEED_SIZE = 1_000;
+
+    static final int WRITE_BATCH_SIZE = 100;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private MockMvc mockMvc;
+
+    private ObjectMapper objectMapper;
+
+    private long[] ids;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start(WebApplicationType.SERVLET);
+        employeeService = context.getBean(EmployeeService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+        ids = employeeService.saveEmployees(BenchmarkContext.employees("seed", SEED_SIZE)).stream()
+                .mapToLong(BatchItemResult::getId)
+                .toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getAllEmployees() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get("/employees")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getEmployeesPage() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get("/employees/page").param("size", "100")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult streamEmployees() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/employees/stream")).andReturn();
+        return mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getEmployeeById() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get("/employees/{id}", randomId())).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createEmployee() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post("/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(BenchmarkContext.employee("create" + sequence.incrementAndGet()))))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult updateEmployee() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.put("/employees/{id}", randomId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(BenchmarkContext.employee("update" + sequence.incrementAndGet()))))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createAndDeleteEmployee() throws Exception {
+        Employee created = employeeService.saveEmployee(
+                BenchmarkContext.employee("delete" + sequence.incrementAndGet()));
+        return mockMvc.perform(MockMvcRequestBuilders.delete("/employees/{id}", created.getId())).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createEmployeesBatch() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.post("/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(BenchmarkContext.employees("batch" + sequence.incrementAndGet() + "-",
+                        WRITE_BATCH_SIZE))))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult updateEmployeesBatch() throws Exception {
+        List<Employee> employees = BenchmarkContext.employees("rebatch" + sequence.incrementAndGet() + "-",
+                WRITE_BATCH_SIZE);
+        int start = ThreadLocalRandom.current().nextInt(ids.length - WRITE_BATCH_SIZE);
+        for (int i = 0; i < employees.size(); i++) {
+            employees.get(i).setId(ids[start + i]);
+        }
+        return mockMvc.perform(MockMvcRequestBuilders.put("/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(employees)))
+                .andReturn();
+    }
+
+    @Benchmark
+    public MvcResult createAndDeleteEmployeesBatch() throws Exception {
+        List<Long> created = employeeService.saveEmployees(
+                BenchmarkContext.employees("unbatch" + sequence.incrementAndGet() + "-", WRITE_BATCH_SIZE))
+                .stream()
+                .map(BatchItemResult::getId)
+                .toList();
+        return mockMvc.perform(MockMvcRequestBuilders.delete("/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(created)))
+                .andReturn();
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
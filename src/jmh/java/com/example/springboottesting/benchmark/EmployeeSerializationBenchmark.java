@@ -0,0 +1,90 @@
+package com.example.springboottesting.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.model.Employee;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Serializes employee lists with the hand-written serializers, as JSON and CBOR, against plain
+ * reflective Jackson. Run with {@code -prof gc} to compare bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+
+    @Param({ "1", "100", "10000" })
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectMapper reflectiveObjectMapper;
+
+    private ObjectMapper cborObjectMapper;
+
+    private List<Employee> employees;
+
+    private List<EmployeeView> views;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        reflectiveObjectMapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(MapperFeature.USE_ANNOTATIONS)
+                .build();
+        cborObjectMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        employees = BenchmarkContext.employees("serialize", size);
+        for (int i = 0; i < employees.size(); i++) {
+            employees.get(i).setId(i + 1);
+            employees.get(i).setVersion(0L);
+        }
+        views = employees.stream().map(EmployeeView::of).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeListToBytes() throws IOException {
+        return objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public void serializeListToStream() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), employees);
+    }
+
+    @Benchmark
+    public void serializeViewsToStream() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), views);
+    }
+
+    @Benchmark
+    public void serializeViewsReflectivelyToStream() throws IOException {
+        reflectiveObjectMapper.writeValue(OutputStream.nullOutputStream(), views);
+    }
+
+    @Benchmark
+    public void serializeViewsToCborStream() throws IOException {
+        cborObjectMapper.writeValue(OutputStream.nullOutputStream(), views);
+    }
+}
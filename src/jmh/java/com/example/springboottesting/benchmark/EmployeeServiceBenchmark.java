@@ -0,0 +1,113 @@
+package com.example.springboottesting.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.dto.EmployeePage;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.service.EmployeeService;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    static final int SEED_SIZE = 10_000;
+
+    static final int WRITE_BATCH_SIZE = 500;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeService employeeService;
+
+    private EmployeeRepository employeeRepository;
+
+    private long[] ids;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start(WebApplicationType.NONE);
+        employeeService = context.getBean(EmployeeService.class);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+
+        List<BatchItemResult> seeded = employeeService.saveEmployees(BenchmarkContext.employees("seed", SEED_SIZE));
+        ids = seeded.stream().mapToLong(BatchItemResult::getId).toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeByIdCached() {
+        return employeeService.getEmployeeById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Employee> findByIdRepository() {
+        return employeeRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Employee> findByEmailMiss() {
+        return employeeRepository.findByEmail("missing-" + sequence.incrementAndGet() + "@bench.example.com");
+    }
+
+    @Benchmark
+    public EmployeePage getEmployeesPage() {
+        return employeeService.getEmployeesPage(null, 100);
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(BenchmarkContext.employee("single" + sequence.incrementAndGet()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WRITE_BATCH_SIZE)
+    public List<BatchItemResult> saveEmployeesBatch() {
+        return employeeService.saveEmployees(
+                BenchmarkContext.employees("batch" + sequence.incrementAndGet() + "-", WRITE_BATCH_SIZE));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WRITE_BATCH_SIZE)
+    public int saveEmployeesLoop() {
+        List<Employee> employees = BenchmarkContext.employees("loop" + sequence.incrementAndGet() + "-",
+                WRITE_BATCH_SIZE);
+        for (Employee employee : employees) {
+            employeeService.saveEmployee(employee);
+        }
+        return employees.size();
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
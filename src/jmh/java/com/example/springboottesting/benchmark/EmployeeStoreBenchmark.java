@@ -0,0 +1,133 @@
+package com.example.springboottesting.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.offheap.OffHeapEmployeeStore;
+import com.example.springboottesting.repository.EmployeeRepository;
+
+/**
+ * Lookup latency of the off-heap store against the JPA repository over the same data set, and
+ * the store's memory per employee (printed once loaded). Run with
+ * {@code -Djmh.args="EmployeeStore -prof gc"} to see the allocations per lookup as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx4g", "-XX:MaxDirectMemorySize=4g" })
+public class EmployeeStoreBenchmark {
+
+    static final int LOAD_CHUNK_SIZE = 10_000;
+
+    @Param({ "1000000" })
+    private int size;
+
+    private Path directory;
+
+    private OffHeapEmployeeStore store;
+
+    private ConfigurableApplicationContext context;
+
+    private EmployeeRepository employeeRepository;
+
+    private long[] ids;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("employee-store-");
+        long heapBefore = usedHeap();
+        // Snapshots are left to teardown; they would only add noise to the load.
+        store = OffHeapEmployeeStore.open(directory, 64 * 1024 * 1024, Long.MAX_VALUE);
+        for (int from = 0; from < size; from += LOAD_CHUNK_SIZE) {
+            store.insertAll(BenchmarkContext.employees("offheap" + from + "-", Math.min(LOAD_CHUNK_SIZE, size - from)));
+        }
+        long heapAfter = usedHeap();
+        System.out.printf("%nOff-heap store: %d employees, %.1f bytes/employee in records and indexes,"
+                + " heap grew by %.1f bytes/employee (the index arrays)%n", store.size(), (double) store.memoryBytes() / size,
+                (double) (heapAfter - heapBefore) / size);
+
+        context = BenchmarkContext.start(WebApplicationType.NONE);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        for (int from = 0; from < size; from += LOAD_CHUNK_SIZE) {
+            employeeRepository.bulkInsert(
+                    BenchmarkContext.employees("jpa" + from + "-", Math.min(LOAD_CHUNK_SIZE, size - from)));
+        }
+        ids = context.getBean(JdbcTemplate.class).queryForList("select id from employees", Long.class).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        store.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted((a, b) -> b.compareTo(a)).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Employee offHeapFindById() {
+        return store.findById(randomOffHeapId());
+    }
+
+    @Benchmark
+    public Employee offHeapFindByEmail() {
+        return store.findByEmail("offheap0-" + ThreadLocalRandom.current().nextInt(LOAD_CHUNK_SIZE) + "@bench.example.com");
+    }
+
+    @Benchmark
+    public List<Employee> offHeapFindPage() {
+        return store.findAfter(randomOffHeapId(), 100);
+    }
+
+    @Benchmark
+    public Employee jpaFindById() {
+        return employeeRepository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]).orElse(null);
+    }
+
+    @Benchmark
+    public Employee jpaFindByEmail() {
+        return employeeRepository.findByEmail("jpa0-" + ThreadLocalRandom.current().nextInt(LOAD_CHUNK_SIZE)
+                + "@bench.example.com").orElse(null);
+    }
+
+    // The store hands out ids 1..size in insertion order.
+    private long randomOffHeapId() {
+        return 1 + ThreadLocalRandom.current().nextInt(size);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
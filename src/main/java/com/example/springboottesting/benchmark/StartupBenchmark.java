@@ -0,0 +1,131 @@
+package com.example.springboottesting.benchmark;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs a few representative queries against the real database once the application is ready
+ * and reports their latency, both in the log and as the {@value #TIMER} timer tagged by query.
+ * Warm-up runs are discarded so that connection setup and statement preparation don't count.
+ */
+@Component
+@ConditionalOnProperty(name = "app.startup-benchmark.enabled", havingValue = "true")
+public class StartupBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    public static final String TIMER = "employee.startup.benchmark";
+
+    private static final int PAGE_SIZE = 20;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private EmployeeRepository employeeRepository;
+
+    private DataSource dataSource;
+
+    private MeterRegistry meterRegistry;
+
+    private int warmup;
+
+    private int iterations;
+
+    public StartupBenchmark(JdbcTemplate jdbcTemplate, EmployeeRepository employeeRepository, DataSource dataSource,
+            MeterRegistry meterRegistry,
+            @Value("${app.startup-benchmark.warmup:50}") int warmup,
+            @Value("${app.startup-benchmark.iterations:200}") int iterations) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.employeeRepository = employeeRepository;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.warmup = warmup;
+        this.iterations = iterations;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public List<Result> run() {
+        logPoolSettings();
+        List<Result> results = new ArrayList<>();
+        try {
+            results.add(measure("round-trip", () -> jdbcTemplate.queryForObject("select 1", Integer.class)));
+            results.add(measure("find-by-id", () -> employeeRepository.findById(1L)));
+            results.add(measure("first-page",
+                    () -> employeeRepository.findViewsAfter(0, PageRequest.of(0, PAGE_SIZE))));
+        } catch (DataAccessException e) {
+            // A benchmark must never keep the application from serving.
+            logger.warn("Startup benchmark failed", e);
+        }
+        results.forEach(result -> logger.info("Startup benchmark {}: p50={}us p99={}us max={}us over {} runs",
+                result.query(), result.p50().toNanos() / 1000, result.p99().toNanos() / 1000,
+                result.max().toNanos() / 1000, result.samples()));
+        return results;
+    }
+
+    private Result measure(String query, Runnable action) {
+        for (int i = 0; i < warmup; i++) {
+            action.run();
+        }
+        Timer timer = Timer.builder(TIMER)
+                .description("Query latency measured at startup")
+                .tag("query", query)
+                .register(meterRegistry);
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            action.run();
+            samples[i] = System.nanoTime() - start;
+            timer.record(samples[i], TimeUnit.NANOSECONDS);
+        }
+        Arrays.sort(samples);
+        return new Result(query, iterations, percentile(samples, 0.5), percentile(samples, 0.99),
+                Duration.ofNanos(samples.length == 0 ? 0 : samples[samples.length - 1]));
+    }
+
+    private static Duration percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Duration.ZERO;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return Duration.ofNanos(sorted[Math.max(0, index)]);
+    }
+
+    private void logPoolSettings() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+                logger.info("Connection pool {}: maximumPoolSize={} minimumIdle={} connectionTimeout={}ms "
+                        + "maxLifetime={}ms driver properties={}", pool.getPoolName(), pool.getMaximumPoolSize(),
+                        pool.getMinimumIdle(), pool.getConnectionTimeout(), pool.getMaxLifetime(),
+                        pool.getDataSourceProperties().stringPropertyNames());
+            }
+        } catch (SQLException e) {
+            logger.debug("Could not read connection pool settings", e);
+        }
+    }
+
+    public record Result(String query, int samples, Duration p50, Duration p99, Duration max) {
+    }
+}
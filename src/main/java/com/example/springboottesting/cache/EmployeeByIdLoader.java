@@ -0,0 +1,116 @@
+package com.example.springboottesting.cache;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.springboottesting.config.CacheConfig;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.tenant.TenantContext;
+import com.example.springboottesting.tenant.TenantContext.TenantKey;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Loads employees by id behind the {@link CacheConfig#EMPLOYEES} cache. Concurrent lookups of
+ * the same id share one query, and ids that don't exist are remembered for a short time in
+ * {@link CacheConfig#EMPLOYEES_MISSING}, so a hot missing id doesn't reach the database either.
+ */
+@Component
+public class EmployeeByIdLoader {
+
+    public static final String LOOKUPS = "employee.lookups";
+
+    // Keyed like the caches, by TenantContext.key(id).
+    private final SingleFlight<TenantKey, Optional<Employee>> singleFlight = new SingleFlight<>();
+
+    // Bumped on every create; a miss is only remembered if nothing was created while it was loaded.
+    private final AtomicLong creations = new AtomicLong();
+
+    private EmployeeRepository employeeRepository;
+
+    private Cache employees;
+
+    private Cache missing;
+
+    private Counter queried;
+
+    private Counter coalesced;
+
+    private Counter knownMissing;
+
+    public EmployeeByIdLoader(EmployeeRepository employeeRepository, CacheManager cacheManager,
+            MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.employees = cacheManager.getCache(CacheConfig.EMPLOYEES);
+        this.missing = cacheManager.getCache(CacheConfig.EMPLOYEES_MISSING);
+        this.queried = lookups(meterRegistry, "queried");
+        this.coalesced = lookups(meterRegistry, "coalesced");
+        this.knownMissing = lookups(meterRegistry, "known_missing");
+        Gauge.builder("employee.lookups.coalescing.ratio", this, EmployeeByIdLoader::coalescingRatio)
+                .description("Share of database lookups by id that joined a query already in flight")
+                .register(meterRegistry);
+    }
+
+    public Optional<Employee> findById(long id) {
+        TenantKey key = TenantContext.key(id);
+        if (missing.get(key) != null) {
+            knownMissing.increment();
+            return Optional.empty();
+        }
+        return singleFlight.execute(key, () -> {
+            queried.increment();
+            long creationsBefore = creations.get();
+            Optional<Employee> employee = employeeRepository.findById(id);
+            if (employee.isEmpty() && creations.get() == creationsBefore) {
+                missing.put(key, Boolean.TRUE);
+            }
+            return employee;
+        }, coalesced::increment);
+    }
+
+    /**
+     * The version of an employee: from the cached entity when there is one, since that is what a
+     * read by id returns, otherwise from a query for the version column alone.
+     */
+    public Optional<Long> findVersion(long id) {
+        TenantKey key = TenantContext.key(id);
+        Employee cached = employees.get(key, Employee.class);
+        if (cached != null) {
+            return Optional.ofNullable(cached.getVersion());
+        }
+        if (missing.get(key) != null) {
+            knownMissing.increment();
+            return Optional.empty();
+        }
+        return employeeRepository.findVersionById(id);
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.getType() == EmployeeChangedEvent.Type.CREATED) {
+            creations.incrementAndGet();
+            missing.evict(new TenantKey(event.getTenant(), event.getId()));
+        }
+    }
+
+    double coalescingRatio() {
+        double total = queried.count() + coalesced.count();
+        return total == 0 ? 0 : coalesced.count() / total;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(LOOKUPS)
+                .description("Employee lookups by id that missed the employees cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
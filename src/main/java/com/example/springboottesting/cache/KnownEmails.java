@@ -0,0 +1,219 @@
+package com.example.springboottesting.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.springboottesting.datasource.TenantRoutingDataSource;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A Bloom filter of every tenant's emails in front of the duplicate-email checks: emails it has
+ * never seen are certainly free and skip the query, only possible hits are looked up. Loaded in
+ * the background at startup (until then every email is looked up), extended on each create and
+ * update, and rebuilt every {@code app.email-filter.rebuild-interval} to shed deleted and replaced
+ * emails, which a Bloom filter cannot forget. An email it misses (written by another instance, or
+ * concurrently) ends in a unique constraint violation, which the callers retry with an exact check.
+ */
+@Component
+public class KnownEmails {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnownEmails.class);
+
+    public static final String CHECKS = "employee.email.filter.checks";
+
+    static final int FETCH_SIZE = 1000;
+
+    static final long MIN_CAPACITY = 1 << 16;
+
+    private EmployeeRepository employeeRepository;
+
+    // Shard names, or just null without sharding.
+    private List<String> shards;
+
+    private boolean enabled;
+
+    private double falsePositiveRate;
+
+    private Duration rebuildInterval;
+
+    // Null until the first load completes.
+    private volatile ScalableBloomFilter filter;
+
+    // The filter being loaded, which changes must reach as well; null between rebuilds.
+    private volatile ScalableBloomFilter building;
+
+    private Counter absent;
+
+    private Counter possible;
+
+    private Counter unfiltered;
+
+    private Counter falsePositives;
+
+    private Counter queriesSaved;
+
+    private ScheduledExecutorService executor;
+
+    public KnownEmails(EmployeeRepository employeeRepository,
+            ObjectProvider<TenantRoutingDataSource> tenantRoutingDataSource, MeterRegistry meterRegistry,
+            @Value("${app.email-filter.enabled:true}") boolean enabled,
+            @Value("${app.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${app.email-filter.rebuild-interval:1h}") Duration rebuildInterval) {
+        this.employeeRepository = employeeRepository;
+        TenantRoutingDataSource routing = tenantRoutingDataSource.getIfAvailable();
+        this.shards = routing != null ? List.copyOf(routing.getShards().keySet()) : Collections.singletonList(null);
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+        this.absent = checks(meterRegistry, "absent");
+        this.possible = checks(meterRegistry, "possible");
+        this.unfiltered = checks(meterRegistry, "unfiltered");
+        this.falsePositives = Counter.builder("employee.email.filter.false_positives")
+                .description("Emails the filter reported as possibly taken that turned out to be free")
+                .register(meterRegistry);
+        this.queriesSaved = Counter.builder("employee.email.filter.queries.saved")
+                .description("Duplicate-email queries skipped because the filter ruled out every email")
+                .register(meterRegistry);
+        Gauge.builder("employee.email.filter.false_positive.ratio", this, KnownEmails::falsePositiveRatio)
+                .description("Share of free emails the filter reported as possibly taken")
+                .register(meterRegistry);
+        Gauge.builder("employee.email.filter.expected.false_positive.ratio", this,
+                knownEmails -> knownEmails.filter != null ? knownEmails.filter.expectedFalsePositiveRate() : 0)
+                .description("False-positive rate the filter's fill predicts")
+                .register(meterRegistry);
+        Gauge.builder("employee.email.filter.size", this,
+                knownEmails -> knownEmails.filter != null ? knownEmails.filter.approximateCount() : 0)
+                .description("Emails in the filter, including deleted ones until the next rebuild")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (enabled && executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "employee-email-filter");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::run, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The given emails that the current tenant's employees already use, as
+     * {@link EmployeeRepository#findExistingEmails} finds them, querying only the possible hits.
+     */
+    public List<String> findExisting(Collection<String> emails) {
+        ScalableBloomFilter current = filter;
+        if (current == null) {
+            unfiltered.increment(emails.size());
+            return employeeRepository.findExistingEmails(emails);
+        }
+        String tenant = TenantContext.current();
+        List<String> candidates = emails.stream()
+                .filter(email -> current.mightContain(key(tenant, email)))
+                .toList();
+        absent.increment(emails.size() - candidates.size());
+        possible.increment(candidates.size());
+        if (candidates.isEmpty()) {
+            queriesSaved.increment();
+            return List.of();
+        }
+        List<String> existing = employeeRepository.findExistingEmails(candidates);
+        falsePositives.increment(candidates.size() - new HashSet<>(existing).size());
+        return existing;
+    }
+
+    /**
+     * Loads a fresh filter from every shard and swaps it in; changes made meanwhile reach both.
+     */
+    public synchronized void rebuild() {
+        ScalableBloomFilter current = filter;
+        ScalableBloomFilter next = new ScalableBloomFilter(
+                Math.max(MIN_CAPACITY, current != null ? current.approximateCount() * 2 : 0), falsePositiveRate);
+        building = next;
+        try {
+            for (String shard : shards) {
+                TenantContext.callOnShard(shard, () -> {
+                    employeeRepository.streamEmails(FETCH_SIZE, (tenant, email) -> next.put(key(tenant, email)));
+                    return null;
+                });
+            }
+            filter = next;
+        } finally {
+            building = null;
+        }
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        if (event.getType() == EmployeeChangedEvent.Type.DELETED || event.getEmployee().getEmail() == null) {
+            return;
+        }
+        String key = key(event.getTenant(), event.getEmployee().getEmail());
+        // Read in the opposite order of rebuild()'s writes: a change that misses the filter being
+        // built committed before its load started, so the load sees it.
+        ScalableBloomFilter next = building;
+        ScalableBloomFilter current = filter;
+        if (next != null) {
+            next.put(key);
+        }
+        if (current != null) {
+            current.put(key);
+        }
+    }
+
+    double falsePositiveRatio() {
+        double free = falsePositives.count() + absent.count();
+        return free == 0 ? 0 : falsePositives.count() / free;
+    }
+
+    private void run() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // The previous filter, kept up to date by the events, stays in use.
+            logger.warn("Rebuilding the email filter failed, retrying in {}", rebuildInterval, e);
+        }
+    }
+
+    // Tenant ids never contain '/'.
+    private static String key(String tenant, String email) {
+        return tenant + '/' + email;
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(CHECKS)
+                .description("Emails checked for duplicates through the email filter")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
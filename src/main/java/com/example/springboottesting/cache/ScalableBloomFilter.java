@@ -0,0 +1,164 @@
+package com.example.springboottesting.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter that grows with its contents: once the newest layer holds as many keys as it was
+ * sized for, a layer of twice the capacity and half the false-positive rate is added, so the
+ * overall rate stays below the configured one however far the insertions outrun the estimate.
+ * Adds and lookups are lock-free; bits are set by compare-and-set.
+ */
+final class ScalableBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private volatile Layer[] layers;
+
+    ScalableBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing: " + expectedInsertions + " keys at "
+                    + falsePositiveRate);
+        }
+        // Rates of p/2, p/4, ... over the layers add up to less than p.
+        this.layers = new Layer[] { new Layer(expectedInsertions, falsePositiveRate / 2) };
+    }
+
+    void put(String key) {
+        long hash = hash(key);
+        Layer[] current = layers;
+        // A key that may already be in could only use up capacity.
+        for (Layer layer : current) {
+            if (layer.mightContain(hash)) {
+                return;
+            }
+        }
+        Layer last = current[current.length - 1];
+        last.put(hash);
+        if (last.count.incrementAndGet() >= last.capacity) {
+            grow(last);
+        }
+    }
+
+    boolean mightContain(String key) {
+        long hash = hash(key);
+        for (Layer layer : layers) {
+            if (layer.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The number of distinct keys added, give or take the ones mistaken for present.
+     */
+    long approximateCount() {
+        long count = 0;
+        for (Layer layer : layers) {
+            count += layer.count.get();
+        }
+        return count;
+    }
+
+    /**
+     * The chance that a key never added is reported as present, given the current fill.
+     */
+    double expectedFalsePositiveRate() {
+        double allNegative = 1;
+        for (Layer layer : layers) {
+            allNegative *= 1 - layer.expectedFalsePositiveRate();
+        }
+        return 1 - allNegative;
+    }
+
+    int layerCount() {
+        return layers.length;
+    }
+
+    private synchronized void grow(Layer full) {
+        Layer[] current = layers;
+        if (current[current.length - 1] != full) {
+            return;
+        }
+        Layer[] grown = new Layer[current.length + 1];
+        System.arraycopy(current, 0, grown, 0, current.length);
+        grown[current.length] = new Layer(full.capacity * 2, full.falsePositiveRate / 2);
+        layers = grown;
+    }
+
+    // FNV-1a over the chars, finished with the MurmurHash3 mixer for avalanche.
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Layer {
+
+        private final AtomicLongArray words;
+
+        private final long bits;
+
+        private final int hashes;
+
+        private final long capacity;
+
+        private final double falsePositiveRate;
+
+        private final AtomicLong count = new AtomicLong();
+
+        private Layer(long capacity, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+            this.words = new AtomicLongArray(Math.toIntExact((Math.max(optimalBits, Long.SIZE) + 63) / Long.SIZE));
+            this.bits = (long) words.length() * Long.SIZE;
+            this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * LN2));
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        // Probe i is at h1 + i * h2 (Kirsch-Mitzenmacher), h2 being the key's hash mixed once more.
+        private void put(long hash) {
+            long h2 = mix(hash) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long index = Long.remainderUnsigned(hash + i * h2, bits);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long old;
+                do {
+                    old = words.get(word);
+                    if ((old & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, old, old | mask));
+            }
+        }
+
+        private boolean mightContain(long hash) {
+            long h2 = mix(hash) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long index = Long.remainderUnsigned(hash + i * h2, bits);
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private double expectedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-(double) hashes * count.get() / bits), hashes);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.springboottesting.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EMPLOYEES = "employees";
+
+    public static final String EMPLOYEES_BY_EMAIL = "employeesByEmail";
+
+    // Ids known not to exist; short-lived, unlike the spring.cache.caffeine.spec caches.
+    public static final String EMPLOYEES_MISSING = "employeesMissing";
+
+    // The caches are shared by all tenants, so their keys are TenantContext.key(id or email).
+    private static final String TENANT_KEY = "T(com.example.springboottesting.tenant.TenantContext).key(";
+
+    public static final String ID_KEY = TENANT_KEY + "#id)";
+
+    public static final String RESULT_ID_KEY = TENANT_KEY + "#result.id)";
+
+    public static final String FIRST_ARGUMENT_KEY = TENANT_KEY + "#p0)";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> missingEmployeesCache(
+            @Value("${app.cache.missing-ttl:5s}") Duration ttl) {
+        return cacheManager -> cacheManager.registerCustomCache(EMPLOYEES_MISSING, Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build());
+    }
+}
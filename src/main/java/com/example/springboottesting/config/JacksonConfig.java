@@ -0,0 +1,21 @@
+package com.example.springboottesting.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+@Configuration
+public class JacksonConfig {
+
+    // Accept: application/cbor gets the same mapper setup as JSON, encoded as CBOR. JSON stays the
+    // default because it precedes CBOR in the converter list.
+    @Bean
+    @Profile("!reactive")
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.springboottesting.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import com.example.springboottesting.dto.EmployeeChange;
+import com.example.springboottesting.dto.EmployeePage;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.model.Employee;
+
+/**
+ * Reflection metadata for a native image that AOT processing can't infer: the GET endpoints
+ * return MappingJacksonValue, which hides the serialized types, and Hibernate instantiates
+ * EmployeeView from the JPQL constructor expressions.
+ */
+@Configuration(proxyBeanMethods = false)
+@RegisterReflectionForBinding({ EmployeeView.class, EmployeePage.class, EmployeeChange.class, Employee.class })
+@ImportRuntimeHints(NativeHintsConfig.EmployeeRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class EmployeeRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            hints.reflection().registerType(EmployeeView.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.springboottesting.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+import com.example.springboottesting.ratelimit.RateLimitFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.rate-limit.enabled", havingValue = "true")
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties,
+            MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(
+                new RateLimitFilter(properties, meterRegistry));
+        registration.addUrlPatterns("/employees", "/employees/*");
+        // Behind the observation filter, so shed requests still show up in http.server.requests.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.springboottesting.config;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.example.springboottesting.ratelimit.EndpointBudget;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled;
+
+    // Buckets are per authenticated user, else per remote address. A header naming the client
+    // (e.g. X-Client-Id) is only used when set here, and then only from trustedProxies (from any
+    // sender when that is empty): a client could otherwise rotate it for a fresh bucket each time.
+    private String clientHeader;
+
+    private Set<String> trustedProxies = new HashSet<>();
+
+    // Token buckets kept for idle clients, bounded so that random client ids can't exhaust memory.
+    private int maxClients = 100_000;
+
+    private Duration clientIdleTimeout = Duration.ofMinutes(10);
+
+    // Per client and second.
+    private Budget byId = new Budget(200, 400);
+
+    private Budget list = new Budget(20, 40);
+
+    private Budget export = new Budget(0.2, 2);
+
+    private Budget write = new Budget(50, 100);
+
+    private Concurrency concurrency = new Concurrency();
+
+    public Budget budget(EndpointBudget endpointBudget) {
+        return switch (endpointBudget) {
+            case BY_ID -> byId;
+            case LIST -> list;
+            case EXPORT -> export;
+            case WRITE -> write;
+        };
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Budget {
+
+        private double permitsPerSecond;
+
+        private int burst;
+    }
+
+    // Shared by all clients: bounds the requests in flight, except long-lived exports.
+    @Getter
+    @Setter
+    public static class Concurrency {
+
+        private int initialLimit = 64;
+
+        private int minLimit = 8;
+
+        private int maxLimit = 256;
+
+        private Duration latencyThreshold = Duration.ofMillis(500);
+
+        private double backoffRatio = 0.9;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.springboottesting.config;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.example.springboottesting.tenant.ReactiveTenantFilter;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * The reactive stack only needs a {@link DatabaseClient}. JPA keeps running next to it, so the JDBC
+ * pool is declared here (Boot backs off its own once a {@link ConnectionFactory} exists) and Spring
+ * Data R2DBC's transaction manager stays excluded, as it would stop Boot creating the JPA one.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig {
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    // Deliberately not a TransactionManager bean, which would stop Boot creating the JPA one.
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    @Bean
+    public ReactiveTenantFilter reactiveTenantFilter() {
+        return new ReactiveTenantFilter();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
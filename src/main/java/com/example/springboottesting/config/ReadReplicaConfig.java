@@ -0,0 +1,68 @@
+package com.example.springboottesting.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.example.springboottesting.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Opt-in ({@code app.read-replicas.enabled=true}) routing of read-only transactions to the
+ * replicas listed in {@code app.read-replicas.urls}; everything else keeps using the primary
+ * configured under {@code spring.datasource}.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.read-replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties({ DataSourceProperties.class, ReadReplicaProperties.class })
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+            DataSourceProperties primaryProperties, ReadReplicaProperties properties) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : properties.getUrls()) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(properties.getUsername() != null
+                            ? properties.getUsername()
+                            : primaryProperties.determineUsername())
+                    .password(properties.getPassword() != null
+                            ? properties.getPassword()
+                            : primaryProperties.determinePassword())
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replicas.add(replica);
+        }
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas,
+                properties.getLagQuery(), properties.getMaxLag());
+        routingDataSource.startHealthChecks(properties.getHealthCheckInterval());
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
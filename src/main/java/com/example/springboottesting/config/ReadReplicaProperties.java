@@ -0,0 +1,33 @@
+package com.example.springboottesting.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("app.read-replicas")
+public class ReadReplicaProperties {
+
+    private boolean enabled;
+
+    private List<String> urls = new ArrayList<>();
+
+    // Default to spring.datasource.username/password.
+    private String username;
+
+    private String password;
+
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    // Replication lag in seconds; 0 once the replica has replayed everything it received.
+    private String lagQuery = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end";
+}
@@ -0,0 +1,98 @@
+package com.example.springboottesting.config;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.springboottesting.datasource.TenantRoutingDataSource;
+import com.example.springboottesting.model.Employee;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Opt-in ({@code app.sharding.enabled=true}) spreading of tenants over the databases listed in
+ * {@code app.sharding.shards}, which replace {@code spring.datasource}. Every shard is migrated at
+ * startup and hands out ids from its own range, so ids stay unique across shards.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties({ DataSourceProperties.class, ShardingProperties.class })
+public class ShardingConfig {
+
+    // Shard k starts its id sequence at k * 2^40.
+    static final int SHARD_ID_BITS = 40;
+
+    @Bean
+    @Primary
+    public TenantRoutingDataSource tenantRoutingDataSource(ShardingProperties properties,
+            DataSourceProperties defaults, @Value("${app.read-replicas.enabled:false}") boolean readReplicas) {
+        if (readReplicas) {
+            throw new IllegalStateException("app.sharding and app.read-replicas cannot be enabled together");
+        }
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        properties.getShards().forEach((name, shard) -> {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername() != null ? shard.getUsername() : defaults.determineUsername())
+                    .password(shard.getPassword() != null ? shard.getPassword() : defaults.determinePassword())
+                    .build();
+            dataSource.setPoolName("shard-" + name);
+            shards.put(name, dataSource);
+        });
+        return new TenantRoutingDataSource(shards, properties.getTenants());
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardMigrationStrategy(TenantRoutingDataSource tenantRoutingDataSource) {
+        return flyway -> {
+            int index = 0;
+            for (DataSource shard : tenantRoutingDataSource.getShards().values()) {
+                Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shard).load().migrate();
+                reserveIdRange(shard, (long) index++ << SHARD_ID_BITS);
+            }
+        };
+    }
+
+    // Hibernate's pooled optimizer takes id blocks from whichever shard the current tenant lives
+    // on and may hand them to a tenant on another shard; disjoint ranges keep that harmless.
+    static void reserveIdRange(DataSource shard, long base) {
+        if (base == 0) {
+            return;
+        }
+        new JdbcTemplate(shard).execute((ConnectionCallback<Void>) connection -> {
+            String next = connection.isWrapperFor(PGConnection.class)
+                    ? "select nextval('" + Employee.ID_SEQUENCE + "')"
+                    : "select next value for " + Employee.ID_SEQUENCE;
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet rs = statement.executeQuery(next)) {
+                    rs.next();
+                    if (rs.getLong(1) >= base) {
+                        return null;
+                    }
+                }
+                statement.execute("alter sequence " + Employee.ID_SEQUENCE + " restart with "
+                        + (base + Employee.ID_ALLOCATION_SIZE));
+            }
+            return null;
+        });
+    }
+}
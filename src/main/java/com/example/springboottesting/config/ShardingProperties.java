@@ -0,0 +1,35 @@
+package com.example.springboottesting.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties("app.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    // In declaration order, which also fixes each shard's id range: only ever append shards.
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    // Tenant id to shard name; other tenants are spread over the shards by hash.
+    private Map<String, String> tenants = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Shard {
+
+        private String url;
+
+        // Default to spring.datasource.username/password.
+        private String username;
+
+        private String password;
+    }
+}
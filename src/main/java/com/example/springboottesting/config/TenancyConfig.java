@@ -0,0 +1,23 @@
+package com.example.springboottesting.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+import com.example.springboottesting.tenant.TenantFilter;
+
+@Configuration
+@Profile("!reactive")
+public class TenancyConfig {
+
+    @Bean
+    public FilterRegistrationBean<TenantFilter> tenantFilter() {
+        FilterRegistrationBean<TenantFilter> registration = new FilterRegistrationBean<>(new TenantFilter());
+        registration.addUrlPatterns("/employees", "/employees/*");
+        // Ahead of the rate limiter, so a malformed tenant id is rejected without using up a permit.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.springboottesting.config;
+
+import java.lang.reflect.Method;
+
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.example.springboottesting.controller.RespondAsync;
+
+// A handler mapped with a custom condition wins over an otherwise identical one without it.
+@Configuration
+@Profile("!reactive")
+public class WebMvcConfig implements WebMvcRegistrations {
+
+    @Override
+    public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+        return new RequestMappingHandlerMapping() {
+
+            @Override
+            protected RequestCondition<?> getCustomMethodCondition(Method method) {
+                return AnnotatedElementUtils.hasAnnotation(method, RespondAsync.class)
+                        ? RespondAsync.Condition.INSTANCE
+                        : null;
+            }
+        };
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.springboottesting.controller;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.springboottesting.dto.EmployeeChange;
+import com.example.springboottesting.exception.BadRequestException;
+import com.example.springboottesting.outbox.EmployeeChangeStream;
+import com.example.springboottesting.outbox.EmployeeChangeStream.Subscription;
+
+@RestController
+@RequestMapping("/employees/changes")
+@Profile("!reactive")
+public class EmployeeChangesController {
+
+  private EmployeeChangeStream employeeChangeStream;
+
+  public EmployeeChangesController(EmployeeChangeStream employeeChangeStream) {
+    this.employeeChangeStream = employeeChangeStream;
+  }
+
+  // Each change is one event whose id is its position, so a reconnecting EventSource resumes
+  // through Last-Event-ID. Without since= or Last-Event-ID only changes from now on are sent.
+  @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamChanges(@RequestParam(required = false) Long since,
+      @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+    Long from = lastEventId != null ? lastEventId : since;
+    if (from != null && from < 0) {
+      throw new BadRequestException("since must not be negative");
+    }
+
+    SseEmitter emitter = new SseEmitter();
+    Subscription subscription = employeeChangeStream.subscribe(
+        from != null ? from : employeeChangeStream.lastPosition(), new EmployeeChangeStream.Listener() {
+
+          @Override
+          public void onChanges(List<EmployeeChange> changes) throws Exception {
+            for (EmployeeChange change : changes) {
+              emitter.send(SseEmitter.event()
+                  .id(Long.toString(change.position()))
+                  .data(change, MediaType.APPLICATION_JSON));
+            }
+          }
+
+          @Override
+          public void onFailure(Throwable cause) {
+            emitter.completeWithError(cause);
+          }
+        });
+    emitter.onCompletion(subscription::cancel);
+    emitter.onTimeout(subscription::cancel);
+    emitter.onError(error -> subscription.cancel());
+    return emitter;
+  }
+}
@@ -1,30 +1,63 @@
 package com.example.springboottesting.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.exception.BadRequestException;
+import com.example.springboottesting.exception.PreconditionFailedException;
+import com.example.springboottesting.json.EmployeeFields;
 import com.example.springboottesting.model.Employee;
 import com.example.springboottesting.service.EmployeeService;
+import com.example.springboottesting.tenant.TenantContext;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @RestController
 @RequestMapping("/employees")
+@Profile("!reactive")
 public class EmployeeController {
 
+  private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+  // Clients may keep responses but revalidate each time; an unchanged resource answers 304.
+  private static final CacheControl REVALIDATE = CacheControl.noCache();
+
   private EmployeeService employeeService;
 
-  public EmployeeController(EmployeeService employeeService) {
+  private ObjectMapper objectMapper;
+
+  public EmployeeController(EmployeeService employeeService, ObjectMapper objectMapper) {
     this.employeeService = employeeService;
+    this.objectMapper = objectMapper;
   }
 
   @PostMapping
@@ -33,22 +66,98 @@ public class EmployeeController {
     return employeeService.saveEmployee(employee);
   }
 
+  @PostMapping("/batch")
+  public List<BatchItemResult> createEmployees(@RequestBody List<Employee> employees) {
+    return employeeService.saveEmployees(employees);
+  }
+
+  @PutMapping("/batch")
+  public List<BatchItemResult> updateEmployees(@RequestBody List<Employee> employees) {
+    return employeeService.updateEmployees(employees);
+  }
+
+  @DeleteMapping("/batch")
+  public List<BatchItemResult> deleteEmployees(@RequestBody List<Long> ids) {
+    return employeeService.deleteEmployees(ids);
+  }
+
+  // Every GET takes fields=firstName,email,... to serialize only those properties.
+  // The version is read before the data, so a response is never newer than its ETag claims.
   @GetMapping
-  public List<Employee> getAllEmployees() {
-    return employeeService.getAllEmployees();
+  public ResponseEntity<MappingJacksonValue> getAllEmployees(@RequestParam(required = false) String fields,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    EmployeeFields selection = fields(fields);
+    String eTag = eTag(employeeService.getEmployeesVersion(), accept, selection);
+    if (matches(ifNoneMatch, eTag)) {
+      return notModified(eTag);
+    }
+    return cacheable(eTag).body(select(employeeService.getAllEmployees(), selection));
   }
 
+  @GetMapping("/page")
+  public ResponseEntity<MappingJacksonValue> getEmployeesPage(@RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "100") int size, @RequestParam(required = false) String fields,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    EmployeeFields selection = fields(fields);
+    String eTag = eTag(employeeService.getEmployeesVersion(), accept, selection);
+    if (matches(ifNoneMatch, eTag)) {
+      return notModified(eTag);
+    }
+    return cacheable(eTag).body(select(employeeService.getEmployeesPage(cursor, size), selection));
+  }
+
+  @GetMapping("/stream")
+  public ResponseEntity<StreamingResponseBody> streamEmployees(@RequestParam(required = false) String fields) {
+    ObjectWriter writer = objectMapper.writerFor(EmployeeView.class)
+        .with(fields(fields).filters())
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    // The body is written on an async thread, so it takes the request's tenant along.
+    String tenant = TenantContext.current();
+    StreamingResponseBody body = outputStream -> {
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+        TenantContext.run(tenant, () -> employeeService.streamEmployees(employee -> {
+          try {
+            writer.writeValue(generator, EmployeeView.of(employee));
+            generator.writeRaw('\n');
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }));
+      }
+    };
+    return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+  }
+
+  // A matching If-None-Match costs a version lookup; the employee is not loaded.
   @GetMapping("/{id}")
-  public ResponseEntity<Employee> getEmployeeById(@PathVariable Long id) {
+  public ResponseEntity<MappingJacksonValue> getEmployeeById(@PathVariable Long id,
+      @RequestParam(required = false) String fields,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    EmployeeFields selection = fields(fields);
+    if (ifNoneMatch != null) {
+      String current = employeeService.getEmployeeVersion(id)
+          .map(version -> eTag(version.toString(), accept, selection))
+          .orElse(null);
+      if (current != null && matches(ifNoneMatch, current)) {
+        return notModified(current);
+      }
+    }
     return employeeService.getEmployeeById(id)
-        .map(ResponseEntity::ok)
+        .map(employee -> cacheable(eTag(employee, accept, selection))
+            .body(select(EmployeeView.of(employee), selection)))
         .orElseGet(() -> ResponseEntity.notFound().build());
   }
 
   @PutMapping("/{id}")
-  public ResponseEntity<Employee> updateEmployee(@PathVariable long id, @RequestBody Employee employeeDetails) {
-    Employee updatedEmployee = employeeService.updateEmployee(id, employeeDetails);
-    return ResponseEntity.ok(updatedEmployee);
+  public ResponseEntity<Employee> updateEmployee(@PathVariable long id, @RequestBody Employee employeeDetails,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    Employee updatedEmployee = employeeService.updateEmployee(id, employeeDetails, expectedVersion(ifMatch));
+    return ResponseEntity.ok().eTag(eTag(updatedEmployee, accept, EmployeeFields.ALL)).body(updatedEmployee);
 
     // return employeeService.getEmployeeById(employeeId)
     // .map(savedEmployee -> {
@@ -64,10 +173,125 @@ public class EmployeeController {
 
   }
 
+  @PatchMapping("/{id}")
+  public ResponseEntity<Employee> patchEmployee(@PathVariable long id, @RequestBody Employee changedFields,
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+    Employee patchedEmployee = employeeService.patchEmployee(id, changedFields, expectedVersion(ifMatch));
+    return ResponseEntity.ok().eTag(eTag(patchedEmployee, accept, EmployeeFields.ALL)).body(patchedEmployee);
+  }
+
   @DeleteMapping("/{id}")
   public ResponseEntity<String> deleteEmployee(@PathVariable Long id) {
-    System.out.println("Olaaaa");
     employeeService.deleteEmployee(id);
     return new ResponseEntity<String>("Employee deleted successfully!", HttpStatus.OK);
   }
+
+  private static MappingJacksonValue select(Object body, EmployeeFields selection) {
+    MappingJacksonValue value = new MappingJacksonValue(body);
+    value.setFilters(selection.filters());
+    return value;
+  }
+
+  private static EmployeeFields fields(String fields) {
+    if (fields == null || fields.isBlank()) {
+      return EmployeeFields.ALL;
+    }
+    try {
+      return EmployeeFields.of(Arrays.asList(fields.replace(" ", "").split(",")));
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException("fields must be a subset of " + String.join(",", EmployeeFields.NAMES));
+    }
+  }
+
+  private static ResponseEntity.BodyBuilder cacheable(String eTag) {
+    return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT);
+  }
+
+  private static <T> ResponseEntity<T> notModified(String eTag) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE)
+        .varyBy(HttpHeaders.ACCEPT).build();
+  }
+
+  private static String eTag(Employee employee, String accept, EmployeeFields selection) {
+    return employee.getVersion() == null ? null : eTag(employee.getVersion().toString(), accept, selection);
+  }
+
+  // A strong tag per representation: "12" is the full JSON one, "12;cbor;m=10" the CBOR encoding
+  // of a fields= selection. The version always comes first, which is all If-Match looks at.
+  private static String eTag(String version, String accept, EmployeeFields selection) {
+    StringBuilder tag = new StringBuilder("\"").append(version);
+    if (prefersCbor(accept)) {
+      tag.append(";cbor");
+    }
+    if (selection != EmployeeFields.ALL) {
+      tag.append(";m=").append(selection.mask());
+    }
+    return tag.append('"').toString();
+  }
+
+  // The converter Spring picks for this Accept header: JSON comes first, so it wins any tie.
+  private static boolean prefersCbor(String accept) {
+    if (accept == null || accept.isBlank()) {
+      return false;
+    }
+    List<MediaType> acceptable;
+    try {
+      acceptable = MediaType.parseMediaTypes(accept);
+    } catch (InvalidMediaTypeException e) {
+      return false;
+    }
+    MimeTypeUtils.sortBySpecificity(acceptable);
+    for (MediaType mediaType : acceptable) {
+      if (mediaType.getQualityValue() == 0) {
+        continue;
+      }
+      if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+        return false;
+      }
+      if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // If-None-Match compares weakly, so W/"3" matches "3"; "*" matches any current representation.
+  private static boolean matches(String ifNoneMatch, String eTag) {
+    if (ifNoneMatch == null || eTag == null) {
+      return false;
+    }
+    for (String tag : ifNoneMatch.split(",")) {
+      tag = tag.trim();
+      if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(eTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Accepts a single entity tag; "*" (or no header) means any version. If-Match compares strongly,
+  // so a weak tag never matches and the precondition fails without touching the employee.
+  private static Long expectedVersion(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+      return null;
+    }
+    String tag = ifMatch.trim();
+    if (tag.startsWith("W/")) {
+      throw new PreconditionFailedException("If-Match requires a strong entity tag: " + ifMatch);
+    }
+    if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")) {
+      tag = tag.substring(1, tag.length() - 1);
+    }
+    // Any representation's tag names the version it was taken from.
+    int representation = tag.indexOf(';');
+    if (representation >= 0) {
+      tag = tag.substring(0, representation);
+    }
+    try {
+      return Long.valueOf(tag);
+    } catch (NumberFormatException e) {
+      throw new BadRequestException("Invalid If-Match: " + ifMatch);
+    }
+  }
 }
@@ -0,0 +1,78 @@
+package com.example.springboottesting.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.springboottesting.exception.BadRequestException;
+import com.example.springboottesting.export.EmployeeExporter;
+import com.example.springboottesting.export.EmployeeExporter.Compression;
+import com.example.springboottesting.tenant.TenantContext;
+
+@RestController
+@RequestMapping("/employees/export")
+@Profile("!reactive")
+public class EmployeeExportController {
+
+  static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+  static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+
+  private EmployeeExporter employeeExporter;
+
+  public EmployeeExportController(EmployeeExporter employeeExporter) {
+    this.employeeExporter = employeeExporter;
+  }
+
+  // Rows are written to the response as the cursor reads them, so the first bytes leave at once and
+  // nothing is spooled; the cursor stays open for as long as the client takes to download. The
+  // length is not known up front, so the response is chunked, and a failure after the first bytes
+  // can only abort it.
+  @GetMapping
+  public ResponseEntity<StreamingResponseBody> exportEmployees(
+      @RequestParam(name = "compression", defaultValue = "gzip") String compressionName) {
+    Compression compression = compression(compressionName);
+
+    // The body is written on an async thread, so it takes the request's tenant along.
+    String tenant = TenantContext.current();
+    StreamingResponseBody body = outputStream -> {
+      try {
+        TenantContext.run(tenant, () -> {
+          try {
+            employeeExporter.export(outputStream, compression);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    };
+    return ResponseEntity.ok()
+        .contentType(compression == Compression.GZIP ? APPLICATION_GZIP : TEXT_CSV)
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename("employees.csv" + compression.getExtension())
+            .build()
+            .toString())
+        .body(body);
+  }
+
+  private static Compression compression(String name) {
+    for (Compression compression : Compression.values()) {
+      if (compression.name().equalsIgnoreCase(name)) {
+        return compression;
+      }
+    }
+    throw new BadRequestException("Compression must be one of none, gzip");
+  }
+}
@@ -0,0 +1,75 @@
+package com.example.springboottesting.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.example.springboottesting.dto.ImportProgress;
+import com.example.springboottesting.importer.EmployeeImporter;
+import com.example.springboottesting.importer.ImportJob;
+
+@RestController
+@RequestMapping("/employees/import")
+@Profile("!reactive")
+public class EmployeeImportController {
+
+  static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+  private EmployeeImporter employeeImporter;
+
+  public EmployeeImportController(EmployeeImporter employeeImporter) {
+    this.employeeImporter = employeeImporter;
+  }
+
+  // The upload is spooled to disk before the job starts, so the request completes at network
+  // speed and the import never holds the whole file in memory.
+  @PostMapping(consumes = {"text/csv", "application/gzip", "application/octet-stream"})
+  public ResponseEntity<ImportProgress> importEmployees(InputStream body) throws IOException {
+    Path upload = Files.createTempFile("employee-import-", ".csv");
+    ImportJob job;
+    try {
+      Files.copy(body, upload, StandardCopyOption.REPLACE_EXISTING);
+      job = employeeImporter.start(upload);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(upload);
+      throw e;
+    }
+    return ResponseEntity.accepted()
+        .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+            .path("/employees/import/{jobId}")
+            .buildAndExpand(job.getId())
+            .toUri())
+        .body(job.getProgress());
+  }
+
+  @GetMapping("/{jobId}")
+  public ResponseEntity<ImportProgress> getImportProgress(@PathVariable String jobId) {
+    return employeeImporter.getJob(jobId)
+        .map(job -> ResponseEntity.ok(job.getProgress()))
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
+  @GetMapping("/{jobId}/rejects")
+  public ResponseEntity<Resource> getImportRejects(@PathVariable String jobId) {
+    return employeeImporter.getJob(jobId)
+        .filter(job -> Files.exists(job.getRejects()))
+        .map(job -> ResponseEntity.ok()
+            .contentType(TEXT_CSV)
+            .<Resource>body(new FileSystemResource(job.getRejects())))
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+}
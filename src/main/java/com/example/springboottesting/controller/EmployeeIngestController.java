@@ -0,0 +1,55 @@
+package com.example.springboottesting.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.example.springboottesting.dto.IngestStatus;
+import com.example.springboottesting.ingest.EmployeeIngestService;
+import com.example.springboottesting.model.Employee;
+
+// Clients opt in per request with "Prefer: respond-async"; without it POST /employees stays synchronous.
+// Other preferences may come along, e.g. "Prefer: respond-async, wait=10".
+@RestController
+@RequestMapping("/employees")
+@ConditionalOnProperty(name = "app.ingest.enabled", havingValue = "true")
+public class EmployeeIngestController {
+
+  private EmployeeIngestService employeeIngestService;
+
+  public EmployeeIngestController(EmployeeIngestService employeeIngestService) {
+    this.employeeIngestService = employeeIngestService;
+  }
+
+  @PostMapping
+  @RespondAsync
+  public ResponseEntity<IngestStatus> ingestEmployee(@RequestBody Employee employee) {
+    long trackingId = employeeIngestService.submit(employee);
+    return ResponseEntity.accepted()
+        .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+            .path("/employees/ingest/{trackingId}")
+            .buildAndExpand(trackingId)
+            .toUri())
+        .header("Preference-Applied", RespondAsync.PREFERENCE)
+        .body(IngestStatus.builder()
+            .trackingId(trackingId)
+            .state(IngestStatus.State.PENDING)
+            .build());
+  }
+
+  @GetMapping("/ingest/{trackingId}")
+  public ResponseEntity<IngestStatus> getIngestStatus(@PathVariable long trackingId) {
+    return employeeIngestService.getStatus(trackingId)
+        .map(status -> status.getState() == IngestStatus.State.UNKNOWN
+            ? ResponseEntity.status(HttpStatus.GONE).body(status)
+            : ResponseEntity.ok(status))
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+}
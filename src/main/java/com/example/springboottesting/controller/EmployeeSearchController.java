@@ -0,0 +1,33 @@
+package com.example.springboottesting.controller;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.springboottesting.exception.BadRequestException;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.search.EmployeeSearchIndex;
+
+@RestController
+@RequestMapping("/employees/search")
+public class EmployeeSearchController {
+
+  static final int MAX_LIMIT = 100;
+
+  private EmployeeSearchIndex employeeSearchIndex;
+
+  public EmployeeSearchController(EmployeeSearchIndex employeeSearchIndex) {
+    this.employeeSearchIndex = employeeSearchIndex;
+  }
+
+  @GetMapping
+  public List<Employee> searchEmployees(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+    }
+    return employeeSearchIndex.search(q, limit);
+  }
+}
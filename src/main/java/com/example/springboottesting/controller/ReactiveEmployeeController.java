@@ -0,0 +1,77 @@
+package com.example.springboottesting.controller;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.springboottesting.dto.EmployeePage;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.service.ReactiveEmployeeService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/employees")
+@Profile("reactive")
+public class ReactiveEmployeeController {
+
+  private ReactiveEmployeeService employeeService;
+
+  public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+    this.employeeService = employeeService;
+  }
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public Mono<Employee> createEmployee(@RequestBody Employee employee) {
+    return employeeService.saveEmployee(employee);
+  }
+
+  @GetMapping
+  public Flux<Employee> getAllEmployees() {
+    return employeeService.getAllEmployees();
+  }
+
+  @GetMapping("/page")
+  public Mono<EmployeePage> getEmployeesPage(@RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "100") int size) {
+    return employeeService.getEmployeesPage(cursor, size);
+  }
+
+  // Written element by element as the client reads, so a slow consumer throttles the database cursor.
+  @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public Flux<Employee> streamEmployees() {
+    return employeeService.getAllEmployees();
+  }
+
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable long id) {
+    return employeeService.getEmployeeById(id)
+        .map(ResponseEntity::ok)
+        .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  @PutMapping("/{id}")
+  public Mono<ResponseEntity<Employee>> updateEmployee(@PathVariable long id, @RequestBody Employee employeeDetails) {
+    return employeeService.updateEmployee(id, employeeDetails)
+        .map(ResponseEntity::ok);
+  }
+
+  @DeleteMapping("/{id}")
+  public Mono<ResponseEntity<String>> deleteEmployee(@PathVariable long id) {
+    return employeeService.deleteEmployee(id)
+        .thenReturn(new ResponseEntity<String>("Employee deleted successfully!", HttpStatus.OK));
+  }
+}
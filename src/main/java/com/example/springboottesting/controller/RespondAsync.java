@@ -0,0 +1,69 @@
+package com.example.springboottesting.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.Collections;
+import java.util.Set;
+
+import org.springframework.web.servlet.mvc.condition.AbstractRequestCondition;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Maps a handler method only for requests whose {@code Prefer} header (RFC 7240) includes the
+ * {@value #PREFERENCE} preference, whatever other preferences or parameters come with it.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RespondAsync {
+
+  String PREFERENCE = "respond-async";
+
+  final class Condition extends AbstractRequestCondition<Condition> {
+
+    public static final Condition INSTANCE = new Condition();
+
+    private Condition() {
+    }
+
+    private static boolean isPreferred(HttpServletRequest request) {
+      for (String header : Collections.list(request.getHeaders("Prefer"))) {
+        for (String preference : header.split(",")) {
+          // A preference is token[=value] followed by ;-separated parameters; tokens are case-insensitive.
+          String token = preference.split("[=;]", 2)[0].trim();
+          if (token.equalsIgnoreCase(PREFERENCE)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public Condition combine(Condition other) {
+      return this;
+    }
+
+    @Override
+    public Condition getMatchingCondition(HttpServletRequest request) {
+      return isPreferred(request) ? this : null;
+    }
+
+    @Override
+    public int compareTo(Condition other, HttpServletRequest request) {
+      return 0;
+    }
+
+    @Override
+    protected Set<String> getContent() {
+      return Set.of("Prefer: " + PREFERENCE);
+    }
+
+    @Override
+    protected String getToStringInfix() {
+      return " && ";
+    }
+  }
+}
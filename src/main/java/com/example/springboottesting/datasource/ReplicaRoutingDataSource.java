@@ -0,0 +1,190 @@
+package com.example.springboottesting.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out replica connections inside read-only transactions and primary connections otherwise.
+ * <p>
+ * The replica with the fewest connections currently borrowed through this data source wins, ties
+ * rotating. Replicas whose lag query fails or reports more than {@code maxLag} seconds, or that
+ * refuse a connection, are skipped until the next successful health check; with none left,
+ * reads go to the primary. Must be wrapped in a {@link LazyConnectionDataSourceProxy}, since a
+ * transaction is only marked read-only after JPA has asked for its connection.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final String lagQuery;
+
+    private final Duration maxLag;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, String lagQuery, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    public void startHealthChecks(Duration interval) {
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy = isHealthy(replica);
+            if (healthy != replica.healthy) {
+                logger.info("Read replica {} is now {}", replicas.indexOf(replica), healthy ? "healthy" : "unhealthy");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public boolean isReplicaHealthy(int index) {
+        return replicas.get(index).healthy;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            Replica replica = leastLoadedHealthyReplica();
+            if (replica != null) {
+                try {
+                    return replica.borrow(source);
+                } catch (SQLException e) {
+                    replica.healthy = false;
+                    logger.warn("Read replica {} refused a connection, reading from primary",
+                            replicas.indexOf(replica), e);
+                }
+            }
+        }
+        return source.get(primary);
+    }
+
+    private Replica leastLoadedHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        Replica best = null;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy && (best == null || replica.inFlight.get() < best.inFlight.get())) {
+                best = replica;
+            }
+        }
+        return best;
+    }
+
+    private boolean isHealthy(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout((int) Math.max(1, maxLag.toSeconds()));
+            try (ResultSet lag = statement.executeQuery(lagQuery)) {
+                return lag.next() && lag.getDouble(1) * 1000 <= maxLag.toMillis();
+            }
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private volatile boolean healthy = true;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        // Counts the connection as load until it is closed.
+        private Connection borrow(ConnectionSource source) throws SQLException {
+            Connection connection = source.get(dataSource);
+            inFlight.incrementAndGet();
+            AtomicInteger released = new AtomicInteger();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "close":
+                                if (released.getAndIncrement() == 0) {
+                                    inFlight.decrementAndGet();
+                                }
+                                break;
+                            default:
+                                break;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
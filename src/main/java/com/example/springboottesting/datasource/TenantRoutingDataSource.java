@@ -0,0 +1,73 @@
+package com.example.springboottesting.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.example.springboottesting.tenant.TenantContext;
+
+/**
+ * Hands out connections to the shard that holds the current tenant: the one it is mapped to, or
+ * else one picked by the hash of its id. The hash depends on the number of shards, so once
+ * unmapped tenants have data, new shards should only receive explicitly mapped tenants (map the
+ * existing ones first). {@link TenantContext#callOnShard} overrides the choice for shard-wide work.
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final Map<String, DataSource> shards;
+
+    private final List<String> names;
+
+    private final Map<String, String> tenants;
+
+    public TenantRoutingDataSource(Map<String, DataSource> shards, Map<String, String> tenants) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        tenants.forEach((tenant, shard) -> {
+            if (!shards.containsKey(shard)) {
+                throw new IllegalArgumentException("Tenant " + tenant + " is mapped to unknown shard " + shard);
+            }
+        });
+        this.shards = new LinkedHashMap<>(shards);
+        this.names = new ArrayList<>(shards.keySet());
+        this.tenants = Map.copyOf(tenants);
+        setTargetDataSources(new LinkedHashMap<>(shards));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    public String shardFor(String tenant) {
+        String shard = tenants.get(tenant);
+        return shard != null ? shard : names.get(Math.floorMod(tenant.hashCode(), names.size()));
+    }
+
+    /**
+     * The shards by name, in declaration order.
+     */
+    public Map<String, DataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = TenantContext.shard();
+        return shard != null ? shard : shardFor(TenantContext.current());
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource shard : shards.values()) {
+            if (shard instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.springboottesting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@Builder
+public class BatchItemResult {
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, DUPLICATE_EMAIL, NOT_FOUND, INVALID
+    }
+
+    private int index;
+
+    private Long id;
+
+    private Status status;
+
+    private String message;
+}
@@ -0,0 +1,10 @@
+package com.example.springboottesting.dto;
+
+import com.example.springboottesting.event.EmployeeChangedEvent;
+
+/**
+ * One committed employee mutation as published by the outbox relay. {@code position} increases
+ * by one per change and is what consumers resume from; {@code employee} is null for DELETED.
+ */
+public record EmployeeChange(long position, EmployeeChangedEvent.Type type, long id, EmployeeView employee) {
+}
@@ -0,0 +1,19 @@
+package com.example.springboottesting.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@Builder
+public class EmployeePage {
+
+    private List<EmployeeView> content;
+
+    private int size;
+
+    private String nextCursor;
+}
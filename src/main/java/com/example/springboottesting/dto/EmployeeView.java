@@ -0,0 +1,19 @@
+package com.example.springboottesting.dto;
+
+import com.example.springboottesting.json.EmployeeSerializers;
+import com.example.springboottesting.model.Employee;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Read-only employee row. Queries select it with a constructor expression, so it never enters
+ * the persistence context. Serialization honours an {@link com.example.springboottesting.json.EmployeeFields}
+ * selection when one is set, which is how {@code fields=} trims responses.
+ */
+@JsonSerialize(using = EmployeeSerializers.View.class)
+public record EmployeeView(long id, String firstName, String lastName, String email, Long version) {
+
+    public static EmployeeView of(Employee employee) {
+        return new EmployeeView(employee.getId(), employee.getFirstName(), employee.getLastName(),
+                employee.getEmail(), employee.getVersion());
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.springboottesting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@Builder
+public class ImportProgress {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private String jobId;
+
+    private State state;
+
+    private long rowsRead;
+
+    private long rowsImported;
+
+    private long rowsRejected;
+
+    private String message;
+}
@@ -0,0 +1,24 @@
+package com.example.springboottesting.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@Builder
+public class IngestStatus {
+
+    public enum State {
+        // UNKNOWN: processed, but the outcome is no longer retained.
+        PENDING, CREATED, DUPLICATE_EMAIL, INVALID, UNKNOWN
+    }
+
+    private long trackingId;
+
+    private State state;
+
+    private Long id;
+
+    private String message;
+}
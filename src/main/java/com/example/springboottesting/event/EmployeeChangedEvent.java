@@ -0,0 +1,44 @@
+package com.example.springboottesting.event;
+
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.tenant.TenantContext;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Published by the employee services after each create, update and delete so that derived,
+ * in-process state (search index, ...) can follow the table incrementally.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class EmployeeChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private Type type;
+
+    private long id;
+
+    // Null for DELETED.
+    private Employee employee;
+
+    // The tenant the change was made for; listeners may run after the request has moved on.
+    private String tenant;
+
+    public static EmployeeChangedEvent created(Employee employee) {
+        return new EmployeeChangedEvent(Type.CREATED, employee.getId(), employee, TenantContext.current());
+    }
+
+    public static EmployeeChangedEvent updated(Employee employee) {
+        return new EmployeeChangedEvent(Type.UPDATED, employee.getId(), employee, TenantContext.current());
+    }
+
+    public static EmployeeChangedEvent deleted(long id) {
+        return new EmployeeChangedEvent(Type.DELETED, id, null, TenantContext.current());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.springboottesting.export;
+
+import java.nio.file.Path;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Command-line export: {@code java -jar app.jar --spring.main.web-application-type=none
+ * --app.export.file=employees.csv.gz} writes the file (gzip when it ends in .gz) and exits.
+ */
+@Component
+@ConditionalOnProperty("app.export.file")
+public class EmployeeExportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeExportRunner.class);
+
+    private EmployeeExporter employeeExporter;
+
+    private Path file;
+
+    public EmployeeExportRunner(EmployeeExporter employeeExporter, @Value("${app.export.file}") Path file) {
+        this.employeeExporter = employeeExporter;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long start = System.nanoTime();
+        long rows = employeeExporter.export(file, EmployeeExporter.Compression.forFile(file));
+        logger.info("Exported {} employees to {} in {} ms", rows, file.toAbsolutePath(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+}
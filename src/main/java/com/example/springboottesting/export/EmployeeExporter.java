@@ -0,0 +1,112 @@
+package com.example.springboottesting.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.example.springboottesting.csv.Csv;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.service.EmployeeService;
+
+/**
+ * Writes the whole employees table as RFC 4180 CSV, optionally gzip-compressed, to a file or any
+ * stream. Rows come from the service's streaming cursor and go straight to the buffered stream, so
+ * heap use does not depend on the table size.
+ */
+@Component
+public class EmployeeExporter {
+
+    public enum Compression {
+        NONE(""), GZIP(".gz");
+
+        private final String extension;
+
+        Compression(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Compression forFile(Path file) {
+            return file.getFileName().toString().endsWith(GZIP.extension) ? GZIP : NONE;
+        }
+    }
+
+    static final String HEADER = "id,first_name,last_name,email,version";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private EmployeeService employeeService;
+
+    public EmployeeExporter(EmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    /**
+     * Exports every employee to {@code target}, replacing it, and returns the number of rows.
+     */
+    public long export(Path target, Compression compression) throws IOException {
+        try (OutputStream out = Files.newOutputStream(target)) {
+            return export(out, compression);
+        }
+    }
+
+    /**
+     * Exports every employee to {@code target}, which is flushed but left open, and returns the
+     * number of rows.
+     */
+    public long export(OutputStream target, Compression compression) throws IOException {
+        AtomicLong rows = new AtomicLong();
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(open(target, compression),
+                StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writer.write(HEADER);
+            writer.write("\r\n");
+            try {
+                employeeService.streamEmployees(employee -> {
+                    try {
+                        writeRow(writer, employee);
+                        rows.incrementAndGet();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return rows.get();
+    }
+
+    private static OutputStream open(OutputStream target, Compression compression) throws IOException {
+        OutputStream out = StreamUtils.nonClosing(target);
+        return compression == Compression.GZIP ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+    }
+
+    private static void writeRow(Writer writer, Employee employee) throws IOException {
+        writer.write(Long.toString(employee.getId()));
+        writer.write(',');
+        Csv.writeField(writer, employee.getFirstName());
+        writer.write(',');
+        Csv.writeField(writer, employee.getLastName());
+        writer.write(',');
+        Csv.writeField(writer, employee.getEmail());
+        writer.write(',');
+        if (employee.getVersion() != null) {
+            writer.write(Long.toString(employee.getVersion()));
+        }
+        writer.write("\r\n");
+    }
+}
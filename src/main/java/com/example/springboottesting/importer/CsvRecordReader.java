@@ -0,0 +1,69 @@
+package com.example.springboottesting.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits CSV input into raw records without parsing their fields, so that parsing can run in
+ * parallel. Line breaks inside quoted fields stay part of the record.
+ */
+class CsvRecordReader implements Closeable {
+
+    private final Reader reader;
+
+    private long line = 1;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the next non-blank record, or null at the end of the input.
+     */
+    RawRecord next() throws IOException {
+        StringBuilder record = new StringBuilder();
+        boolean quoted = false;
+        long start = line;
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c == '\n') {
+                line++;
+                if (!quoted) {
+                    if (record.length() > 0 && record.charAt(record.length() - 1) == '\r') {
+                        record.setLength(record.length() - 1);
+                    }
+                    if (record.length() > 0) {
+                        return new RawRecord(start, record.toString());
+                    }
+                    start = line;
+                    continue;
+                }
+            } else if (c == '"') {
+                // An escaped quote toggles twice, which leaves the state unchanged.
+                quoted = !quoted;
+            }
+            record.append((char) c);
+        }
+        return record.length() > 0 ? new RawRecord(start, record.toString()) : null;
+    }
+
+    List<RawRecord> next(int max) throws IOException {
+        List<RawRecord> records = new ArrayList<>(max);
+        RawRecord record;
+        while (records.size() < max && (record = next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    record RawRecord(long line, String text) {
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.springboottesting.importer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.GZIPInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.springboottesting.cache.KnownEmails;
+import com.example.springboottesting.csv.Csv;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.importer.CsvRecordReader.RawRecord;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.outbox.EmployeeOutbox;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Bulk CSV import. The file is split into raw records sequentially, each chunk of records is
+ * parsed and validated in parallel on a fork-join pool, and the valid rows are loaded in
+ * transactions of {@link #LOAD_CHUNK_SIZE} through {@link EmployeeRepository#bulkInsert}
+ * (COPY on PostgreSQL). Emails already in the table or earlier in the file are rejected, as
+ * {@code saveEmployee} does. Jobs run one at a time in the background.
+ */
+@Component
+public class EmployeeImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeImporter.class);
+
+    static final int PARSE_CHUNK_SIZE = 20_000;
+
+    static final int LOAD_CHUNK_SIZE = 5_000;
+
+    // Below this many records a parse task stops splitting.
+    static final int PARSE_THRESHOLD = 1_000;
+
+    // Column length of every imported field.
+    static final int MAX_FIELD_LENGTH = 255;
+
+    // A concurrent insert of the same email between the check and the load, or one the email
+    // filter has not seen, fails the chunk; the retry re-checks exactly and rejects it.
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private static final int MAX_RETAINED_JOBS = 100;
+
+    private final Cache<String, ImportJob> jobs = Caffeine.newBuilder()
+            .maximumSize(MAX_RETAINED_JOBS)
+            .<String, ImportJob>removalListener((id, job, cause) -> {
+                if (job != null) {
+                    job.deleteRejects();
+                }
+            })
+            .build();
+
+    private final ForkJoinPool parsers = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "employee-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private EmployeeRepository employeeRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private EmployeeOutbox employeeOutbox;
+
+    private KnownEmails knownEmails;
+
+    public EmployeeImporter(EmployeeRepository employeeRepository, TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher, EmployeeOutbox employeeOutbox, KnownEmails knownEmails) {
+        this.employeeRepository = employeeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.employeeOutbox = employeeOutbox;
+        this.knownEmails = knownEmails;
+    }
+
+    /**
+     * Queues an import of {@code file}, plain or gzip-compressed CSV with a header row naming at
+     * least first_name, last_name and email, for the current tenant. The file is deleted once the
+     * job finishes.
+     */
+    public ImportJob start(Path file) throws IOException {
+        String tenant = TenantContext.current();
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), tenant,
+                Files.createTempFile("employee-import-rejects-", ".csv"));
+        jobs.put(job.getId(), job);
+        job.setCompletion(CompletableFuture.runAsync(() -> TenantContext.run(tenant, () -> run(job, file)), runner));
+        return job;
+    }
+
+    /**
+     * A job of the current tenant; empty for unknown ids and other tenants' jobs.
+     */
+    public Optional<ImportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId))
+                .filter(job -> job.getTenant().equals(TenantContext.current()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        parsers.shutdownNow();
+    }
+
+    private void run(ImportJob job, Path file) {
+        try (CsvRecordReader records = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(open(file), StandardCharsets.UTF_8), 64 * 1024));
+                Writer rejects = Files.newBufferedWriter(job.getRejects())) {
+            rejects.write("line,reason\r\n");
+            RawRecord header = records.next();
+            if (header == null) {
+                throw new IllegalArgumentException("The file is empty");
+            }
+            Columns columns = Columns.of(Csv.parseRecord(header.text()));
+
+            List<RawRecord> chunk;
+            while (!(chunk = records.next(PARSE_CHUNK_SIZE)).isEmpty()) {
+                ParsedRow[] rows = new ParsedRow[chunk.size()];
+                parsers.invoke(new ParseTask(chunk, columns, rows, 0, rows.length));
+                job.rowsRead.addAndGet(rows.length);
+                for (int from = 0; from < rows.length; from += LOAD_CHUNK_SIZE) {
+                    load(job, List.of(rows).subList(from, Math.min(from + LOAD_CHUNK_SIZE, rows.length)), rejects);
+                }
+                rejects.flush();
+            }
+            job.complete();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Employee import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete import file {}", file, e);
+            }
+        }
+    }
+
+    private void load(ImportJob job, List<ParsedRow> rows, Writer rejects) throws IOException {
+        List<ParsedRow> valid = new ArrayList<>(rows.size());
+        for (ParsedRow row : rows) {
+            if (row.error() != null) {
+                reject(job, rejects, row, row.error());
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                boolean exact = attempt > 1;
+                List<ParsedRow> duplicates = new ArrayList<>();
+                List<Employee> inserted = transactionTemplate.execute(status -> insertNew(valid, duplicates, exact));
+                for (ParsedRow duplicate : duplicates) {
+                    reject(job, rejects, duplicate, "Employee already exist with given email");
+                }
+                job.rowsImported.addAndGet(inserted.size());
+                inserted.forEach(employee -> eventPublisher.publishEvent(EmployeeChangedEvent.created(employee)));
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == MAX_LOAD_ATTEMPTS) {
+                    throw e;
+                }
+                logger.debug("Import chunk conflicted with a concurrent insert, retrying", e);
+            }
+        }
+    }
+
+    private List<Employee> insertNew(List<ParsedRow> rows, List<ParsedRow> duplicates, boolean exact) {
+        Set<String> emails = new HashSet<>(rows.size() * 2);
+        rows.forEach(row -> emails.add(row.employee().getEmail()));
+        Set<String> claimed = new HashSet<>(exact
+                ? employeeRepository.findExistingEmails(emails)
+                : knownEmails.findExisting(emails));
+
+        List<Employee> accepted = new ArrayList<>(rows.size());
+        for (ParsedRow row : rows) {
+            if (claimed.add(row.employee().getEmail())) {
+                accepted.add(Employee.builder()
+                        .firstName(row.employee().getFirstName())
+                        .lastName(row.employee().getLastName())
+                        .email(row.employee().getEmail())
+                        .build());
+            } else {
+                duplicates.add(row);
+            }
+        }
+        employeeRepository.bulkInsert(accepted);
+        employeeOutbox.record(accepted.stream().map(EmployeeChangedEvent::created).toList());
+        return accepted;
+    }
+
+    private static void reject(ImportJob job, Writer rejects, ParsedRow row, String reason) throws IOException {
+        rejects.write(Long.toString(row.line()));
+        rejects.write(',');
+        Csv.writeField(rejects, reason);
+        rejects.write("\r\n");
+        job.rowsRejected.incrementAndGet();
+    }
+
+    private static InputStream open(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+        in.mark(2);
+        boolean gzip = in.read() == 0x1f && in.read() == 0x8b;
+        in.reset();
+        return gzip ? new GZIPInputStream(in, 64 * 1024) : in;
+    }
+
+    static ParsedRow parse(RawRecord record, Columns columns) {
+        List<String> fields;
+        try {
+            fields = Csv.parseRecord(record.text());
+        } catch (IllegalArgumentException e) {
+            return new ParsedRow(record.line(), null, e.getMessage());
+        }
+        String firstName = field(fields, columns.firstName());
+        String lastName = field(fields, columns.lastName());
+        String email = field(fields, columns.email());
+        String error = null;
+        if (firstName == null || lastName == null || email == null) {
+            error = "first_name, last_name and email are required";
+        } else if (firstName.length() > MAX_FIELD_LENGTH || lastName.length() > MAX_FIELD_LENGTH
+                || email.length() > MAX_FIELD_LENGTH) {
+            error = "Fields must be at most " + MAX_FIELD_LENGTH + " characters";
+        }
+        if (error != null) {
+            return new ParsedRow(record.line(), null, error);
+        }
+        return new ParsedRow(record.line(), Employee.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(email)
+                .build(), null);
+    }
+
+    private static String field(List<String> fields, int index) {
+        String value = index < fields.size() ? fields.get(index).trim() : "";
+        return value.isEmpty() ? null : value;
+    }
+
+    record ParsedRow(long line, Employee employee, String error) {
+    }
+
+    record Columns(int firstName, int lastName, int email) {
+
+        // Matches first_name, firstName and "First Name" alike; other columns are ignored.
+        static Columns of(List<String> header) {
+            List<String> names = header.stream()
+                    .map(name -> name.replaceAll("[\\s_]", "").toLowerCase(Locale.ROOT))
+                    .toList();
+            int firstName = names.indexOf("firstname");
+            int lastName = names.indexOf("lastname");
+            int email = names.indexOf("email");
+            if (firstName < 0 || lastName < 0 || email < 0) {
+                throw new IllegalArgumentException("The header must name first_name, last_name and email columns");
+            }
+            return new Columns(firstName, lastName, email);
+        }
+    }
+
+    private static final class ParseTask extends RecursiveAction {
+
+        private final List<RawRecord> records;
+
+        private final Columns columns;
+
+        private final ParsedRow[] rows;
+
+        private final int from;
+
+        private final int to;
+
+        private ParseTask(List<RawRecord> records, Columns columns, ParsedRow[] rows, int from, int to) {
+            this.records = records;
+            this.columns = columns;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARSE_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    rows[i] = parse(records.get(i), columns);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask(records, columns, rows, from, middle),
+                    new ParseTask(records, columns, rows, middle, to));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.springboottesting.importer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.springboottesting.dto.ImportProgress;
+import com.example.springboottesting.dto.ImportProgress.State;
+
+/**
+ * One running or finished CSV import. Counters are updated by the import thread and can be
+ * read at any time.
+ */
+public class ImportJob {
+
+    private final String id;
+
+    private final String tenant;
+
+    private final Path rejects;
+
+    final AtomicLong rowsRead = new AtomicLong();
+
+    final AtomicLong rowsImported = new AtomicLong();
+
+    final AtomicLong rowsRejected = new AtomicLong();
+
+    private volatile State state = State.RUNNING;
+
+    private volatile String message;
+
+    private volatile CompletableFuture<Void> completion;
+
+    ImportJob(String id, String tenant, Path rejects) {
+        this.id = id;
+        this.tenant = tenant;
+        this.rejects = rejects;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * The tenant that started the import; only it can see the job.
+     */
+    public String getTenant() {
+        return tenant;
+    }
+
+    /**
+     * CSV of {@code line,reason} for every row that was not imported.
+     */
+    public Path getRejects() {
+        return rejects;
+    }
+
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    public ImportProgress getProgress() {
+        return ImportProgress.builder()
+                .jobId(id)
+                .state(state)
+                .rowsRead(rowsRead.get())
+                .rowsImported(rowsImported.get())
+                .rowsRejected(rowsRejected.get())
+                .message(message)
+                .build();
+    }
+
+    void setCompletion(CompletableFuture<Void> completion) {
+        this.completion = completion;
+    }
+
+    void complete() {
+        state = State.COMPLETED;
+    }
+
+    void fail(String message) {
+        this.message = message;
+        state = State.FAILED;
+    }
+
+    void deleteRejects() {
+        try {
+            Files.deleteIfExists(rejects);
+        } catch (IOException e) {
+            // Left in the temp directory.
+        }
+    }
+}
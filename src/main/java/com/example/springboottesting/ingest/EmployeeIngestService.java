@@ -0,0 +1,228 @@
+package com.example.springboottesting.ingest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.dto.IngestStatus;
+import com.example.springboottesting.dto.IngestStatus.State;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.service.EmployeeService;
+import com.example.springboottesting.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Opt-in write-behind ingest ({@code app.ingest.enabled=true}): {@link #submit} only appends the
+ * employee to the durable {@link IngestLog}, and a single writer thread drains the log into the
+ * database through the batch insert path, checkpointing after each batch. Anything submitted
+ * but not yet checkpointed is replayed on the next start; a replayed row that did reach the
+ * database is skipped when its outcome was recorded, and otherwise reported as a duplicate email
+ * rather than inserted twice. Each entry records the tenant it was submitted for, is written as
+ * that tenant and reports its outcome to that tenant only; outcomes are kept in
+ * {@link IngestResults} for the most recent {@code app.ingest.retained-results} entries.
+ */
+@Service
+@ConditionalOnProperty(name = "app.ingest.enabled", havingValue = "true")
+public class EmployeeIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeIngestService.class);
+
+    // One batch is one transaction of the batch insert path.
+    static final int BATCH_SIZE = 500;
+
+    static final long POLL_MILLIS = 100;
+
+    static final long RETRY_MILLIS = 1000;
+
+    // Payload field naming the tenant; entries logged before tenancy have none and belong to the default one.
+    static final String TENANT = "tenant";
+
+    private IngestLog ingestLog;
+
+    private IngestResults results;
+
+    private EmployeeService employeeService;
+
+    private ObjectMapper objectMapper;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public EmployeeIngestService(EmployeeService employeeService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${app.ingest.directory:data/ingest}") Path directory,
+            @Value("${app.ingest.segment-size:67108864}") int segmentSize,
+            @Value("${app.ingest.retained-results:100000}") int retainedResults) throws IOException {
+        this.employeeService = employeeService;
+        this.objectMapper = objectMapper;
+        this.ingestLog = IngestLog.open(directory, segmentSize);
+        this.results = IngestResults.open(directory, objectMapper, retainedResults);
+        Gauge.builder("employee.ingest.pending", ingestLog, log -> log.lastSequence() - log.checkpoint())
+                .description("Employees accepted but not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Durably queues one employee and returns its tracking id.
+     */
+    public long submit(Employee employee) {
+        // Ids and versions are assigned by the database, never taken from the request.
+        Employee accepted = Employee.builder()
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .build();
+        try {
+            ObjectNode payload = objectMapper.valueToTree(accepted);
+            payload.put(TENANT, TenantContext.current());
+            return ingestLog.append(objectMapper.writeValueAsBytes(payload));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The status of an entry of the current tenant; empty for unknown ids and other tenants' outcomes.
+     */
+    public Optional<IngestStatus> getStatus(long trackingId) {
+        Optional<IngestResults.Outcome> outcome = results.get(trackingId);
+        if (outcome.isPresent()) {
+            return outcome.filter(found -> found.tenant().equals(TenantContext.current()))
+                    .map(found -> status(trackingId, found.state(), found.id(), found.message()));
+        }
+        if (trackingId < 0 || trackingId > ingestLog.lastSequence()) {
+            return Optional.empty();
+        }
+        // Neither state says more than the sequence itself does, so any tenant may see them.
+        return Optional.of(status(trackingId, trackingId <= ingestLog.checkpoint() ? State.UNKNOWN : State.PENDING,
+                null, null));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (writer == null) {
+            running = true;
+            writer = new Thread(this::drain, "employee-ingest-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = writer;
+        }
+        if (thread != null) {
+            thread.join(RETRY_MILLIS + POLL_MILLIS);
+        }
+        // Whatever was not drained stays in the log for the next start.
+        ingestLog.close();
+        results.close();
+    }
+
+    private void drain() {
+        List<IngestLog.Record> batch = List.of();
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    batch = ingestLog.read(BATCH_SIZE, POLL_MILLIS);
+                }
+                if (!batch.isEmpty()) {
+                    apply(batch);
+                    ingestLog.checkpoint(batch.get(batch.size() - 1).sequence());
+                    results.evict();
+                    batch = List.of();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                // Keep the batch and retry it: nothing is checkpointed until it is written.
+                logger.warn("Writing {} ingested employees failed, retrying", batch.size(), e);
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // One batch insert per tenant in the batch, in log order within each. Each tenant's outcomes
+    // are recorded once its insert committed, so a replay skips exactly what was written.
+    private void apply(List<IngestLog.Record> batch) throws IOException {
+        Map<String, TenantBatch> byTenant = new LinkedHashMap<>();
+        List<IngestResults.Outcome> invalid = new ArrayList<>();
+        for (IngestLog.Record record : batch) {
+            if (results.get(record.sequence()).isPresent()) {
+                continue;
+            }
+            String tenant = TenantContext.DEFAULT;
+            try {
+                ObjectNode payload = (ObjectNode) objectMapper.readTree(record.payload());
+                JsonNode tenantNode = payload.remove(TENANT);
+                tenant = tenantNode != null ? tenantNode.asText() : TenantContext.DEFAULT;
+                Employee employee = objectMapper.treeToValue(payload, Employee.class);
+                TenantBatch tenantBatch = byTenant.computeIfAbsent(tenant, key -> new TenantBatch());
+                tenantBatch.employees().add(employee);
+                tenantBatch.trackingIds().add(record.sequence());
+            } catch (IOException | ClassCastException e) {
+                invalid.add(new IngestResults.Outcome(record.sequence(), tenant, State.INVALID, null, e.getMessage()));
+            }
+        }
+        results.record(invalid);
+
+        for (Map.Entry<String, TenantBatch> entry : byTenant.entrySet()) {
+            TenantBatch tenantBatch = entry.getValue();
+            List<BatchItemResult> saved = TenantContext.call(entry.getKey(),
+                    () -> employeeService.saveEmployees(tenantBatch.employees()));
+            List<IngestResults.Outcome> outcomes = new ArrayList<>(saved.size());
+            for (int i = 0; i < saved.size(); i++) {
+                BatchItemResult result = saved.get(i);
+                outcomes.add(new IngestResults.Outcome(tenantBatch.trackingIds().get(i), entry.getKey(),
+                        State.valueOf(result.getStatus().name()), result.getId(), result.getMessage()));
+            }
+            results.record(outcomes);
+        }
+    }
+
+    private record TenantBatch(List<Long> trackingIds, List<Employee> employees) {
+
+        TenantBatch() {
+            this(new ArrayList<>(), new ArrayList<>());
+        }
+    }
+
+    private static IngestStatus status(long trackingId, State state, Long id, String message) {
+        return IngestStatus.builder()
+                .trackingId(trackingId)
+                .state(state)
+                .id(id)
+                .message(message)
+                .build();
+    }
+}
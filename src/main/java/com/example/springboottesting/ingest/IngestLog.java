@@ -0,0 +1,335 @@
+package com.example.springboottesting.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Durable append-only log behind the write-behind ingest.
+ * <p>
+ * Records are framed as {@code [length][crc32][payload]} in fixed-size memory-mapped segment
+ * files named after the sequence of their first record; a zero length ends a segment.
+ * {@link #append} returns once the record is forced to disk, and appenders that arrive while a
+ * force is running share the next one. A single consumer {@link #read}s durable records in order
+ * and acknowledges them with {@link #checkpoint}. After a crash, reading resumes after the last
+ * checkpoint and a torn record at the tail is discarded.
+ */
+public class IngestLog implements Closeable {
+
+    private static final int HEADER = 8;
+
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // Append position, guarded by "this".
+    private Segment writeSegment;
+
+    private int writePosition;
+
+    private long nextSequence;
+
+    private boolean closed;
+
+    // Guards forcing and wakes the reader once new records are durable.
+    private final Object syncLock = new Object();
+
+    private volatile long durableSequence;
+
+    private volatile long checkpoint;
+
+    // Read cursor, only touched by the single consumer.
+    private Segment readSegment;
+
+    private int readPosition;
+
+    private long readSequence;
+
+    private IngestLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    public static IngestLog open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER) {
+            throw new IllegalArgumentException("Segment size must be larger than " + HEADER);
+        }
+        Files.createDirectories(directory);
+        IngestLog log = new IngestLog(directory, segmentSize);
+        log.recover();
+        return log;
+    }
+
+    /**
+     * Appends one record and returns its sequence once it is on disk.
+     */
+    public long append(byte[] payload) throws IOException {
+        return appendAll(List.of(payload));
+    }
+
+    /**
+     * Appends the records in order and returns the sequence of the last one once all of them are
+     * on disk; they share one force.
+     */
+    public long appendAll(List<byte[]> payloads) throws IOException {
+        if (payloads.isEmpty()) {
+            throw new IllegalArgumentException("At least one record is required");
+        }
+        int[] crcs = new int[payloads.size()];
+        for (int i = 0; i < crcs.length; i++) {
+            byte[] payload = payloads.get(i);
+            if (payload.length == 0 || payload.length > segmentSize - HEADER) {
+                throw new IllegalArgumentException("Record size must be between 1 and " + (segmentSize - HEADER));
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            crcs[i] = (int) crc.getValue();
+        }
+
+        long sequence;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Ingest log is closed");
+            }
+            for (int i = 0; i < crcs.length; i++) {
+                byte[] payload = payloads.get(i);
+                if (writePosition + HEADER + payload.length > segmentSize) {
+                    // Everything in the old segment becomes durable before the first record of the new one.
+                    writeSegment.buffer.force();
+                    writeSegment = createSegment(nextSequence);
+                    writePosition = 0;
+                }
+                MappedByteBuffer buffer = writeSegment.buffer;
+                buffer.put(writePosition + HEADER, payload);
+                buffer.putInt(writePosition + Integer.BYTES, crcs[i]);
+                buffer.putInt(writePosition, payload.length);
+                writePosition += HEADER + payload.length;
+                nextSequence++;
+            }
+            sequence = nextSequence - 1;
+        }
+        sync(sequence);
+        return sequence;
+    }
+
+    /**
+     * Returns up to {@code max} durable records after the previous read, waiting up to
+     * {@code timeoutMillis} when there are none. Meant for a single consumer thread.
+     */
+    public List<Record> read(int max, long timeoutMillis) throws InterruptedException {
+        synchronized (syncLock) {
+            if (durableSequence < readSequence) {
+                syncLock.wait(timeoutMillis);
+            }
+        }
+        long durable = durableSequence;
+        List<Record> records = new ArrayList<>((int) Math.min(max, Math.max(0, durable - readSequence + 1)));
+        while (records.size() < max && readSequence <= durable) {
+            if (readPosition + HEADER > segmentSize || readSegment.buffer.getInt(readPosition) == 0) {
+                // The record didn't fit here, so it starts the next segment.
+                readSegment = segments.get(readSequence);
+                readPosition = 0;
+                continue;
+            }
+            int length = readSegment.buffer.getInt(readPosition);
+            byte[] payload = new byte[length];
+            readSegment.buffer.get(readPosition + HEADER, payload);
+            records.add(new Record(readSequence, payload));
+            readPosition += HEADER + length;
+            readSequence++;
+        }
+        return records;
+    }
+
+    /**
+     * Marks every record up to {@code sequence} as applied and drops segments that only hold
+     * applied records.
+     */
+    public void checkpoint(long sequence) throws IOException {
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        checkpoint = sequence;
+
+        for (Map.Entry<Long, Segment> entry : segments.entrySet()) {
+            Long nextBase = segments.higherKey(entry.getKey());
+            if (nextBase == null || nextBase - 1 > sequence || entry.getValue() == readSegment) {
+                break;
+            }
+            segments.remove(entry.getKey());
+            Files.deleteIfExists(entry.getValue().path);
+        }
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    public synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            writeSegment.buffer.force();
+        }
+    }
+
+    private void sync(long sequence) {
+        synchronized (syncLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            Segment segment;
+            int end;
+            long last;
+            synchronized (this) {
+                segment = writeSegment;
+                end = writePosition;
+                last = nextSequence - 1;
+            }
+            segment.buffer.force(segment.forcedPosition, end - segment.forcedPosition);
+            segment.forcedPosition = end;
+            durableSequence = last;
+            syncLock.notifyAll();
+        }
+    }
+
+    private void recover() throws IOException {
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        checkpoint = Files.exists(checkpointFile)
+                ? ByteBuffer.wrap(Files.readAllBytes(checkpointFile)).getLong()
+                : -1;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(base, mapSegment(path));
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            createSegment(checkpoint + 1);
+        }
+
+        for (Map.Entry<Long, Segment> entry : segments.entrySet()) {
+            Segment segment = entry.getValue();
+            long sequence = entry.getKey();
+            int position = 0;
+            int length;
+            while ((length = validRecordLength(segment.buffer, position)) > 0) {
+                if (sequence == checkpoint + 1) {
+                    readSegment = segment;
+                    readPosition = position;
+                }
+                position += HEADER + length;
+                sequence++;
+            }
+            writeSegment = segment;
+            writePosition = position;
+            nextSequence = sequence;
+        }
+
+        // Zero whatever a crash left half-written after the last valid record, so the reader
+        // never mistakes it for a record once this segment fills up.
+        MappedByteBuffer tail = writeSegment.buffer;
+        byte[] zeros = new byte[64 * 1024];
+        for (int i = writePosition; i < segmentSize; i += zeros.length) {
+            tail.put(i, zeros, 0, Math.min(zeros.length, segmentSize - i));
+        }
+        tail.force();
+        writeSegment.forcedPosition = writePosition;
+
+        if (readSegment == null) {
+            readSegment = writeSegment;
+            readPosition = writePosition;
+        }
+        readSequence = checkpoint + 1;
+        durableSequence = nextSequence - 1;
+    }
+
+    private int validRecordLength(MappedByteBuffer buffer, int position) {
+        if (position + HEADER > segmentSize) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || length > segmentSize - HEADER - position) {
+            return 0;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(position + HEADER, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(position + Integer.BYTES) ? length : 0;
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        Segment segment = mapSegment(path);
+        segments.put(base, segment);
+        // Make the new file's directory entry durable too.
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the segment data itself is still forced.
+        }
+        return segment;
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Segment mapSegment(Path path) throws IOException {
+        return new Segment(path, map(path));
+    }
+
+    public record Record(long sequence, byte[] payload) {
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+
+        private final MappedByteBuffer buffer;
+
+        // Only accessed under syncLock.
+        private int forcedPosition;
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.springboottesting.ingest;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import com.example.springboottesting.dto.IngestStatus.State;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The outcomes of the most recent {@code retained} ingested employees, kept next to the
+ * {@link IngestLog} checkpoint so they survive a restart. Outcomes are appended as JSON lines and
+ * forced before the checkpoint moves past them; the file is rewritten with just the retained
+ * outcomes once it holds twice as many, and a torn line at the tail is ignored.
+ */
+class IngestResults implements Closeable {
+
+    private static final String RESULTS_FILE = "results";
+
+    private final Path file;
+
+    private final ObjectMapper objectMapper;
+
+    private final int retained;
+
+    private final NavigableMap<Long, Outcome> outcomes = new ConcurrentSkipListMap<>();
+
+    // Guarded by "this".
+    private FileChannel channel;
+
+    private int lines;
+
+    private IngestResults(Path directory, ObjectMapper objectMapper, int retained) {
+        this.file = directory.resolve(RESULTS_FILE);
+        this.objectMapper = objectMapper;
+        this.retained = retained;
+    }
+
+    static IngestResults open(Path directory, ObjectMapper objectMapper, int retained) throws IOException {
+        if (retained < 1) {
+            throw new IllegalArgumentException("At least one result must be retained");
+        }
+        Files.createDirectories(directory);
+        IngestResults results = new IngestResults(directory, objectMapper, retained);
+        results.recover();
+        return results;
+    }
+
+    Optional<Outcome> get(long trackingId) {
+        return Optional.ofNullable(outcomes.get(trackingId));
+    }
+
+    /**
+     * Durably records the outcomes; the oldest ones beyond the retained count stay until {@link #evict}.
+     */
+    synchronized void record(Collection<Outcome> batch) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (Outcome outcome : batch) {
+            bytes.write(line(outcome));
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        lines += batch.size();
+        for (Outcome outcome : batch) {
+            outcomes.put(outcome.trackingId(), outcome);
+        }
+    }
+
+    /**
+     * Drops the oldest outcomes beyond the retained count. Called once the log is checkpointed past
+     * them, so an entry without an outcome is either still pending or no longer retained.
+     */
+    synchronized void evict() throws IOException {
+        while (outcomes.size() > retained) {
+            outcomes.pollFirstEntry();
+        }
+        if (lines >= 2 * retained) {
+            compact();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private void recover() throws IOException {
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        Outcome outcome = objectMapper.readValue(line, Outcome.class);
+                        outcomes.put(outcome.trackingId(), outcome);
+                        lines++;
+                    } catch (JsonProcessingException e) {
+                        // Torn by a crash mid-write; nothing after it was ever forced.
+                        break;
+                    }
+                }
+            }
+            while (outcomes.size() > retained) {
+                outcomes.pollFirstEntry();
+            }
+        }
+        // Also drops a torn tail, which the next append would otherwise run into.
+        compact();
+    }
+
+    private void compact() throws IOException {
+        Path tmp = file.resolveSibling(RESULTS_FILE + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Outcome outcome : outcomes.values()) {
+                ByteBuffer buffer = ByteBuffer.wrap(line(outcome));
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+            out.force(true);
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        lines = outcomes.size();
+    }
+
+    private byte[] line(Outcome outcome) throws JsonProcessingException {
+        return (objectMapper.writeValueAsString(outcome) + '\n').getBytes(StandardCharsets.UTF_8);
+    }
+
+    record Outcome(long trackingId, String tenant, State state, Long id, String message) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.springboottesting.json;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+/**
+ * A {@code fields=} selection as a bitmask over {@link #NAMES}. There are only 32 selections, so
+ * each one and its filter provider is built once and shared across requests.
+ */
+public final class EmployeeFields extends SimpleBeanPropertyFilter {
+
+    public static final String FILTER = "employeeFields";
+
+    public static final List<String> NAMES = List.of("id", "firstName", "lastName", "email", "version");
+
+    static final int ID = 1;
+    static final int FIRST_NAME = 1 << 1;
+    static final int LAST_NAME = 1 << 2;
+    static final int EMAIL = 1 << 3;
+    static final int VERSION = 1 << 4;
+
+    private static final EmployeeFields[] SELECTIONS = new EmployeeFields[1 << NAMES.size()];
+
+    static {
+        for (int mask = 0; mask < SELECTIONS.length; mask++) {
+            SELECTIONS[mask] = new EmployeeFields(mask);
+        }
+    }
+
+    public static final EmployeeFields ALL = SELECTIONS[SELECTIONS.length - 1];
+
+    private final int mask;
+
+    private final FilterProvider filters;
+
+    private EmployeeFields(int mask) {
+        this.mask = mask;
+        this.filters = new SimpleFilterProvider().addFilter(FILTER, this);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a name is not one of {@link #NAMES}
+     */
+    public static EmployeeFields of(Collection<String> names) {
+        int mask = 0;
+        for (String name : names) {
+            int index = NAMES.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown employee field: " + name);
+            }
+            mask |= 1 << index;
+        }
+        return SELECTIONS[mask];
+    }
+
+    // The selection a serializer was handed through ObjectWriter.with(filters), or ALL without one.
+    static EmployeeFields from(FilterProvider filters, Object value) {
+        if (filters != null && filters.findPropertyFilter(FILTER, value) instanceof EmployeeFields fields) {
+            return fields;
+        }
+        return ALL;
+    }
+
+    public FilterProvider filters() {
+        return filters;
+    }
+
+    public int mask() {
+        return mask;
+    }
+
+    boolean includes(int field) {
+        return (mask & field) != 0;
+    }
+
+    @Override
+    protected boolean include(PropertyWriter writer) {
+        int index = NAMES.indexOf(writer.getName());
+        return index >= 0 && includes(1 << index);
+    }
+}
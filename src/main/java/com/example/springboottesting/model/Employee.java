@@ -5,24 +5,48 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.TenantId;
+
+import com.example.springboottesting.json.EmployeeSerializers;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 @Setter
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "employees")
+@JsonSerialize(using = EmployeeSerializers.Entity.class)
+@Table(name = "employees",
+        uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_CONSTRAINT, columnNames = { "tenant_id", "email" }),
+        indexes = {
+                @Index(name = "idx_employees_name", columnList = "tenant_id, last_name, first_name"),
+                @Index(name = "idx_employees_tenant", columnList = "tenant_id, id") })
 public class Employee {
 
+    public static final String EMAIL_CONSTRAINT = "uk_employees_email";
+
+    public static final String ID_SEQUENCE = "employees_seq";
+
+    // Each sequence value hands out this many ids; bulk loaders allocate the same way.
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private long id;
 
     @Column(name = "first_name", nullable = false)
@@ -34,5 +58,16 @@ public class Employee {
     @Column(nullable = false)
     private String email;
 
+    // Bumped by every write; exposed as the ETag for conditional updates.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // Set by Hibernate from the session's tenant on insert; every query is filtered on it.
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
 
 }
@@ -0,0 +1,54 @@
+package com.example.springboottesting.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Append-only memory outside the Java heap: direct buffers of {@value #PAGE_SIZE} bytes, each
+ * allocated on demand. An address packs the page number above the offset within the page; a
+ * record never spans two pages. Not thread-safe; the page array is replaced, never modified in
+ * place, so a concurrent reader sees either the old or the new array.
+ */
+final class Arena {
+
+    static final int PAGE_BITS = 24;
+
+    static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private ByteBuffer[] pages = new ByteBuffer[0];
+
+    private int position = PAGE_SIZE;
+
+    long write(byte[] record) {
+        if (record.length > PAGE_SIZE) {
+            throw new IllegalArgumentException("Record of " + record.length + " bytes is larger than a page");
+        }
+        if (position + record.length > PAGE_SIZE) {
+            ByteBuffer[] grown = Arrays.copyOf(pages, pages.length + 1);
+            grown[pages.length] = ByteBuffer.allocateDirect(PAGE_SIZE);
+            pages = grown;
+            position = 0;
+        }
+        int page = pages.length - 1;
+        pages[page].put(position, record);
+        long address = ((long) page << PAGE_BITS) | position;
+        position += record.length;
+        return address;
+    }
+
+    ByteBuffer page(long address) {
+        return pages[(int) (address >>> PAGE_BITS)];
+    }
+
+    static int offset(long address) {
+        return (int) address & (PAGE_SIZE - 1);
+    }
+
+    long capacityBytes() {
+        return (long) pages.length * PAGE_SIZE;
+    }
+
+    long usedBytes() {
+        return pages.length == 0 ? 0 : (long) (pages.length - 1) * PAGE_SIZE + position;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.springboottesting.offheap;
+
+/**
+ * Open-addressing index from email to employee id. Slots hold the id and the email's hash; the
+ * email itself stays in the store's arena, so a probe that matches the hash is confirmed
+ * through {@link EmailMatcher}. Id 0 marks an empty slot. Not thread-safe.
+ */
+final class EmailIndex {
+
+    interface EmailMatcher {
+
+        boolean matches(long id, byte[] email);
+    }
+
+    private static final int MIN_CAPACITY = 16;
+
+    private static final int MAX_LOAD_PERCENT = 60;
+
+    private long[] ids;
+
+    private int[] hashes;
+
+    private int size;
+
+    EmailIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 100 / MAX_LOAD_PERCENT) - 1) << 1;
+        ids = new long[capacity];
+        hashes = new int[capacity];
+    }
+
+    long find(byte[] email, int hash, EmailMatcher matcher) {
+        long[] ids = this.ids;
+        int[] hashes = this.hashes;
+        int mask = ids.length - 1;
+        for (int slot = hash & mask, probes = 0; probes < ids.length; slot = (slot + 1) & mask, probes++) {
+            if (ids[slot] == 0) {
+                return 0;
+            }
+            if (hashes[slot] == hash && matcher.matches(ids[slot], email)) {
+                return ids[slot];
+            }
+        }
+        return 0;
+    }
+
+    void add(long id, int hash) {
+        if ((size + 1) * 100L > (long) ids.length * MAX_LOAD_PERCENT) {
+            resize(ids.length << 1);
+        }
+        insert(ids, hashes, id, hash);
+        size++;
+    }
+
+    boolean remove(long id, int hash) {
+        int mask = ids.length - 1;
+        int slot = hash & mask;
+        while (ids[slot] != id) {
+            if (ids[slot] == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int hole = slot;
+        for (int next = (hole + 1) & mask; ids[next] != 0; next = (next + 1) & mask) {
+            int home = hashes[next] & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                ids[hole] = ids[next];
+                hashes[hole] = hashes[next];
+                hole = next;
+            }
+        }
+        ids[hole] = 0;
+        hashes[hole] = 0;
+        size--;
+        return true;
+    }
+
+    long memoryBytes() {
+        return (long) ids.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    // Spreads String-style hashes, whose low bits are weak for similar strings.
+    static int hash(byte[] email) {
+        int hash = 1;
+        for (byte b : email) {
+            hash = 31 * hash + b;
+        }
+        return hash ^ (hash >>> 16) ^ (hash >>> 7);
+    }
+
+    private void resize(int capacity) {
+        long[] newIds = new long[capacity];
+        int[] newHashes = new int[capacity];
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != 0) {
+                insert(newIds, newHashes, ids[i], hashes[i]);
+            }
+        }
+        ids = newIds;
+        hashes = newHashes;
+    }
+
+    private static void insert(long[] ids, int[] hashes, long id, int hash) {
+        int mask = ids.length - 1;
+        int slot = hash & mask;
+        while (ids[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        ids[slot] = id;
+        hashes[slot] = hash;
+    }
+}
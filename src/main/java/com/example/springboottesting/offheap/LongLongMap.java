@@ -0,0 +1,117 @@
+package com.example.springboottesting.offheap;
+
+/**
+ * Open-addressing {@code long -> long} map over two primitive arrays: no boxing and no entry
+ * objects. Linear probing, with backward-shift deletion so no tombstones build up. Key 0 is
+ * reserved for empty slots. Not thread-safe; {@link OffHeapEmployeeStore} guards it.
+ */
+final class LongLongMap {
+
+    static final long MISSING = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    // Resize above 60% occupancy, which keeps probe sequences short.
+    private static final int MAX_LOAD_PERCENT = 60;
+
+    private long[] keys;
+
+    private long[] values;
+
+    private int size;
+
+    LongLongMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 100 / MAX_LOAD_PERCENT) - 1) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long get(long key) {
+        long[] keys = this.keys;
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask), probes = 0; probes < keys.length; slot = (slot + 1) & mask, probes++) {
+            if (keys[slot] == 0) {
+                return MISSING;
+            }
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    void put(long key, long value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        if ((size + 1) * 100L > (long) keys.length * MAX_LOAD_PERCENT) {
+            resize(keys.length << 1);
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    boolean remove(long key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != key) {
+            if (keys[slot] == 0) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        // Pull later entries of the probe run back so that lookups never stop at the hole too early.
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+        size--;
+        return true;
+    }
+
+    long memoryBytes() {
+        return (long) keys.length * Long.BYTES * 2;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
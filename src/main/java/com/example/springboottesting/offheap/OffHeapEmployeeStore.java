@@ -0,0 +1,589 @@
+package com.example.springboottesting.offheap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.example.springboottesting.ingest.IngestLog;
+import com.example.springboottesting.model.Employee;
+
+/**
+ * Employees kept outside the Java heap.
+ * <p>
+ * Each employee is one UTF-8 record in an append-only {@link Arena} of direct buffers. A primitive
+ * {@link LongLongMap} maps ids to record addresses and an {@link EmailIndex} maps emails to ids,
+ * so there is no Java object per stored employee. Writers take a {@link StampedLock}; reads are
+ * optimistic and only fall back to the read lock when a write overlapped them.
+ * <p>
+ * Every write is appended to a write-ahead {@link IngestLog} before it is applied, so it is
+ * durable when the call returns. A snapshot every {@code snapshotInterval} writes, and on close,
+ * lets the log drop what the snapshot covers. Updates and deletes leave the old record behind;
+ * once that garbage outweighs the live records the arena is compacted.
+ */
+public class OffHeapEmployeeStore implements Closeable {
+
+    // id, version and the byte lengths of firstName, lastName and email.
+    private static final int HEADER = 2 * Long.BYTES + 3 * Short.BYTES;
+
+    private static final byte PUT = 1;
+
+    private static final byte DELETE = 2;
+
+    private static final int SNAPSHOT_MAGIC = 0x454d5053;
+
+    private static final String SNAPSHOT_FILE = "snapshot";
+
+    private static final String LOG_DIRECTORY = "wal";
+
+    private static final int MIN_COMPACTION_BYTES = 1 << 20;
+
+    private final StampedLock lock = new StampedLock();
+
+    private final Path directory;
+
+    private final IngestLog log;
+
+    private final long snapshotInterval;
+
+    // Guarded by lock; optimistic readers copy what they need and validate afterwards.
+    private Arena arena = new Arena();
+
+    private LongLongMap addresses = new LongLongMap(1024);
+
+    private final EmailIndex emails = new EmailIndex(1024);
+
+    // Ids are handed out in ascending order, so appending keeps this sorted for paging. Deleted
+    // ids stay until the next compaction and are skipped.
+    private long[] order = new long[1024];
+
+    private int orderSize;
+
+    private long nextId = 1;
+
+    private long liveBytes;
+
+    private long garbageBytes;
+
+    // Only incremented under the write lock.
+    private volatile long writesSinceSnapshot;
+
+    private boolean closed;
+
+    private OffHeapEmployeeStore(Path directory, IngestLog log, long snapshotInterval) {
+        this.directory = directory;
+        this.log = log;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public static OffHeapEmployeeStore open(Path directory, int logSegmentSize, long snapshotInterval)
+            throws IOException {
+        Files.createDirectories(directory);
+        OffHeapEmployeeStore store = new OffHeapEmployeeStore(directory,
+                IngestLog.open(directory.resolve(LOG_DIRECTORY), logSegmentSize), snapshotInterval);
+        store.recover();
+        return store;
+    }
+
+    public Employee findById(long id) {
+        return read(() -> decode(addresses.get(id)));
+    }
+
+    /**
+     * The version of an employee, read straight from its record, or null.
+     */
+    public Long findVersion(long id) {
+        return read(() -> {
+            long address = addresses.get(id);
+            return address == LongLongMap.MISSING ? null
+                    : arena.page(address).getLong(Arena.offset(address) + Long.BYTES);
+        });
+    }
+
+    public Employee findByEmail(String email) {
+        byte[] bytes = email.getBytes(StandardCharsets.UTF_8);
+        return read(() -> decode(addresses.get(findId(bytes))));
+    }
+
+    /**
+     * Up to {@code limit} employees with ids above {@code afterId}, in id order.
+     */
+    public List<Employee> findAfter(long afterId, int limit) {
+        return read(() -> {
+            List<Employee> employees = new ArrayList<>(Math.min(limit, addresses.size()));
+            int index = Arrays.binarySearch(order, 0, orderSize, afterId);
+            for (int i = index >= 0 ? index + 1 : -index - 1; i < orderSize && employees.size() < limit; i++) {
+                Employee employee = decode(addresses.get(order[i]));
+                if (employee != null) {
+                    employees.add(employee);
+                }
+            }
+            return employees;
+        });
+    }
+
+    public void forEach(int batchSize, Consumer<Employee> consumer) {
+        List<Employee> batch;
+        long afterId = 0;
+        do {
+            batch = findAfter(afterId, batchSize);
+            batch.forEach(consumer);
+            afterId = batch.isEmpty() ? afterId : batch.get(batch.size() - 1).getId();
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Sequence of the last logged write. It only grows, across restarts too, so it changes with
+     * every insert, update and delete.
+     */
+    public long lastSequence() {
+        return read(() -> log.lastSequence());
+    }
+
+    public int size() {
+        return read(() -> addresses.size());
+    }
+
+    /**
+     * Bytes held for the employees: arena pages plus the index arrays.
+     */
+    public long memoryBytes() {
+        return read(() -> arena.usedBytes() + addresses.memoryBytes() + emails.memoryBytes()
+                + (long) order.length * Long.BYTES);
+    }
+
+    public Employee insert(Employee employee) throws IOException {
+        Employee saved = insertAll(List.of(employee)).get(0);
+        if (saved == null) {
+            throw new DuplicateKeyException("Employee already exist with given email" + employee.getEmail());
+        }
+        return saved;
+    }
+
+    /**
+     * Inserts the employees with new ids, in one log write. The result lines up with the input and
+     * holds null where the email was already taken, by a stored employee or earlier in the list.
+     */
+    public List<Employee> insertAll(List<Employee> employees) throws IOException {
+        List<Employee> saved = new ArrayList<>(employees.size());
+        long stamp = lock.writeLock();
+        try {
+            checkOpen();
+            List<byte[]> entries = new ArrayList<>(employees.size());
+            Set<String> claimedEmails = new HashSet<>();
+            long id = nextId;
+            for (Employee employee : employees) {
+                if (findId(employee.getEmail().getBytes(StandardCharsets.UTF_8)) != 0
+                        || !claimedEmails.add(employee.getEmail())) {
+                    saved.add(null);
+                    continue;
+                }
+                Employee created = Employee.builder()
+                        .id(id++)
+                        .firstName(employee.getFirstName())
+                        .lastName(employee.getLastName())
+                        .email(employee.getEmail())
+                        .version(0L)
+                        .build();
+                saved.add(created);
+                entries.add(put(created));
+            }
+            write(entries);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        snapshotIfDue();
+        return saved;
+    }
+
+    /**
+     * Replaces the non-null fields and bumps the version. Returns null when there is no such
+     * employee; a stale {@code expectedVersion} fails with {@link OptimisticLockingFailureException}
+     * and a taken email with {@link DuplicateKeyException}.
+     */
+    public Employee update(long id, Long expectedVersion, String firstName, String lastName, String email)
+            throws IOException {
+        Employee updated;
+        long stamp = lock.writeLock();
+        try {
+            checkOpen();
+            Employee current = decode(addresses.get(id));
+            if (current == null) {
+                return null;
+            }
+            if (expectedVersion != null && expectedVersion.longValue() != current.getVersion()) {
+                throw new OptimisticLockingFailureException(
+                        "Employee " + id + " is at version " + current.getVersion());
+            }
+            if (email != null && !email.equals(current.getEmail())
+                    && findId(email.getBytes(StandardCharsets.UTF_8)) != 0) {
+                throw new DuplicateKeyException("Employee already exist with given email" + email);
+            }
+            updated = Employee.builder()
+                    .id(id)
+                    .firstName(firstName != null ? firstName : current.getFirstName())
+                    .lastName(lastName != null ? lastName : current.getLastName())
+                    .email(email != null ? email : current.getEmail())
+                    .version(current.getVersion() + 1)
+                    .build();
+            write(List.of(put(updated)));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        snapshotIfDue();
+        return updated;
+    }
+
+    public boolean delete(long id) throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            checkOpen();
+            if (addresses.get(id) == LongLongMap.MISSING) {
+                return false;
+            }
+            write(List.of(ByteBuffer.allocate(1 + Long.BYTES).put(DELETE).putLong(id).array()));
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        snapshotIfDue();
+        return true;
+    }
+
+    /**
+     * Writes every stored employee to the snapshot file and lets the log drop what it covers.
+     * Readers carry on meanwhile; writers wait.
+     */
+    public synchronized void snapshot() throws IOException {
+        long sequence;
+        long stamp = lock.readLock();
+        try {
+            sequence = log.lastSequence();
+            Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                CRC32 crc = new CRC32();
+                DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024), crc));
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(sequence);
+                out.writeLong(nextId);
+                out.writeInt(addresses.size());
+                for (int i = 0; i < orderSize; i++) {
+                    long address = addresses.get(order[i]);
+                    if (address != LongLongMap.MISSING) {
+                        out.write(copy(address));
+                    }
+                }
+                out.writeLong(crc.getValue());
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(tmp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            writesSinceSnapshot = 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        if (sequence >= 0) {
+            log.checkpoint(sequence);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        snapshot();
+        long stamp = lock.writeLock();
+        try {
+            closed = true;
+            log.close();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void compact() {
+        long stamp = lock.writeLock();
+        try {
+            compactLocked();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Rewrites the live records into a fresh arena, in id order, and forgets deleted ids.
+    private void compactLocked() {
+        Arena compacted = new Arena();
+        LongLongMap moved = new LongLongMap(addresses.size());
+        long[] compactedOrder = new long[Math.max(1024, addresses.size() * 2)];
+        int size = 0;
+        for (int i = 0; i < orderSize; i++) {
+            long address = addresses.get(order[i]);
+            if (address != LongLongMap.MISSING) {
+                moved.put(order[i], compacted.write(copy(address)));
+                compactedOrder[size++] = order[i];
+            }
+        }
+        arena = compacted;
+        addresses = moved;
+        order = compactedOrder;
+        orderSize = size;
+        garbageBytes = 0;
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // Read a half-finished write; retried under the lock below.
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Caller holds the write lock. The log write comes first: nothing is applied that isn't durable.
+    private void write(List<byte[]> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        log.appendAll(entries);
+        for (byte[] entry : entries) {
+            apply(entry);
+        }
+        writesSinceSnapshot += entries.size();
+        if (garbageBytes > liveBytes && garbageBytes > MIN_COMPACTION_BYTES) {
+            compactLocked();
+        }
+    }
+
+    private void snapshotIfDue() throws IOException {
+        if (writesSinceSnapshot >= snapshotInterval) {
+            synchronized (this) {
+                if (writesSinceSnapshot >= snapshotInterval && !closed) {
+                    snapshot();
+                }
+            }
+        }
+    }
+
+    private void apply(byte[] entry) {
+        if (entry[0] == PUT) {
+            putRecord(Arrays.copyOfRange(entry, 1, entry.length));
+        } else {
+            removeRecord(ByteBuffer.wrap(entry, 1, Long.BYTES).getLong());
+        }
+    }
+
+    private void putRecord(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        long id = buffer.getLong(0);
+        if (!removeRecord(id) && (orderSize == 0 || id > order[orderSize - 1])) {
+            if (orderSize == order.length) {
+                order = Arrays.copyOf(order, orderSize * 2);
+            }
+            order[orderSize++] = id;
+        }
+        addresses.put(id, arena.write(record));
+        emails.add(id, EmailIndex.hash(Arrays.copyOfRange(record, record.length - unsignedShort(buffer, 20),
+                record.length)));
+        liveBytes += record.length;
+        nextId = Math.max(nextId, id + 1);
+    }
+
+    // The id keeps its place in the order array; reads skip it until the next compaction.
+    private boolean removeRecord(long id) {
+        long address = addresses.get(id);
+        if (address == LongLongMap.MISSING) {
+            return false;
+        }
+        byte[] record = copy(address);
+        emails.remove(id, EmailIndex.hash(Arrays.copyOfRange(record,
+                record.length - unsignedShort(ByteBuffer.wrap(record), 20), record.length)));
+        addresses.remove(id);
+        liveBytes -= record.length;
+        garbageBytes += record.length;
+        return true;
+    }
+
+    private long findId(byte[] email) {
+        return emails.find(email, EmailIndex.hash(email), this::hasEmail);
+    }
+
+    private boolean hasEmail(long id, byte[] email) {
+        long address = addresses.get(id);
+        if (address == LongLongMap.MISSING) {
+            return false;
+        }
+        ByteBuffer page = arena.page(address);
+        int offset = Arena.offset(address);
+        if (unsignedShort(page, offset + 20) != email.length) {
+            return false;
+        }
+        int position = offset + HEADER + unsignedShort(page, offset + 16) + unsignedShort(page, offset + 18);
+        for (int i = 0; i < email.length; i++) {
+            if (page.get(position + i) != email[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Employee decode(long address) {
+        if (address == LongLongMap.MISSING) {
+            return null;
+        }
+        ByteBuffer page = arena.page(address);
+        int offset = Arena.offset(address);
+        int firstNameLength = unsignedShort(page, offset + 16);
+        int lastNameLength = unsignedShort(page, offset + 18);
+        int emailLength = unsignedShort(page, offset + 20);
+        int position = offset + HEADER;
+        return Employee.builder()
+                .id(page.getLong(offset))
+                .version(page.getLong(offset + Long.BYTES))
+                .firstName(string(page, position, firstNameLength))
+                .lastName(string(page, position + firstNameLength, lastNameLength))
+                .email(string(page, position + firstNameLength + lastNameLength, emailLength))
+                .build();
+    }
+
+    private byte[] copy(long address) {
+        ByteBuffer page = arena.page(address);
+        int offset = Arena.offset(address);
+        byte[] record = new byte[HEADER + unsignedShort(page, offset + 16) + unsignedShort(page, offset + 18)
+                + unsignedShort(page, offset + 20)];
+        page.get(offset, record);
+        return record;
+    }
+
+    private static byte[] put(Employee employee) {
+        byte[] firstName = utf8(employee.getFirstName());
+        byte[] lastName = utf8(employee.getLastName());
+        byte[] email = utf8(employee.getEmail());
+        return ByteBuffer.allocate(1 + HEADER + firstName.length + lastName.length + email.length)
+                .put(PUT)
+                .putLong(employee.getId())
+                .putLong(employee.getVersion())
+                .putShort((short) firstName.length)
+                .putShort((short) lastName.length)
+                .putShort((short) email.length)
+                .put(firstName)
+                .put(lastName)
+                .put(email)
+                .array();
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("Value is longer than " + 0xFFFF + " bytes");
+        }
+        return bytes;
+    }
+
+    private static String string(ByteBuffer page, int position, int length) {
+        byte[] bytes = new byte[length];
+        page.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int unsignedShort(ByteBuffer buffer, int position) {
+        return Short.toUnsignedInt(buffer.getShort(position));
+    }
+
+    private void recover() throws IOException {
+        long snapshotSequence = -1;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            snapshotSequence = loadSnapshot(snapshot);
+        }
+        // A crash between writing a snapshot and checkpointing the log leaves entries that the
+        // snapshot already contains.
+        for (long remaining = log.lastSequence() - log.checkpoint(); remaining > 0;) {
+            List<IngestLog.Record> records;
+            try {
+                records = log.read(1000, 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while replaying the employee log");
+            }
+            for (IngestLog.Record record : records) {
+                if (record.sequence() > snapshotSequence) {
+                    apply(record.payload());
+                }
+            }
+            remaining -= records.size();
+        }
+    }
+
+    private long loadSnapshot(Path snapshot) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(snapshot), 64 * 1024), crc))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not an employee snapshot: " + snapshot);
+            }
+            long sequence = in.readLong();
+            long snapshotNextId = in.readLong();
+            int count = in.readInt();
+            byte[] header = new byte[HEADER];
+            for (int i = 0; i < count; i++) {
+                in.readFully(header);
+                ByteBuffer buffer = ByteBuffer.wrap(header);
+                byte[] record = Arrays.copyOf(header, HEADER + unsignedShort(buffer, 16) + unsignedShort(buffer, 18)
+                        + unsignedShort(buffer, 20));
+                in.readFully(record, HEADER, record.length - HEADER);
+                putRecord(record);
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IOException("Employee snapshot is corrupt: " + snapshot);
+            }
+            nextId = Math.max(nextId, snapshotNextId);
+            return sequence;
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Employee store is closed");
+        }
+    }
+}
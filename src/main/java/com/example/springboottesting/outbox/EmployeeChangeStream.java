@@ -0,0 +1,283 @@
+package com.example.springboottesting.outbox;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.springboottesting.datasource.TenantRoutingDataSource;
+import com.example.springboottesting.dto.EmployeeChange;
+import com.example.springboottesting.outbox.EmployeeOutbox.Entry;
+import com.example.springboottesting.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Feed of the changes numbered by the {@link OutboxRelay}, whichever instance ran it: every
+ * {@code app.outbox.poll-interval} the stream reads the rows numbered since its last read from
+ * the outbox and hands them to the subscribers. A subscriber only sees the changes of the tenant
+ * it subscribed as.
+ * <p>
+ * A subscriber first reads the relayed changes after its starting position from the outbox, then
+ * follows the live feed; changes relayed while it catches up are queued, so nothing is skipped
+ * or delivered twice. Each subscriber is delivered to on its own thread, so a slow one never
+ * holds up the relay. One that falls more than {@value #MAX_PENDING} changes behind is dropped
+ * and can resubscribe from its last position.
+ */
+@Component
+public class EmployeeChangeStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeChangeStream.class);
+
+    static final int CATCH_UP_PAGE_SIZE = 500;
+
+    static final int MAX_PENDING = 10_000;
+
+    public interface Listener {
+
+        void onChanges(List<EmployeeChange> changes) throws Exception;
+
+        // Called when delivery stops because onChanges failed or the subscriber fell behind.
+        void onFailure(Throwable cause);
+    }
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final AtomicInteger threads = new AtomicInteger();
+
+    private final ExecutorService deliveries = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "employee-changes-" + threads.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private EmployeeOutbox employeeOutbox;
+
+    private Duration pollInterval;
+
+    // Shard names, or just null without sharding.
+    private List<String> shards;
+
+    // Only touched by the poller; per shard, absent until read from the outbox.
+    private Map<String, Long> lastPositions = new HashMap<>();
+
+    private ScheduledExecutorService poller;
+
+    public EmployeeChangeStream(EmployeeOutbox employeeOutbox, MeterRegistry meterRegistry,
+            ObjectProvider<TenantRoutingDataSource> tenantRoutingDataSource,
+            @Value("${app.outbox.poll-interval:100ms}") Duration pollInterval) {
+        this.employeeOutbox = employeeOutbox;
+        this.pollInterval = pollInterval;
+        TenantRoutingDataSource routing = tenantRoutingDataSource.getIfAvailable();
+        this.shards = routing != null ? List.copyOf(routing.getShards().keySet()) : Collections.singletonList(null);
+        Gauge.builder("employee.changes.subscribers", subscriptions, List::size)
+                .description("Open subscriptions to the employee change stream")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delivers every change of the current tenant after {@code since}, in position order, until
+     * cancelled.
+     */
+    public Subscription subscribe(long since, Listener listener) {
+        Subscription subscription = new Subscription(TenantContext.current(), since, listener);
+        subscriptions.add(subscription);
+        deliveries.execute(subscription::catchUp);
+        return subscription;
+    }
+
+    /**
+     * Position of the latest relayed change; subscribing from it delivers only newer changes.
+     */
+    public long lastPosition() {
+        return employeeOutbox.lastPosition();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (poller == null) {
+            poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "employee-changes-poller");
+                thread.setDaemon(true);
+                return thread;
+            });
+            poller.scheduleWithFixedDelay(this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Positions of a shard become visible in order (the relay numbers one batch at a time), so
+    // reading past the last one seen never skips a change.
+    private void poll() {
+        try {
+            for (String shard : shards) {
+                TenantContext.callOnShard(shard, () -> {
+                    Long last = lastPositions.get(shard);
+                    long position = last != null ? last : employeeOutbox.lastPosition();
+                    List<Entry> entries;
+                    do {
+                        entries = employeeOutbox.findRelayedAfter(position, CATCH_UP_PAGE_SIZE);
+                        if (!entries.isEmpty()) {
+                            publish(entries);
+                            position = entries.get(entries.size() - 1).change().position();
+                        }
+                    } while (entries.size() == CATCH_UP_PAGE_SIZE);
+                    lastPositions.put(shard, position);
+                    return null;
+                });
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Reading relayed employee changes failed, retrying", e);
+        }
+    }
+
+    void publish(List<Entry> entries) {
+        for (Subscription subscription : subscriptions) {
+            List<EmployeeChange> changes = entries.stream()
+                    .filter(entry -> entry.tenant().equals(subscription.tenant))
+                    .map(Entry::change)
+                    .toList();
+            if (!changes.isEmpty()) {
+                subscription.offer(changes);
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+        subscriptions.forEach(Subscription::cancel);
+        deliveries.shutdownNow();
+    }
+
+    public final class Subscription {
+
+        private final String tenant;
+
+        private final Listener listener;
+
+        // Guarded by "this". The catch-up owns delivery first, so draining starts out true.
+        private final ArrayDeque<EmployeeChange> pending = new ArrayDeque<>();
+
+        private boolean draining = true;
+
+        private boolean cancelled;
+
+        // Only touched by the thread currently delivering.
+        private long position;
+
+        private Subscription(String tenant, long since, Listener listener) {
+            this.tenant = tenant;
+            this.position = since;
+            this.listener = listener;
+        }
+
+        public void cancel() {
+            close();
+        }
+
+        private void offer(List<EmployeeChange> changes) {
+            boolean overflow;
+            boolean start = false;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                overflow = pending.size() + changes.size() > MAX_PENDING;
+                if (!overflow) {
+                    pending.addAll(changes);
+                    start = !draining;
+                    draining = true;
+                }
+            }
+            if (overflow) {
+                fail(new IllegalStateException("Subscriber is more than " + MAX_PENDING + " changes behind"));
+            } else if (start) {
+                deliveries.execute(this::drain);
+            }
+        }
+
+        private void catchUp() {
+            try {
+                List<EmployeeChange> page;
+                do {
+                    page = TenantContext.call(tenant,
+                            () -> employeeOutbox.findChangesAfter(position, CATCH_UP_PAGE_SIZE));
+                    deliver(page);
+                } while (page.size() == CATCH_UP_PAGE_SIZE && !isCancelled());
+            } catch (Exception e) {
+                fail(e);
+                return;
+            }
+            drain();
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    List<EmployeeChange> batch;
+                    synchronized (this) {
+                        long delivered = position;
+                        batch = pending.stream().filter(change -> change.position() > delivered).toList();
+                        pending.clear();
+                        if (batch.isEmpty() || cancelled) {
+                            draining = false;
+                            return;
+                        }
+                    }
+                    deliver(batch);
+                }
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        private void deliver(List<EmployeeChange> changes) throws Exception {
+            if (!changes.isEmpty() && !isCancelled()) {
+                listener.onChanges(changes);
+                position = changes.get(changes.size() - 1).position();
+            }
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void fail(Throwable cause) {
+            if (close()) {
+                listener.onFailure(cause);
+            }
+        }
+
+        private boolean close() {
+            synchronized (this) {
+                if (cancelled) {
+                    return false;
+                }
+                cancelled = true;
+                pending.clear();
+            }
+            subscriptions.remove(this);
+            return true;
+        }
+    }
+}
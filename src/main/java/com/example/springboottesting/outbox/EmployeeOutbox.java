@@ -0,0 +1,139 @@
+package com.example.springboottesting.outbox;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.springboottesting.dto.EmployeeChange;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.event.EmployeeChangedEvent.Type;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.tenant.TenantContext;
+
+/**
+ * The {@code employee_outbox} table. {@link #record} must run inside the transaction that makes
+ * the change, so a change is in the outbox if and only if it committed. Reads are scoped to the
+ * current tenant except for the relay's, which work on a whole shard.
+ */
+@Component
+public class EmployeeOutbox {
+
+    private static final String COLUMNS = "type, employee_id, first_name, last_name, email, version";
+
+    private JdbcTemplate jdbcTemplate;
+
+    public EmployeeOutbox(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void record(EmployeeChangedEvent event) {
+        record(List.of(event));
+    }
+
+    public void record(List<EmployeeChangedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate("insert into employee_outbox (" + COLUMNS + ", created_at, tenant_id)"
+                + " values (?, ?, ?, ?, ?, ?, ?, ?)", events, events.size(), (statement, event) -> {
+                    Employee employee = event.getEmployee();
+                    statement.setString(1, event.getType().name());
+                    statement.setLong(2, event.getId());
+                    statement.setString(3, employee != null ? employee.getFirstName() : null);
+                    statement.setString(4, employee != null ? employee.getLastName() : null);
+                    statement.setString(5, employee != null ? employee.getEmail() : null);
+                    statement.setObject(6, employee != null ? employee.getVersion() : null, Types.BIGINT);
+                    statement.setTimestamp(7, now);
+                    statement.setString(8, event.getTenant());
+                });
+    }
+
+    /**
+     * The current tenant's relayed changes after {@code position}, oldest first.
+     */
+    public List<EmployeeChange> findChangesAfter(long position, int limit) {
+        return jdbcTemplate.query("select position, " + COLUMNS + " from employee_outbox"
+                + " where tenant_id = ? and position > ? order by position limit ?",
+                (rs, rowNum) -> change(rs.getLong("position"), rs), TenantContext.current(), position, limit);
+    }
+
+    public long lastPosition() {
+        Long position = jdbcTemplate.queryForObject("select max(position) from employee_outbox", Long.class);
+        return position != null ? position : 0;
+    }
+
+    /**
+     * Changes whenever a change of the current tenant commits. The newest row id moves on commits
+     * in id order; a transaction that commits behind a newer one is covered once the relay gives
+     * it a position.
+     */
+    public String version() {
+        return jdbcTemplate.queryForObject("select max(id), max(position) from employee_outbox where tenant_id = ?",
+                (rs, rowNum) -> rs.getLong(1) + "." + rs.getLong(2), TenantContext.current());
+    }
+
+    /**
+     * Relayed changes of every tenant after {@code position}, oldest first.
+     */
+    List<Entry> findRelayedAfter(long position, int limit) {
+        return jdbcTemplate.query("select id, tenant_id, position, " + COLUMNS + " from employee_outbox"
+                + " where position > ? order by position limit ?",
+                (rs, rowNum) -> new Entry(rs.getLong("id"), rs.getString("tenant_id"),
+                        change(rs.getLong("position"), rs)),
+                position, limit);
+    }
+
+    // Holds the relay lock until the transaction ends; returns the last position handed out.
+    long lockRelayPosition() {
+        return jdbcTemplate.queryForObject("select position from employee_outbox_relay where id = 1 for update",
+                Long.class);
+    }
+
+    void saveRelayPosition(long position) {
+        jdbcTemplate.update("update employee_outbox_relay set position = ? where id = 1", position);
+    }
+
+    List<Entry> findUnrelayed(int limit) {
+        return jdbcTemplate.query("select id, tenant_id, " + COLUMNS + " from employee_outbox"
+                + " where position is null order by id limit ?",
+                (rs, rowNum) -> new Entry(rs.getLong("id"), rs.getString("tenant_id"), change(0, rs)), limit);
+    }
+
+    void markRelayed(List<Entry> entries) {
+        jdbcTemplate.batchUpdate("update employee_outbox set position = ? where id = ?", entries, entries.size(),
+                (statement, entry) -> {
+                    statement.setLong(1, entry.change().position());
+                    statement.setLong(2, entry.id());
+                });
+    }
+
+    // Each tenant's newest and latest relayed rows are kept, so neither its version() nor
+    // lastPosition() ever moves back.
+    int purgeRelayedBefore(Instant cutoff) {
+        return jdbcTemplate.update("delete from employee_outbox o where o.created_at < ?"
+                + " and o.position < (select max(l.position) from employee_outbox l where l.tenant_id = o.tenant_id)"
+                + " and o.id < (select max(l.id) from employee_outbox l where l.tenant_id = o.tenant_id)",
+                Timestamp.from(cutoff));
+    }
+
+    private static EmployeeChange change(long position, ResultSet rs) throws SQLException {
+        Type type = Type.valueOf(rs.getString("type"));
+        long id = rs.getLong("employee_id");
+        EmployeeView employee = type == Type.DELETED
+                ? null
+                : new EmployeeView(id, rs.getString("first_name"), rs.getString("last_name"), rs.getString("email"),
+                        rs.getObject("version", Long.class));
+        return new EmployeeChange(position, type, id, employee);
+    }
+
+    record Entry(long id, String tenant, EmployeeChange change) {
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.springboottesting.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.springboottesting.dto.EmployeeChange;
+import com.example.springboottesting.datasource.TenantRoutingDataSource;
+import com.example.springboottesting.outbox.EmployeeOutbox.Entry;
+import com.example.springboottesting.tenant.TenantContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Numbers committed outbox rows in batches, which is what publishes them: every instance's
+ * {@link EmployeeChangeStream} follows the numbered rows. Each batch is numbered in one transaction
+ * holding the {@code employee_outbox_relay} row lock, so positions follow the relay order rather
+ * than the order in which the writing transactions happened to commit, and instances that all
+ * relay take turns instead of handing out the same positions. Relayed rows are kept for
+ * {@code app.outbox.retention} so consumers can catch up from a position. With sharding, each
+ * shard's outbox is relayed and numbered on its own; a tenant's changes all live in one of them.
+ */
+@Component
+@ConditionalOnProperty(name = "app.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    static final int BATCH_SIZE = 500;
+
+    private static final Duration PURGE_INTERVAL = Duration.ofMinutes(1);
+
+    private EmployeeOutbox employeeOutbox;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Duration interval;
+
+    private Duration retention;
+
+    private Counter relayed;
+
+    // Shard names, or just null without sharding.
+    private List<String> shards;
+
+    private Instant nextPurge = Instant.EPOCH;
+
+    private ScheduledExecutorService executor;
+
+    public OutboxRelay(EmployeeOutbox employeeOutbox, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+            ObjectProvider<TenantRoutingDataSource> tenantRoutingDataSource,
+            @Value("${app.outbox.relay.interval:100ms}") Duration interval,
+            @Value("${app.outbox.retention:24h}") Duration retention) {
+        this.employeeOutbox = employeeOutbox;
+        this.transactionTemplate = transactionTemplate;
+        TenantRoutingDataSource routing = tenantRoutingDataSource.getIfAvailable();
+        this.shards = routing != null ? List.copyOf(routing.getShards().keySet()) : Collections.singletonList(null);
+        this.interval = interval;
+        this.retention = retention;
+        this.relayed = Counter.builder("employee.outbox.relayed")
+                .description("Employee changes numbered for publication from the outbox")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "employee-outbox-relay");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(this::run, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Numbers the next batch of unrelayed changes of every shard and returns how many there were.
+     */
+    public synchronized int relayBatch() {
+        int relayedChanges = 0;
+        for (String shard : shards) {
+            relayedChanges += TenantContext.callOnShard(shard, this::relayShardBatch);
+        }
+        return relayedChanges;
+    }
+
+    private synchronized int relayShardBatch() {
+        List<Entry> entries = transactionTemplate.execute(status -> {
+            // Read after taking the lock, so rows another instance numbered meanwhile are excluded.
+            long first = employeeOutbox.lockRelayPosition();
+            List<Entry> unrelayed = employeeOutbox.findUnrelayed(BATCH_SIZE);
+            List<Entry> numbered = new ArrayList<>(unrelayed.size());
+            long position = first;
+            for (Entry entry : unrelayed) {
+                EmployeeChange change = entry.change();
+                numbered.add(new Entry(entry.id(), entry.tenant(),
+                        new EmployeeChange(++position, change.type(), change.id(), change.employee())));
+            }
+            employeeOutbox.markRelayed(numbered);
+            if (!numbered.isEmpty()) {
+                employeeOutbox.saveRelayPosition(position);
+            }
+            return numbered;
+        });
+        relayed.increment(entries.size());
+        return entries.size();
+    }
+
+    private void run() {
+        try {
+            for (String shard : shards) {
+                while (TenantContext.callOnShard(shard, this::relayShardBatch) == BATCH_SIZE) {
+                    // Keep going while there is a backlog.
+                }
+            }
+            if (Instant.now().isAfter(nextPurge)) {
+                for (String shard : shards) {
+                    TenantContext.callOnShard(shard,
+                            () -> employeeOutbox.purgeRelayedBefore(Instant.now().minus(retention)));
+                }
+                nextPurge = Instant.now().plus(PURGE_INTERVAL);
+            }
+        } catch (RuntimeException e) {
+            // Unrelayed rows stay unnumbered and are picked up by the next run.
+            logger.warn("Relaying employee changes failed, retrying", e);
+        }
+    }
+}
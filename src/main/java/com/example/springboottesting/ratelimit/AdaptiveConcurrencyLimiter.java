@@ -0,0 +1,72 @@
+package com.example.springboottesting.ratelimit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the number of requests in flight, adapting the cap with AIMD: a request slower than the
+ * latency threshold cuts the limit by the backoff ratio, while a fast request that ran with the
+ * limit at least half used raises it by one. Requests over the limit are refused immediately
+ * instead of queueing for threads and connections.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyThresholdNanos;
+
+    private final double backoffRatio;
+
+    private final AtomicInteger limit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos,
+            double backoffRatio) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    /**
+     * Returns the number of requests in flight including this one, or 0 when the limit is reached.
+     * Every successful call must be paired with {@link #release}.
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * @param inFlightAtStart the value returned by {@link #tryAcquire}
+     */
+    public void release(int inFlightAtStart, long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos > latencyThresholdNanos) {
+            limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+        } else if (inFlightAtStart * 2 >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
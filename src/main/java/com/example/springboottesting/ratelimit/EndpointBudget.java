@@ -0,0 +1,41 @@
+package com.example.springboottesting.ratelimit;
+
+import org.springframework.http.HttpMethod;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Groups the /employees endpoints by cost; every client has a separate token bucket per group.
+ */
+public enum EndpointBudget {
+
+    // GET /employees/{id}: a primary-key lookup, usually served from the cache.
+    BY_ID,
+
+    // Listing, paging, search and status polling.
+    LIST,
+
+    // Whole-table streams and the change feed; long-lived, so they don't feed the adaptive
+    // concurrency limit.
+    EXPORT,
+
+    // Creates, updates and deletes, single and batch, and imports.
+    WRITE;
+
+    public static EndpointBudget of(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return WRITE;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.equals("/employees/stream") || path.equals("/employees/changes")
+                || path.startsWith("/employees/export")) {
+            return EXPORT;
+        }
+        String rest = path.startsWith("/employees/") ? path.substring("/employees/".length()) : "";
+        return !rest.isEmpty() && rest.chars().allMatch(Character::isDigit) ? BY_ID : LIST;
+    }
+
+    public boolean isLongLived() {
+        return this == EXPORT;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.springboottesting.ratelimit;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.springboottesting.config.RateLimitProperties;
+import com.example.springboottesting.config.RateLimitProperties.Budget;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sheds load in front of the employee endpoints before a request takes a thread for long or a
+ * database connection at all: 429 when the client has used up its token bucket for the
+ * endpoint's {@link EndpointBudget}, 503 when the adaptive concurrency limit is reached. Both
+ * carry Retry-After and an empty body.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String REJECTED = "employee.requests.rejected";
+
+    private static final int MAX_CLIENT_ID_LENGTH = 64;
+
+    private final RateLimitProperties properties;
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private final Cache<BucketKey, TokenBucket> buckets;
+
+    private final MeterRegistry meterRegistry;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        RateLimitProperties.Concurrency concurrency = properties.getConcurrency();
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(concurrency.getInitialLimit(),
+                concurrency.getMinLimit(), concurrency.getMaxLimit(), concurrency.getLatencyThreshold().toNanos(),
+                concurrency.getBackoffRatio());
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getClientIdleTimeout())
+                .build();
+        Gauge.builder("employee.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit on employee requests in flight")
+                .register(meterRegistry);
+        Gauge.builder("employee.concurrency.in-flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointBudget budget = EndpointBudget.of(request);
+        long now = System.nanoTime();
+        long wait = buckets.get(new BucketKey(clientId(request), budget), key -> newBucket(budget, now))
+                .tryAcquire(now);
+        if (wait > 0) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, wait, budget, "rate_limit");
+            return;
+        }
+        if (budget.isLongLived()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        int inFlight = concurrencyLimiter.tryAcquire();
+        if (inFlight == 0) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, TimeUnit.SECONDS.toNanos(1), budget, "concurrency");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            concurrencyLimiter.release(inFlight, System.nanoTime() - start);
+        }
+    }
+
+    AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    private TokenBucket newBucket(EndpointBudget budget, long now) {
+        Budget limits = properties.budget(budget);
+        return new TokenBucket(limits.getPermitsPerSecond(), limits.getBurst(), now);
+    }
+
+    private String clientId(HttpServletRequest request) {
+        if (request.getUserPrincipal() != null) {
+            return "user:" + request.getUserPrincipal().getName();
+        }
+        String address = request.getRemoteAddr();
+        String clientHeader = properties.getClientHeader();
+        if (clientHeader == null
+                || !properties.getTrustedProxies().isEmpty() && !properties.getTrustedProxies().contains(address)) {
+            return address;
+        }
+        String header = request.getHeader(clientHeader);
+        if (header == null || header.isBlank()) {
+            return address;
+        }
+        header = "client:" + header.trim();
+        return header.length() > MAX_CLIENT_ID_LENGTH ? header.substring(0, MAX_CLIENT_ID_LENGTH) : header;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, EndpointBudget budget,
+            String reason) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER,
+                Long.toString(Math.max(1, (retryAfterNanos + 999_999_999L) / 1_000_000_000L)));
+        meterRegistry.counter(REJECTED, "budget", budget.name().toLowerCase(Locale.ROOT), "reason", reason)
+                .increment();
+    }
+
+    private record BucketKey(String client, EndpointBudget budget) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.springboottesting.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket. Instead of a token count it keeps the time at which the bucket would
+ * be full again (the generic cell rate algorithm), so taking a token is a single compare-and-set
+ * on one long and refilling needs no background work.
+ */
+public class TokenBucket {
+
+    private final long nanosPerToken;
+
+    private final long burstNanos;
+
+    // Theoretical arrival time of the next request, in System.nanoTime() units.
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double tokensPerSecond, int capacity, long nowNanos) {
+        if (tokensPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Rate and capacity must be positive");
+        }
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstNanos = nanosPerToken * capacity;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token. Returns 0 on success, otherwise how many nanoseconds until one is available.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - nowNanos > 0 ? current : nowNanos) + nanosPerToken;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -1,16 +1,61 @@
 package com.example.springboottesting.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.springboottesting.config.CacheConfig;
+import com.example.springboottesting.dto.EmployeeView;
 import com.example.springboottesting.model.Employee;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, key = CacheConfig.FIRST_ARGUMENT_KEY,
+            unless = "#result == null")
     Optional<Employee> findByEmail(String email);
 
+    // EntityManager.find, which the inherited versions use, skips Hibernate's tenant filter; queries apply it.
+    @Override
+    @Query("select e from Employee e where e.id = ?1")
+    Optional<Employee> findById(Long id);
+
+    // An override can't return the count, so the query gets its own name.
+    @Override
+    @Transactional
+    default void deleteById(Long id) {
+        deleteRowById(id);
+    }
+
+    @Transactional
+    @Modifying
+    @Query("delete from Employee e where e.id = ?1")
+    int deleteRowById(Long id);
+
     @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2")
     Employee findByJPQLEmployee(String firstName, String lastName);
+
+    // Projections for read paths: plain rows, no managed entities or dirty-checking snapshots.
+    String VIEW = "select new com.example.springboottesting.dto.EmployeeView(e.id, e.firstName, e.lastName, e.email, e.version) from Employee e";
+
+    @Query(VIEW + " order by e.id")
+    List<EmployeeView> findAllViews(Pageable pageable);
+
+    @Query(VIEW + " where e.id > ?1 order by e.id")
+    List<EmployeeView> findViewsAfter(long id, Pageable pageable);
+
+    @Query("select e.version from Employee e where e.id = ?1")
+    Optional<Long> findVersionById(long id);
+
+    @Query("select e.email from Employee e where e.email in ?1")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    @Query("select e.id from Employee e where e.id in ?1")
+    List<Long> findExistingIds(Collection<Long> ids);
 }
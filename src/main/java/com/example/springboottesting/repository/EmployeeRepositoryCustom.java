@@ -0,0 +1,36 @@
+package com.example.springboottesting.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import com.example.springboottesting.model.Employee;
+
+public interface EmployeeRepositoryCustom {
+
+    /**
+     * Walks the current tenant's rows through a forward-only JDBC cursor, handing each row
+     * to {@code action} without keeping it in a persistence context.
+     */
+    void streamAll(int fetchSize, Consumer<Employee> action);
+
+    /**
+     * Walks the tenant and email of every row of every tenant (on the current shard), for
+     * structures shared by all tenants. Reads the primary, never a replica.
+     */
+    void streamEmails(int fetchSize, BiConsumer<String, String> action);
+
+    /**
+     * Sets only the given attributes of one employee and bumps its version in a single UPDATE,
+     * provided the row is still at {@code expectedVersion} (any version when null).
+     * Returns the number of rows updated.
+     */
+    int updateIfVersion(long id, Long expectedVersion, Map<String, Object> changes);
+
+    /**
+     * Inserts new employees for the current tenant in one round trip per statement, assigning
+     * their ids from the id sequence. Uses COPY on PostgreSQL and a JDBC batch elsewhere.
+     */
+    void bulkInsert(List<Employee> employees);
+}
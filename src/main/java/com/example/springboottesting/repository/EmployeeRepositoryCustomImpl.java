@@ -0,0 +1,187 @@
+package com.example.springboottesting.repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.springboottesting.csv.Csv;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.tenant.TenantContext;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    // Plain SQL bypasses Hibernate's tenant filter, so these name the tenant themselves.
+    private static final String SELECT_ALL = "select id, first_name, last_name, email, version from employees"
+            + " where tenant_id = ? order by id";
+
+    private static final String SELECT_EMAILS = "select tenant_id, email from employees";
+
+    private static final String INSERT = "insert into employees (id, tenant_id, first_name, last_name, email, version)"
+            + " values (?, ?, ?, ?, ?, 0)";
+
+    private static final String COPY = "copy employees (id, tenant_id, first_name, last_name, email, version)"
+            + " from stdin with (format csv)";
+
+    private JdbcTemplate jdbcTemplate;
+
+    private EntityManager entityManager;
+
+    public EmployeeRepositoryCustomImpl(JdbcTemplate jdbcTemplate, EntityManager entityManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManager = entityManager;
+    }
+
+    // PostgreSQL only honours the fetch size (server-side cursor) when auto-commit is off,
+    // hence the read-only transaction around the query.
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(int fetchSize, Consumer<Employee> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_ALL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setString(1, TenantContext.current());
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(Employee.builder()
+                .id(rs.getLong("id"))
+                .firstName(rs.getString("first_name"))
+                .lastName(rs.getString("last_name"))
+                .email(rs.getString("email"))
+                .version(rs.getLong("version"))
+                .build()));
+    }
+
+    // Not read-only: a lagging replica would miss the latest emails.
+    @Override
+    @Transactional
+    public void streamEmails(int fetchSize, BiConsumer<String, String> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_EMAILS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(rs.getString(1), rs.getString(2)));
+    }
+
+    @Override
+    @Transactional
+    public int updateIfVersion(long id, Long expectedVersion, Map<String, Object> changes) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> update = builder.createCriteriaUpdate(Employee.class);
+        Root<Employee> root = update.from(Employee.class);
+
+        changes.forEach(update::set);
+        update.set(root.<Long>get("version"), builder.sum(root.<Long>get("version"), 1L));
+
+        Predicate byId = builder.and(builder.equal(root.get("id"), id),
+                builder.equal(root.get("tenantId"), TenantContext.current()));
+        update.where(expectedVersion == null
+                ? byId
+                : builder.and(byId, builder.equal(root.get("version"), expectedVersion)));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void bulkInsert(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean postgres = connection.isWrapperFor(PGConnection.class);
+            assignIds(connection, postgres, employees);
+            if (postgres) {
+                copy(connection.unwrap(PGConnection.class), employees);
+            } else {
+                insertBatch(connection, employees);
+            }
+            return null;
+        });
+    }
+
+    // Takes whole blocks from the sequence the same way Hibernate's pooled optimizer does, so
+    // bulk-loaded ids never collide with ids handed out by the entity manager. The first value of a
+    // fresh sequence only yields a one-id block, so one spare block is fetched.
+    private static void assignIds(Connection connection, boolean postgres, List<Employee> employees)
+            throws SQLException {
+        int blocks = (employees.size() + Employee.ID_ALLOCATION_SIZE - 1) / Employee.ID_ALLOCATION_SIZE + 1;
+        String sql = postgres
+                ? "select nextval('" + Employee.ID_SEQUENCE + "') from generate_series(1, ?)"
+                : "select next value for " + Employee.ID_SEQUENCE + " from system_range(1, ?)";
+        int next = 0;
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, blocks);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next() && next < employees.size()) {
+                    long hi = rs.getLong(1);
+                    for (long id = Math.max(1, hi - Employee.ID_ALLOCATION_SIZE + 1);
+                            id <= hi && next < employees.size(); id++) {
+                        Employee employee = employees.get(next++);
+                        employee.setId(id);
+                        employee.setVersion(0L);
+                    }
+                }
+            }
+        }
+        if (next < employees.size()) {
+            throw new IllegalStateException("Sequence " + Employee.ID_SEQUENCE + " returned too few values");
+        }
+    }
+
+    private static void copy(PGConnection connection, List<Employee> employees) throws SQLException {
+        StringBuilder csv = new StringBuilder(employees.size() * 64);
+        String tenant = TenantContext.current();
+        try {
+            for (Employee employee : employees) {
+                employee.setTenantId(tenant);
+                csv.append(employee.getId()).append(',');
+                Csv.writeField(csv, tenant);
+                csv.append(',');
+                Csv.writeField(csv, employee.getFirstName());
+                csv.append(',');
+                Csv.writeField(csv, employee.getLastName());
+                csv.append(',');
+                Csv.writeField(csv, employee.getEmail());
+                csv.append(",0\n");
+            }
+            connection.getCopyAPI().copyIn(COPY, new StringReader(csv.toString()));
+        } catch (IOException e) {
+            throw new SQLException("COPY into employees failed", e);
+        }
+    }
+
+    private static void insertBatch(Connection connection, List<Employee> employees) throws SQLException {
+        String tenant = TenantContext.current();
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (Employee employee : employees) {
+                employee.setTenantId(tenant);
+                statement.setLong(1, employee.getId());
+                statement.setString(2, tenant);
+                statement.setString(3, employee.getFirstName());
+                statement.setString(4, employee.getLastName());
+                statement.setString(5, employee.getEmail());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.springboottesting.search;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.springboottesting.dto.EmployeeChange;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.outbox.EmployeeChangeStream;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.tenant.TenantContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+
+/**
+ * In-process prefix index over first name, last name and email for type-ahead search, one per
+ * tenant.
+ * <p>
+ * Tokens are kept in a concurrent skip list ordered by (token, id), so a prefix lookup is a
+ * range scan and updates never lock readers. The default tenant's index is loaded from the table
+ * once the application is ready, any other tenant's on its first search; a tenant without
+ * employees gets none, and an index that is not searched for {@link #IDLE_TIMEOUT} is dropped
+ * with its subscription. Each index follows
+ * the {@link EmployeeChangeStream} from the outbox position taken before its load, which carries
+ * the changes made on every instance; this instance's own {@link EmployeeChangedEvent}s are
+ * applied as well, so they show up without waiting for the relay. Changes arrive in position
+ * order, so an index that applied one out of order is set right by the next. A subscription that
+ * fails drops the index, and the next search loads it again.
+ */
+@Component
+public class EmployeeSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+
+    static final int LOAD_FETCH_SIZE = 1000;
+
+    // Bounds the work of very short prefixes ("a") that match a large part of the table.
+    static final int MAX_SCANNED = 50_000;
+
+    private static final Comparator<TokenRef> TOKEN_ORDER = Comparator.comparing(TokenRef::token)
+            .thenComparingLong(TokenRef::id);
+
+    static final Duration IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    private final Cache<String, TenantIndex> tenants = Caffeine.newBuilder()
+            .expireAfterAccess(IDLE_TIMEOUT)
+            .scheduler(Scheduler.systemScheduler())
+            .<String, TenantIndex>removalListener((tenant, index, cause) -> {
+                if (index != null) {
+                    index.close();
+                }
+            })
+            .build();
+
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeChangeStream employeeChangeStream;
+
+    public EmployeeSearchIndex(EmployeeRepository employeeRepository, EmployeeChangeStream employeeChangeStream) {
+        this.employeeRepository = employeeRepository;
+        this.employeeChangeStream = employeeChangeStream;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loadedIndex();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        // Changes don't count as use; a tenant without an index gets the change from the table when loaded.
+        TenantIndex index = tenants.policy().getIfPresentQuietly(event.getTenant());
+        if (index == null) {
+            return;
+        }
+        if (!index.loaded) {
+            index.changedBeforeLoad.add(event.getId());
+        }
+        if (event.getType() == EmployeeChangedEvent.Type.DELETED) {
+            index.remove(event.getId());
+        } else {
+            index.index(event.getEmployee());
+        }
+    }
+
+    public List<Employee> search(String query, int limit) {
+        String[] terms = query == null ? new String[0] : query.trim().toLowerCase(Locale.ROOT).split("\\s+");
+        if (terms.length == 0 || terms[0].isEmpty() || limit < 1) {
+            return List.of();
+        }
+        TenantIndex index = loadedIndex();
+        return index == null ? List.of() : index.search(terms, limit);
+    }
+
+    public int size() {
+        TenantIndex index = tenants.policy().getIfPresentQuietly(TenantContext.current());
+        return index == null ? 0 : index.entries.size();
+    }
+
+    void index(Employee employee) {
+        tenants.get(TenantContext.current(), TenantIndex::new).index(employee);
+    }
+
+    void remove(long id) {
+        tenants.get(TenantContext.current(), TenantIndex::new).remove(id);
+    }
+
+    // The current tenant's index, loaded; null when the tenant has no employees, so tenant ids
+    // that were never written to cost no index or subscription.
+    private TenantIndex loadedIndex() {
+        String tenant = TenantContext.current();
+        TenantIndex index = tenants.getIfPresent(tenant);
+        if (index == null) {
+            if (employeeRepository.findAllViews(PageRequest.of(0, 1)).isEmpty()) {
+                return null;
+            }
+            index = tenants.get(tenant, TenantIndex::new);
+        }
+        if (!index.loaded) {
+            index.load();
+        }
+        return index;
+    }
+
+    private final class TenantIndex {
+
+        private final String tenant;
+
+        private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+        private final ConcurrentSkipListSet<TokenRef> tokens = new ConcurrentSkipListSet<>(TOKEN_ORDER);
+
+        // Ids changed by events or the feed until the load completes; the load must not overwrite them.
+        private final Set<Long> changedBeforeLoad = ConcurrentHashMap.newKeySet();
+
+        private volatile boolean loaded;
+
+        // Guarded by "this".
+        private EmployeeChangeStream.Subscription subscription;
+
+        private boolean closed;
+
+        private TenantIndex(String tenant) {
+            this.tenant = tenant;
+        }
+
+        private synchronized void load() {
+            if (loaded || closed) {
+                return;
+            }
+            TenantContext.run(tenant, () -> {
+                // Everything after this position is delivered, including what the load already saw.
+                subscription = employeeChangeStream.subscribe(employeeChangeStream.lastPosition(),
+                        new Follower(this));
+                employeeRepository.streamAll(LOAD_FETCH_SIZE, employee -> {
+                    if (!changedBeforeLoad.contains(employee.getId())) {
+                        index(employee);
+                    }
+                });
+            });
+            loaded = true;
+            changedBeforeLoad.clear();
+        }
+
+        private synchronized void close() {
+            closed = true;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
+        private void apply(EmployeeChange change) {
+            if (!loaded) {
+                changedBeforeLoad.add(change.id());
+            }
+            if (change.type() == EmployeeChangedEvent.Type.DELETED) {
+                remove(change.id());
+            } else {
+                index(change.employee());
+            }
+        }
+
+        private List<Employee> search(String[] terms, int limit) {
+            // Drive the scan with the longest term, usually the most selective one, and verify the rest per entry.
+            String driver = terms[0];
+            for (String term : terms) {
+                if (term.length() > driver.length()) {
+                    driver = term;
+                }
+            }
+
+            Set<Long> matches = new LinkedHashSet<>();
+            int scanned = 0;
+            for (TokenRef ref : tokens.subSet(new TokenRef(driver, Long.MIN_VALUE), true,
+                    new TokenRef(driver + Character.MAX_VALUE, Long.MIN_VALUE), false)) {
+                if (++scanned > MAX_SCANNED || matches.size() >= limit) {
+                    break;
+                }
+                Entry entry = entries.get(ref.id());
+                if (entry != null && entry.matchesAll(terms)) {
+                    matches.add(ref.id());
+                }
+            }
+
+            List<Employee> results = new ArrayList<>(matches.size());
+            for (Long id : matches) {
+                Entry entry = entries.get(id);
+                if (entry != null) {
+                    results.add(entry.toEmployee());
+                }
+            }
+            return results;
+        }
+
+        private void index(Employee employee) {
+            index(EmployeeView.of(employee));
+        }
+
+        private void index(EmployeeView employee) {
+            Entry entry = Entry.of(employee);
+            entries.compute(employee.id(), (id, previous) -> {
+                // The same change may arrive as an event and from the feed; never go back a version.
+                if (previous != null && previous.isNewerThan(entry)) {
+                    return previous;
+                }
+                if (previous != null) {
+                    previous.tokens().forEach(token -> tokens.remove(new TokenRef(token, id)));
+                }
+                entry.tokens().forEach(token -> tokens.add(new TokenRef(token, id)));
+                return entry;
+            });
+        }
+
+        private void remove(long id) {
+            entries.computeIfPresent(id, (key, previous) -> {
+                previous.tokens().forEach(token -> tokens.remove(new TokenRef(token, key)));
+                return null;
+            });
+        }
+    }
+
+    private final class Follower implements EmployeeChangeStream.Listener {
+
+        private final TenantIndex index;
+
+        private Follower(TenantIndex index) {
+            this.index = index;
+        }
+
+        @Override
+        public void onChanges(List<EmployeeChange> changes) {
+            changes.forEach(index::apply);
+        }
+
+        @Override
+        public void onFailure(Throwable cause) {
+            logger.warn("Search index of tenant {} stopped following changes, reloading it on the next search",
+                    index.tenant, cause);
+            tenants.asMap().remove(index.tenant, index);
+        }
+    }
+
+    record TokenRef(String token, long id) {
+    }
+
+    record Entry(long id, String firstName, String lastName, String email, Long version, List<String> tokens) {
+
+        static Entry of(EmployeeView employee) {
+            Set<String> tokens = new LinkedHashSet<>();
+            addToken(tokens, employee.firstName());
+            addToken(tokens, employee.lastName());
+            addToken(tokens, employee.email());
+            String email = employee.email();
+            if (email != null && email.indexOf('@') > 0) {
+                addToken(tokens, email.substring(0, email.indexOf('@')));
+            }
+            return new Entry(employee.id(), employee.firstName(), employee.lastName(), email, employee.version(),
+                    List.copyOf(tokens));
+        }
+
+        boolean isNewerThan(Entry other) {
+            return version != null && other.version != null && version > other.version;
+        }
+
+        boolean matchesAll(String[] terms) {
+            for (String term : terms) {
+                if (tokens.stream().noneMatch(token -> token.startsWith(term))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Employee toEmployee() {
+            return Employee.builder()
+                    .id(id)
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .email(email)
+                    .version(version)
+                    .build();
+        }
+
+        private static void addToken(Set<String> tokens, String value) {
+            if (value != null && !value.isBlank()) {
+                tokens.add(value.toLowerCase(Locale.ROOT));
+            }
+        }
+    }
+}
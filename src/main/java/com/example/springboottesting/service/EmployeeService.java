@@ -2,18 +2,42 @@ package com.example.springboottesting.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.dto.EmployeePage;
+import com.example.springboottesting.dto.EmployeeView;
 import com.example.springboottesting.model.Employee;
 
 public interface EmployeeService {
 
     Employee saveEmployee(Employee employee);
 
-    List<Employee> getAllEmployees();
+    List<EmployeeView> getAllEmployees();
+
+    EmployeePage getEmployeesPage(String cursor, int size);
+
+    void streamEmployees(Consumer<Employee> consumer);
 
     Optional<Employee> getEmployeeById(Long id);
 
-    Employee updateEmployee(long id, Employee updatedEmployee);
+    // The current version of one employee, without loading it; empty if it doesn't exist.
+    Optional<Long> getEmployeeVersion(long id);
+
+    // Opaque token that changes whenever any employee is created, updated or deleted.
+    String getEmployeesVersion();
+
+    // expectedVersion null means unconditional; a stale version fails with PreconditionFailedException.
+    Employee updateEmployee(long id, Employee updatedEmployee, Long expectedVersion);
+
+    // Only the non-null fields of changedFields are written.
+    Employee patchEmployee(long id, Employee changedFields, Long expectedVersion);
 
     void deleteEmployee(long id);
+
+    List<BatchItemResult> saveEmployees(List<Employee> employees);
+
+    List<BatchItemResult> updateEmployees(List<Employee> employees);
+
+    List<BatchItemResult> deleteEmployees(List<Long> ids);
 }
@@ -0,0 +1,22 @@
+package com.example.springboottesting.service;
+
+import com.example.springboottesting.dto.EmployeePage;
+import com.example.springboottesting.model.Employee;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeService {
+
+    Mono<Employee> saveEmployee(Employee employee);
+
+    Flux<Employee> getAllEmployees();
+
+    Mono<EmployeePage> getEmployeesPage(String cursor, int size);
+
+    Mono<Employee> getEmployeeById(long id);
+
+    Mono<Employee> updateEmployee(long id, Employee updatedEmployee);
+
+    Mono<Void> deleteEmployee(long id);
+}
@@ -0,0 +1,28 @@
+package com.example.springboottesting.service.impl;
+
+import java.util.Locale;
+
+import com.example.springboottesting.model.Employee;
+
+final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Whether {@code failure} was caused by the unique email constraint. Drivers differ in how they
+     * report the constraint (H2 upper-cases it, PostgreSQL quotes it), so the cause chain is searched.
+     */
+    static boolean isDuplicateEmail(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(Employee.EMAIL_CONSTRAINT)) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.springboottesting.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.example.springboottesting.exception.BadRequestException;
+
+/**
+ * Opaque keyset cursor shared by the blocking and reactive services: the last id of a page.
+ */
+final class EmployeeCursor {
+
+    private EmployeeCursor() {
+    }
+
+    static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(id).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
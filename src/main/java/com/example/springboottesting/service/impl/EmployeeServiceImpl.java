@@ -1,60 +1,464 @@
 package com.example.springboottesting.service.impl;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.springboottesting.cache.EmployeeByIdLoader;
+import com.example.springboottesting.cache.KnownEmails;
+import com.example.springboottesting.config.CacheConfig;
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.dto.BatchItemResult.Status;
+import com.example.springboottesting.dto.EmployeePage;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.exception.BadRequestException;
+import com.example.springboottesting.exception.PreconditionFailedException;
 import com.example.springboottesting.exception.ResourceNotFoundException;
 import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.outbox.EmployeeOutbox;
 import com.example.springboottesting.repository.EmployeeRepository;
 import com.example.springboottesting.service.EmployeeService;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Profile("!offheap")
+@Timed(EmployeeServiceImpl.TIMER)
 public class EmployeeServiceImpl implements EmployeeService {
 
+    // Tagged with class and method by the TimedAspect; cache hits return before reaching it.
+    public static final String TIMER = "employee.service";
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    // GET /employees answers in one body; larger tables go through the page or stream endpoints.
+    public static final int MAX_LIST_SIZE = 10_000;
+
+    static final int STREAM_FETCH_SIZE = 500;
+
+    static final int MAX_BATCH_SIZE = 10_000;
+
+    // Each chunk is one transaction: one duplicate-check query and one JDBC batch per chunk.
+    static final int BATCH_CHUNK_SIZE = 500;
+
     private EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    private TransactionTemplate transactionTemplate;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private EmployeeByIdLoader employeeByIdLoader;
+
+    private EmployeeOutbox employeeOutbox;
+
+    private KnownEmails knownEmails;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher, EmployeeByIdLoader employeeByIdLoader,
+            EmployeeOutbox employeeOutbox, KnownEmails knownEmails) {
         this.employeeRepository = employeeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.employeeByIdLoader = employeeByIdLoader;
+        this.employeeOutbox = employeeOutbox;
+        this.knownEmails = knownEmails;
     }
 
     @Override
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES, key = CacheConfig.RESULT_ID_KEY)
     public Employee saveEmployee(Employee employee) {
+        // The unique constraint is the duplicate check: no pre-query, and no window between check and insert.
+        Employee savedEmployee;
+        try {
+            savedEmployee = transactionTemplate.execute(status -> {
+                Employee saved = employeeRepository.saveAndFlush(employee);
+                employeeOutbox.record(EmployeeChangedEvent.created(saved));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isDuplicateEmail(e)) {
+                throw new ResourceNotFoundException("Employee already exist with given email" + employee.getEmail());
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(savedEmployee));
+        return savedEmployee;
+    }
 
-        Optional<Employee> savedEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if (savedEmployee.isPresent()) {
-            throw new ResourceNotFoundException("Employee already exist with given email" + employee.getEmail());
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeView> getAllEmployees() {
+        List<EmployeeView> employees = employeeRepository.findAllViews(Pageable.ofSize(MAX_LIST_SIZE + 1));
+        if (employees.size() > MAX_LIST_SIZE) {
+            throw tooManyToList();
         }
-        return employeeRepository.save(employee);
+        return employees;
+    }
+
+    static BadRequestException tooManyToList() {
+        return new BadRequestException("More than " + MAX_LIST_SIZE
+                + " employees: page through /employees/page or stream /employees/stream");
     }
 
     @Override
-    public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+    @Transactional(readOnly = true)
+    public EmployeePage getEmployeesPage(String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long afterId = EmployeeCursor.decode(cursor);
+
+        // Fetch one extra row to know whether another page exists without a count query.
+        List<EmployeeView> rows = employeeRepository.findViewsAfter(afterId, PageRequest.of(0, size + 1));
+        boolean hasMore = rows.size() > size;
+        List<EmployeeView> content = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? EmployeeCursor.encode(content.get(content.size() - 1).id()) : null;
+
+        return EmployeePage.builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
+    public void streamEmployees(Consumer<Employee> consumer) {
+        employeeRepository.streamAll(STREAM_FETCH_SIZE, consumer);
+    }
+
+    // No transaction here: callers waiting on a coalesced lookup must not hold a connection.
+    @Override
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES, key = CacheConfig.ID_KEY, unless = "#result == null")
     public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+        return employeeByIdLoader.findById(id);
     }
 
     @Override
-    public Employee updateEmployee(long id, Employee updatedEmployeeDetails) {
-        Employee employee = employeeRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Employee not exist id: " + id));
+    public Optional<Long> getEmployeeVersion(long id) {
+        return employeeByIdLoader.findVersion(id);
+    }
 
-        employee.setFirstName(updatedEmployeeDetails.getFirstName());
-        employee.setLastName(updatedEmployeeDetails.getLastName());
-        employee.setEmail(updatedEmployeeDetails.getEmail());
+    @Override
+    public String getEmployeesVersion() {
+        return employeeOutbox.version();
+    }
 
-        return employeeRepository.save(employee);
+    @Override
+    @Caching(put = @CachePut(cacheNames = CacheConfig.EMPLOYEES, key = CacheConfig.ID_KEY),
+            evict = @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true))
+    public Employee updateEmployee(long id, Employee updatedEmployeeDetails, Long expectedVersion) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("firstName", updatedEmployeeDetails.getFirstName());
+        changes.put("lastName", updatedEmployeeDetails.getLastName());
+        changes.put("email", updatedEmployeeDetails.getEmail());
+        return updateIfVersion(id, expectedVersion, changes, updatedEmployeeDetails);
     }
 
     @Override
+    @Caching(put = @CachePut(cacheNames = CacheConfig.EMPLOYEES, key = CacheConfig.ID_KEY),
+            evict = @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true))
+    public Employee patchEmployee(long id, Employee changedFields, Long expectedVersion) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (changedFields.getFirstName() != null) {
+            changes.put("firstName", changedFields.getFirstName());
+        }
+        if (changedFields.getLastName() != null) {
+            changes.put("lastName", changedFields.getLastName());
+        }
+        if (changedFields.getEmail() != null) {
+            changes.put("email", changedFields.getEmail());
+        }
+        return updateIfVersion(id, expectedVersion, changes, null);
+    }
+
+    // One conditional UPDATE; the row is only read back when the caller's data plus the
+    // expected version don't already describe the new state.
+    private Employee updateIfVersion(long id, Long expectedVersion, Map<String, Object> changes, Employee fullState) {
+        Employee savedEmployee;
+        try {
+            savedEmployee = transactionTemplate.execute(status -> {
+                if (employeeRepository.updateIfVersion(id, expectedVersion, changes) == 0) {
+                    throw employeeRepository.existsById(id)
+                            ? new PreconditionFailedException("Employee " + id + " is no longer at version " + expectedVersion)
+                            : new ResourceNotFoundException("Employee not exist id: " + id);
+                }
+                Employee updated = fullState != null && expectedVersion != null
+                        ? Employee.builder()
+                                .id(id)
+                                .firstName(fullState.getFirstName())
+                                .lastName(fullState.getLastName())
+                                .email(fullState.getEmail())
+                                .version(expectedVersion + 1)
+                                .build()
+                        : employeeRepository.findById(id)
+                                .orElseThrow(() -> new ResourceNotFoundException("Employee not exist id: " + id));
+                employeeOutbox.record(EmployeeChangedEvent.updated(updated));
+                return updated;
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isDuplicateEmail(e)) {
+                throw new ResourceNotFoundException("Employee already exist with given email" + changes.get("email"));
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(savedEmployee));
+        return savedEmployee;
+    }
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = CacheConfig.ID_KEY),
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_BY_EMAIL, allEntries = true) })
     public void deleteEmployee(long id) {
-        System.out.println("Olaaaa");
-        employeeRepository.deleteById(id);
+        boolean deleted = transactionTemplate.execute(status -> {
+            if (employeeRepository.deleteRowById(id) == 0) {
+                return false;
+            }
+            employeeOutbox.record(EmployeeChangedEvent.deleted(id));
+            return true;
+        });
+        if (deleted) {
+            eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+        }
+    }
+
+    @Override
+    public List<BatchItemResult> saveEmployees(List<Employee> employees) {
+        checkBatchSize(employees);
+        List<BatchItemResult> results = new ArrayList<>(employees.size());
+        Set<String> claimedEmails = new HashSet<>();
+
+        for (int from = 0; from < employees.size(); from += BATCH_CHUNK_SIZE) {
+            int offset = from;
+            List<Employee> chunk = employees.subList(from, Math.min(from + BATCH_CHUNK_SIZE, employees.size()));
+            List<EmployeeChangedEvent> events = new ArrayList<>(chunk.size());
+            results.addAll(inChunkTransaction(claimedEmails, events,
+                    (claimed, exact) -> saveChunk(offset, chunk, claimed, events, exact)));
+            events.forEach(eventPublisher::publishEvent);
+        }
+        return results;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = { CacheConfig.EMPLOYEES, CacheConfig.EMPLOYEES_BY_EMAIL }, allEntries = true)
+    public List<BatchItemResult> updateEmployees(List<Employee> employees) {
+        checkBatchSize(employees);
+        List<BatchItemResult> results = new ArrayList<>(employees.size());
+        Set<String> claimedEmails = new HashSet<>();
+
+        for (int from = 0; from < employees.size(); from += BATCH_CHUNK_SIZE) {
+            int offset = from;
+            List<Employee> chunk = employees.subList(from, Math.min(from + BATCH_CHUNK_SIZE, employees.size()));
+            List<EmployeeChangedEvent> events = new ArrayList<>(chunk.size());
+            results.addAll(inChunkTransaction(claimedEmails, events,
+                    (claimed, exact) -> updateChunk(offset, chunk, claimed, events, exact)));
+            events.forEach(eventPublisher::publishEvent);
+        }
+        return results;
+    }
+
+    @Override
+    @CacheEvict(cacheNames = { CacheConfig.EMPLOYEES, CacheConfig.EMPLOYEES_BY_EMAIL }, allEntries = true)
+    public List<BatchItemResult> deleteEmployees(List<Long> ids) {
+        checkBatchSize(ids);
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+
+        for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+            int offset = from;
+            List<Long> chunk = ids.subList(from, Math.min(from + BATCH_CHUNK_SIZE, ids.size()));
+            List<EmployeeChangedEvent> events = new ArrayList<>(chunk.size());
+            results.addAll(transactionTemplate.execute(status -> deleteChunk(offset, chunk, events)));
+            events.forEach(eventPublisher::publishEvent);
+        }
+        return results;
+    }
+
+    // The email filter lets an email through unchecked when it has never seen it; if it was taken
+    // after all (by another instance, or concurrently), the chunk is redone with an exact check.
+    private List<BatchItemResult> inChunkTransaction(Set<String> claimedEmails, List<EmployeeChangedEvent> events,
+            ChunkWork work) {
+        for (boolean exact = false; ; exact = true) {
+            Set<String> claimed = new HashSet<>(claimedEmails);
+            try {
+                boolean exactCheck = exact;
+                List<BatchItemResult> results = transactionTemplate.execute(status -> work.apply(claimed, exactCheck));
+                claimedEmails.addAll(claimed);
+                return results;
+            } catch (DataIntegrityViolationException e) {
+                if (exact || !ConstraintViolations.isDuplicateEmail(e)) {
+                    throw e;
+                }
+                events.clear();
+            }
+        }
+    }
+
+    private List<String> findExistingEmails(Set<String> emails, boolean exact) {
+        return exact ? employeeRepository.findExistingEmails(emails) : knownEmails.findExisting(emails);
+    }
+
+    private List<BatchItemResult> saveChunk(int offset, List<Employee> chunk, Set<String> claimedEmails,
+            List<EmployeeChangedEvent> events, boolean exact) {
+        Set<String> chunkEmails = chunk.stream()
+                .filter(Objects::nonNull)
+                .map(Employee::getEmail)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> existingEmails = chunkEmails.isEmpty()
+                ? Set.of()
+                : new HashSet<>(findExistingEmails(chunkEmails, exact));
+
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+        List<Employee> accepted = new ArrayList<>(chunk.size());
+        List<Integer> acceptedPositions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Employee employee = chunk.get(i);
+            String invalid = validate(employee);
+            if (invalid != null) {
+                results[i] = result(offset + i, null, Status.INVALID, invalid);
+            } else if (existingEmails.contains(employee.getEmail()) || !claimedEmails.add(employee.getEmail())) {
+                results[i] = result(offset + i, null, Status.DUPLICATE_EMAIL,
+                        "Employee already exist with given email" + employee.getEmail());
+            } else {
+                // Also undoes what a rolled-back attempt assigned, so the employee is persisted as new.
+                employee.setId(0L);
+                employee.setVersion(null);
+                accepted.add(employee);
+                acceptedPositions.add(i);
+            }
+        }
+
+        List<Employee> saved = employeeRepository.saveAll(accepted);
+        for (int i = 0; i < saved.size(); i++) {
+            int position = acceptedPositions.get(i);
+            results[position] = result(offset + position, saved.get(i).getId(), Status.CREATED, null);
+            events.add(EmployeeChangedEvent.created(saved.get(i)));
+        }
+        employeeOutbox.record(events);
+        return List.of(results);
+    }
+
+    private List<BatchItemResult> updateChunk(int offset, List<Employee> chunk, Set<String> claimedEmails,
+            List<EmployeeChangedEvent> events, boolean exact) {
+        Map<Long, Employee> current = employeeRepository.findAllById(chunk.stream()
+                .filter(Objects::nonNull)
+                .map(Employee::getId)
+                .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+
+        Set<String> changedEmails = chunk.stream()
+                .filter(Objects::nonNull)
+                .filter(employee -> current.containsKey(employee.getId()) && employee.getEmail() != null
+                        && !employee.getEmail().equals(current.get(employee.getId()).getEmail()))
+                .map(Employee::getEmail)
+                .collect(Collectors.toSet());
+        Set<String> takenEmails = changedEmails.isEmpty()
+                ? Set.of()
+                : new HashSet<>(findExistingEmails(changedEmails, exact));
+
+        BatchItemResult[] results = new BatchItemResult[chunk.size()];
+        List<Employee> modified = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Employee details = chunk.get(i);
+            String invalid = validate(details);
+            Employee employee = invalid == null ? current.get(details.getId()) : null;
+            if (invalid != null) {
+                results[i] = result(offset + i, null, Status.INVALID, invalid);
+            } else if (employee == null) {
+                results[i] = result(offset + i, details.getId(), Status.NOT_FOUND,
+                        "Employee not exist id: " + details.getId());
+            } else if (!details.getEmail().equals(employee.getEmail())
+                    && (takenEmails.contains(details.getEmail()) || !claimedEmails.add(details.getEmail()))) {
+                results[i] = result(offset + i, details.getId(), Status.DUPLICATE_EMAIL,
+                        "Employee already exist with given email" + details.getEmail());
+            } else {
+                employee.setFirstName(details.getFirstName());
+                employee.setLastName(details.getLastName());
+                employee.setEmail(details.getEmail());
+                modified.add(employee);
+                results[i] = result(offset + i, details.getId(), Status.UPDATED, null);
+                events.add(EmployeeChangedEvent.updated(employee));
+            }
+        }
+
+        // Managed entities: the dirty ones are flushed as one batched UPDATE, before the outbox
+        // rows are written so that those carry the incremented versions.
+        employeeRepository.saveAll(modified);
+        employeeRepository.flush();
+        employeeOutbox.record(events);
+        return List.of(results);
+    }
+
+    private List<BatchItemResult> deleteChunk(int offset, List<Long> chunk, List<EmployeeChangedEvent> events) {
+        Set<Long> existingIds = new HashSet<>(employeeRepository.findExistingIds(chunk));
+        employeeRepository.deleteAllByIdInBatch(existingIds);
+
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Long id = chunk.get(i);
+            if (existingIds.remove(id)) {
+                results.add(result(offset + i, id, Status.DELETED, null));
+                events.add(EmployeeChangedEvent.deleted(id));
+            } else {
+                results.add(result(offset + i, id, Status.NOT_FOUND, "Employee not exist id: " + id));
+            }
+        }
+        employeeOutbox.record(events);
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface ChunkWork {
+
+        List<BatchItemResult> apply(Set<String> claimedEmails, boolean exactEmailCheck);
+    }
+
+    static String validate(Employee employee) {
+        if (employee == null) {
+            return "Employee is required";
+        }
+        if (employee.getFirstName() == null || employee.getLastName() == null || employee.getEmail() == null) {
+            return "firstName, lastName and email are required";
+        }
+        return null;
+    }
+
+    static BatchItemResult result(int index, Long id, Status status, String message) {
+        return BatchItemResult.builder()
+                .index(index)
+                .id(id)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    static void checkBatchSize(List<?> items) {
+        if (items == null || items.isEmpty() || items.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        }
     }
 
 }
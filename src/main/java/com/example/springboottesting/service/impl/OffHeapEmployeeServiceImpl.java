@@ -0,0 +1,338 @@
+package com.example.springboottesting.service.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.dto.BatchItemResult.Status;
+import com.example.springboottesting.dto.EmployeePage;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.exception.BadRequestException;
+import com.example.springboottesting.exception.PreconditionFailedException;
+import com.example.springboottesting.exception.ResourceNotFoundException;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.offheap.OffHeapEmployeeStore;
+import com.example.springboottesting.service.EmployeeService;
+import com.example.springboottesting.tenant.TenantContext;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * {@link EmployeeService} for the {@code offheap} profile: employees live in an
+ * {@link OffHeapEmployeeStore} persisted under {@code app.offheap.directory} instead of the
+ * database. Change events are still published in-process, but nothing is written to the
+ * database outbox. Each tenant has a store of its own, created by its first insert; the default
+ * tenant's is the directory itself, other tenants' live under {@code tenants/<tenant>} in it.
+ */
+@Service
+@Profile("offheap")
+@Timed(EmployeeServiceImpl.TIMER)
+public class OffHeapEmployeeServiceImpl implements EmployeeService {
+
+    private final Map<String, OffHeapEmployeeStore> stores = new ConcurrentHashMap<>();
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private Path directory;
+
+    private int logSegmentSize;
+
+    private long snapshotInterval;
+
+    public OffHeapEmployeeServiceImpl(ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+            @Value("${app.offheap.directory:data/employees}") Path directory,
+            @Value("${app.offheap.log-segment-size:67108864}") int logSegmentSize,
+            @Value("${app.offheap.snapshot-interval:1000000}") long snapshotInterval) throws IOException {
+        this.eventPublisher = eventPublisher;
+        this.directory = directory;
+        this.logSegmentSize = logSegmentSize;
+        this.snapshotInterval = snapshotInterval;
+        stores.put(TenantContext.DEFAULT, OffHeapEmployeeStore.open(directory, logSegmentSize, snapshotInterval));
+        Gauge.builder("employee.offheap.size", stores, open -> sum(open, OffHeapEmployeeStore::size))
+                .description("Employees held by the off-heap stores")
+                .register(meterRegistry);
+        Gauge.builder("employee.offheap.memory", stores, open -> sum(open, OffHeapEmployeeStore::memoryBytes))
+                .description("Bytes used by the off-heap stores' records and indexes")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (OffHeapEmployeeStore store : stores.values()) {
+            store.close();
+        }
+    }
+
+    // Only inserts create a store; everything else runs against an existing one, if any, so a
+    // tenant id that never wrote costs no directory or mapped log segment.
+    private OffHeapEmployeeStore store() {
+        return stores.computeIfAbsent(TenantContext.current(), tenant -> {
+            try {
+                return OffHeapEmployeeStore.open(tenantDirectory(tenant), logSegmentSize, snapshotInterval);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private OffHeapEmployeeStore existingStore() {
+        String tenant = TenantContext.current();
+        OffHeapEmployeeStore store = stores.get(tenant);
+        if (store != null || !Files.isDirectory(tenantDirectory(tenant))) {
+            return store;
+        }
+        // Written to before a restart.
+        return store();
+    }
+
+    private Path tenantDirectory(String tenant) {
+        return directory.resolve("tenants").resolve(tenant);
+    }
+
+    private static double sum(Map<String, OffHeapEmployeeStore> stores,
+            ToDoubleFunction<OffHeapEmployeeStore> metric) {
+        return stores.values().stream().mapToDouble(metric).sum();
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee) {
+        String invalid = EmployeeServiceImpl.validate(employee);
+        if (invalid != null) {
+            throw new BadRequestException(invalid);
+        }
+        Employee savedEmployee;
+        try {
+            savedEmployee = store().insert(employee);
+        } catch (DuplicateKeyException e) {
+            throw new ResourceNotFoundException("Employee already exist with given email" + employee.getEmail());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.created(savedEmployee));
+        return savedEmployee;
+    }
+
+    @Override
+    public List<EmployeeView> getAllEmployees() {
+        OffHeapEmployeeStore store = existingStore();
+        if (store == null) {
+            return List.of();
+        }
+        if (store.size() > EmployeeServiceImpl.MAX_LIST_SIZE) {
+            throw EmployeeServiceImpl.tooManyToList();
+        }
+        List<EmployeeView> employees = new ArrayList<>(store.size());
+        store.forEach(EmployeeServiceImpl.STREAM_FETCH_SIZE, employee -> employees.add(EmployeeView.of(employee)));
+        return employees;
+    }
+
+    @Override
+    public EmployeePage getEmployeesPage(String cursor, int size) {
+        if (size < 1 || size > EmployeeServiceImpl.MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + EmployeeServiceImpl.MAX_PAGE_SIZE);
+        }
+        long after = EmployeeCursor.decode(cursor);
+        OffHeapEmployeeStore store = existingStore();
+        List<Employee> rows = store == null ? List.of() : store.findAfter(after, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<EmployeeView> content = (hasMore ? rows.subList(0, size) : rows).stream()
+                .map(EmployeeView::of)
+                .toList();
+        String nextCursor = hasMore ? EmployeeCursor.encode(content.get(content.size() - 1).id()) : null;
+
+        return EmployeePage.builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    public void streamEmployees(Consumer<Employee> consumer) {
+        OffHeapEmployeeStore store = existingStore();
+        if (store != null) {
+            store.forEach(EmployeeServiceImpl.STREAM_FETCH_SIZE, consumer);
+        }
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeById(Long id) {
+        OffHeapEmployeeStore store = existingStore();
+        return store == null ? Optional.empty() : Optional.ofNullable(store.findById(id));
+    }
+
+    @Override
+    public Optional<Long> getEmployeeVersion(long id) {
+        OffHeapEmployeeStore store = existingStore();
+        return store == null ? Optional.empty() : Optional.ofNullable(store.findVersion(id));
+    }
+
+    @Override
+    public String getEmployeesVersion() {
+        OffHeapEmployeeStore store = existingStore();
+        return store == null ? "0" : Long.toString(store.lastSequence());
+    }
+
+    @Override
+    public Employee updateEmployee(long id, Employee updatedEmployeeDetails, Long expectedVersion) {
+        String invalid = EmployeeServiceImpl.validate(updatedEmployeeDetails);
+        if (invalid != null) {
+            throw new BadRequestException(invalid);
+        }
+        return update(id, expectedVersion, updatedEmployeeDetails);
+    }
+
+    @Override
+    public Employee patchEmployee(long id, Employee changedFields, Long expectedVersion) {
+        return update(id, expectedVersion, changedFields);
+    }
+
+    @Override
+    public void deleteEmployee(long id) {
+        boolean deleted;
+        try {
+            OffHeapEmployeeStore store = existingStore();
+            deleted = store != null && store.delete(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (deleted) {
+            eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+        }
+    }
+
+    // One log write for the whole batch.
+    @Override
+    public List<BatchItemResult> saveEmployees(List<Employee> employees) {
+        EmployeeServiceImpl.checkBatchSize(employees);
+        BatchItemResult[] results = new BatchItemResult[employees.size()];
+        List<Employee> accepted = new ArrayList<>(employees.size());
+        List<Integer> acceptedPositions = new ArrayList<>(employees.size());
+        for (int i = 0; i < employees.size(); i++) {
+            String invalid = EmployeeServiceImpl.validate(employees.get(i));
+            if (invalid != null) {
+                results[i] = EmployeeServiceImpl.result(i, null, Status.INVALID, invalid);
+            } else {
+                accepted.add(employees.get(i));
+                acceptedPositions.add(i);
+            }
+        }
+
+        List<Employee> saved;
+        try {
+            saved = accepted.isEmpty() ? List.of() : store().insertAll(accepted);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (int i = 0; i < saved.size(); i++) {
+            int position = acceptedPositions.get(i);
+            Employee employee = saved.get(i);
+            if (employee == null) {
+                results[position] = EmployeeServiceImpl.result(position, null, Status.DUPLICATE_EMAIL,
+                        "Employee already exist with given email" + accepted.get(i).getEmail());
+            } else {
+                results[position] = EmployeeServiceImpl.result(position, employee.getId(), Status.CREATED, null);
+                eventPublisher.publishEvent(EmployeeChangedEvent.created(employee));
+            }
+        }
+        return List.of(results);
+    }
+
+    @Override
+    public List<BatchItemResult> updateEmployees(List<Employee> employees) {
+        EmployeeServiceImpl.checkBatchSize(employees);
+        List<BatchItemResult> results = new ArrayList<>(employees.size());
+        for (int i = 0; i < employees.size(); i++) {
+            Employee details = employees.get(i);
+            String invalid = EmployeeServiceImpl.validate(details);
+            if (invalid != null) {
+                results.add(EmployeeServiceImpl.result(i, null, Status.INVALID, invalid));
+                continue;
+            }
+            OffHeapEmployeeStore store = existingStore();
+            Employee updated;
+            try {
+                updated = store == null ? null : store.update(details.getId(), null, details.getFirstName(), details.getLastName(),
+                        details.getEmail());
+            } catch (DuplicateKeyException e) {
+                results.add(EmployeeServiceImpl.result(i, details.getId(), Status.DUPLICATE_EMAIL,
+                        "Employee already exist with given email" + details.getEmail()));
+                continue;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (updated == null) {
+                results.add(EmployeeServiceImpl.result(i, details.getId(), Status.NOT_FOUND,
+                        "Employee not exist id: " + details.getId()));
+            } else {
+                results.add(EmployeeServiceImpl.result(i, details.getId(), Status.UPDATED, null));
+                eventPublisher.publishEvent(EmployeeChangedEvent.updated(updated));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<BatchItemResult> deleteEmployees(List<Long> ids) {
+        EmployeeServiceImpl.checkBatchSize(ids);
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            boolean deleted;
+            try {
+                OffHeapEmployeeStore store = existingStore();
+                deleted = id != null && store != null && store.delete(id);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (deleted) {
+                results.add(EmployeeServiceImpl.result(i, id, Status.DELETED, null));
+                eventPublisher.publishEvent(EmployeeChangedEvent.deleted(id));
+            } else {
+                results.add(EmployeeServiceImpl.result(i, id, Status.NOT_FOUND, "Employee not exist id: " + id));
+            }
+        }
+        return results;
+    }
+
+    private Employee update(long id, Long expectedVersion, Employee changes) {
+        OffHeapEmployeeStore store = existingStore();
+        Employee savedEmployee;
+        try {
+            savedEmployee = store == null ? null : store.update(id, expectedVersion, changes.getFirstName(), changes.getLastName(),
+                    changes.getEmail());
+        } catch (OptimisticLockingFailureException e) {
+            throw new PreconditionFailedException("Employee " + id + " is no longer at version " + expectedVersion);
+        } catch (DuplicateKeyException e) {
+            throw new ResourceNotFoundException("Employee already exist with given email" + changes.getEmail());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (savedEmployee == null) {
+            throw new ResourceNotFoundException("Employee not exist id: " + id);
+        }
+        eventPublisher.publishEvent(EmployeeChangedEvent.updated(savedEmployee));
+        return savedEmployee;
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.springboottesting.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.example.springboottesting.dto.EmployeePage;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.exception.BadRequestException;
+import com.example.springboottesting.exception.ResourceNotFoundException;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.service.ReactiveEmployeeService;
+import com.example.springboottesting.tenant.ReactiveTenantFilter;
+import com.example.springboottesting.tenant.TenantContext;
+
+import io.r2dbc.spi.Readable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// The tenant comes from the Reactor context (ReactiveTenantFilter) and is bound into every statement.
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    static final int FETCH_SIZE = 500;
+
+    private static final String SELECT = "select id, first_name, last_name, email, version from employees"
+            + " where tenant_id = :tenant";
+
+    private DatabaseClient databaseClient;
+
+    // Each insert takes a whole value from the pooled sequence JPA allocates from, so ids never collide.
+    private String nextId;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private TransactionalOperator transactionalOperator;
+
+    public ReactiveEmployeeServiceImpl(DatabaseClient databaseClient, ApplicationEventPublisher eventPublisher,
+            TransactionalOperator transactionalOperator) {
+        this.databaseClient = databaseClient;
+        this.eventPublisher = eventPublisher;
+        this.transactionalOperator = transactionalOperator;
+        this.nextId = databaseClient.getConnectionFactory().getMetadata().getName().contains("PostgreSQL")
+                ? "nextval('employees_seq')"
+                : "next value for employees_seq";
+    }
+
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee) {
+        return ReactiveTenantFilter.current().flatMap(tenant -> insert(tenant, employee)
+                .map(saved -> event(tenant, () -> EmployeeChangedEvent.created(saved)))
+                .flatMap(this::record)
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> duplicateEmail(e, employee))
+                .doOnNext(eventPublisher::publishEvent)
+                .map(EmployeeChangedEvent::getEmployee));
+    }
+
+    @Override
+    public Flux<Employee> getAllEmployees() {
+        // Rows are pulled from the driver as the subscriber requests them.
+        return ReactiveTenantFilter.current().flatMapMany(tenant -> databaseClient.sql(SELECT + " order by id")
+                .bind("tenant", tenant)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveEmployeeServiceImpl::toEmployee)
+                .all());
+    }
+
+    @Override
+    public Mono<EmployeePage> getEmployeesPage(String cursor, int size) {
+        if (size < 1 || size > EmployeeServiceImpl.MAX_PAGE_SIZE) {
+            return Mono.error(new BadRequestException("Page size must be between 1 and "
+                    + EmployeeServiceImpl.MAX_PAGE_SIZE));
+        }
+        return Mono.fromCallable(() -> EmployeeCursor.decode(cursor))
+                .zipWith(ReactiveTenantFilter.current())
+                .flatMap(afterIdAndTenant -> databaseClient.sql(SELECT + " and id > :afterId order by id limit :limit")
+                        .bind("tenant", afterIdAndTenant.getT2())
+                        .bind("afterId", afterIdAndTenant.getT1())
+                        .bind("limit", size + 1)
+                        .map(row -> EmployeeView.of(toEmployee(row)))
+                        .all()
+                        .collectList())
+                .map(rows -> {
+                    boolean hasMore = rows.size() > size;
+                    var content = hasMore ? rows.subList(0, size) : rows;
+                    return EmployeePage.builder()
+                            .content(content)
+                            .size(content.size())
+                            .nextCursor(hasMore ? EmployeeCursor.encode(content.get(size - 1).id()) : null)
+                            .build();
+                });
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(long id) {
+        return ReactiveTenantFilter.current().flatMap(tenant -> findById(tenant, id));
+    }
+
+    private Mono<Employee> findById(String tenant, long id) {
+        return databaseClient.sql(SELECT + " and id = :id")
+                .bind("tenant", tenant)
+                .bind("id", id)
+                .map(ReactiveEmployeeServiceImpl::toEmployee)
+                .one();
+    }
+
+    @Override
+    public Mono<Employee> updateEmployee(long id, Employee updatedEmployeeDetails) {
+        return ReactiveTenantFilter.current().flatMap(tenant -> update(tenant, id, updatedEmployeeDetails));
+    }
+
+    private Mono<Employee> update(String tenant, long id, Employee updatedEmployeeDetails) {
+        GenericExecuteSpec update = databaseClient
+                .sql("update employees set first_name = :firstName, last_name = :lastName, email = :email, version = version + 1"
+                        + " where id = :id and tenant_id = :tenant")
+                .bind("id", id)
+                .bind("tenant", tenant);
+        // Read back in the transaction for the new version, which the outbox row carries.
+        return bindDetails(update, updatedEmployeeDetails)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(rows -> rows == 0
+                        ? Mono.error(new ResourceNotFoundException("Employee not exist id: " + id))
+                        : findById(tenant, id))
+                .map(updated -> event(tenant, () -> EmployeeChangedEvent.updated(updated)))
+                .flatMap(this::record)
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> duplicateEmail(e, updatedEmployeeDetails))
+                .doOnNext(eventPublisher::publishEvent)
+                .map(EmployeeChangedEvent::getEmployee);
+    }
+
+    @Override
+    public Mono<Void> deleteEmployee(long id) {
+        return ReactiveTenantFilter.current().flatMap(tenant -> databaseClient
+                .sql("delete from employees where id = :id and tenant_id = :tenant")
+                .bind("id", id)
+                .bind("tenant", tenant)
+                .fetch()
+                .rowsUpdated()
+                .filter(rows -> rows > 0)
+                .map(rows -> event(tenant, () -> EmployeeChangedEvent.deleted(id)))
+                .flatMap(this::record)
+                .as(transactionalOperator::transactional)
+                .doOnNext(eventPublisher::publishEvent))
+                .then();
+    }
+
+    private Mono<Employee> insert(String tenant, Employee employee) {
+        GenericExecuteSpec insert = databaseClient.sql("insert into employees (id, tenant_id, first_name, last_name, email)"
+                + " values (" + nextId + ", :tenant, :firstName, :lastName, :email)")
+                .bind("tenant", tenant);
+        return bindDetails(insert, employee)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    employee.setId(id);
+                    employee.setVersion(0L);
+                    employee.setTenantId(tenant);
+                    return employee;
+                });
+    }
+
+    // The events take their tenant from the thread, which is not the one the request started on.
+    private static EmployeeChangedEvent event(String tenant, Supplier<EmployeeChangedEvent> event) {
+        return TenantContext.call(tenant, event);
+    }
+
+    // The reactive counterpart of EmployeeOutbox.record, in the transaction making the change.
+    private Mono<EmployeeChangedEvent> record(EmployeeChangedEvent event) {
+        Employee employee = event.getEmployee();
+        GenericExecuteSpec insert = databaseClient.sql("insert into employee_outbox"
+                + " (type, employee_id, first_name, last_name, email, version, created_at, tenant_id)"
+                + " values (:type, :id, :firstName, :lastName, :email, :version, :createdAt, :tenant)")
+                .bind("type", event.getType().name())
+                .bind("id", event.getId())
+                .bind("createdAt", LocalDateTime.now())
+                .bind("tenant", event.getTenant());
+        insert = employee != null
+                ? bindDetails(insert, employee)
+                : insert.bindNull("firstName", String.class).bindNull("lastName", String.class)
+                        .bindNull("email", String.class);
+        insert = employee != null && employee.getVersion() != null
+                ? insert.bind("version", employee.getVersion())
+                : insert.bindNull("version", Long.class);
+        return insert.fetch().rowsUpdated().thenReturn(event);
+    }
+
+    private static Throwable duplicateEmail(DataIntegrityViolationException e, Employee employee) {
+        return ConstraintViolations.isDuplicateEmail(e)
+                ? new ResourceNotFoundException("Employee already exist with given email" + employee.getEmail())
+                : e;
+    }
+
+    private static GenericExecuteSpec bindDetails(GenericExecuteSpec spec, Employee employee) {
+        return bindText(bindText(bindText(spec, "firstName", employee.getFirstName()),
+                "lastName", employee.getLastName()),
+                "email", employee.getEmail());
+    }
+
+    private static GenericExecuteSpec bindText(GenericExecuteSpec spec, String name, String value) {
+        return value == null ? spec.bindNull(name, String.class) : spec.bind(name, value);
+    }
+
+    private static Employee toEmployee(Readable row) {
+        return Employee.builder()
+                .id(row.get("id", Long.class))
+                .firstName(row.get("first_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .email(row.get("email", String.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.springboottesting.tenant;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive counterpart of {@link TenantFilter}: resolves the tenant of an /employees request
+ * from the {@value TenantContext#HEADER} header into the Reactor context, where {@link #current()}
+ * reads it, and answers 400 for a malformed id.
+ */
+public class ReactiveTenantFilter implements WebFilter, Ordered {
+
+    private static final String CONTEXT_KEY = ReactiveTenantFilter.class.getName();
+
+    public static Mono<String> current() {
+        return Mono.deferContextual(context -> Mono.just(context.getOrDefault(CONTEXT_KEY, TenantContext.DEFAULT)));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!path.equals("/employees") && !path.startsWith("/employees/")) {
+            return chain.filter(exchange);
+        }
+        String header = exchange.getRequest().getHeaders().getFirst(TenantContext.HEADER);
+        String tenant = header == null || header.isEmpty() ? TenantContext.DEFAULT : header;
+        if (!TenantContext.isValid(tenant)) {
+            exchange.getResponse().setStatusCode(HttpStatus.BAD_REQUEST);
+            return exchange.getResponse().setComplete();
+        }
+        return chain.filter(exchange).contextWrite(context -> context.put(CONTEXT_KEY, tenant));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 5;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.springboottesting.tenant;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * The tenant the current thread works for. Set per request by {@link TenantFilter}; work handed
+ * to other threads (imports, exports, change feeds, ...) captures {@link #current()} first and
+ * runs under it with {@link #run} or {@link #call}. Without a tenant, {@link #DEFAULT} applies,
+ * which is also the tenant of every row that predates tenancy.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT = "default";
+
+    public static final String HEADER = "X-Tenant-Id";
+
+    // Tenant ids also name directories and cache keys, so they are kept to a safe alphabet.
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private static final ThreadLocal<String> TENANT = new ThreadLocal<>();
+
+    // Set only by shard-wide maintenance (the outbox relay); overrides the tenant's shard.
+    private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = TENANT.get();
+        return tenant != null ? tenant : DEFAULT;
+    }
+
+    public static boolean isValid(String tenant) {
+        return tenant != null && VALID_ID.matcher(tenant).matches();
+    }
+
+    public static void run(String tenant, Runnable action) {
+        String previous = set(tenant);
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static <T> T call(String tenant, Supplier<T> action) {
+        String previous = set(tenant);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Runs {@code action} against one shard regardless of the current tenant; a null shard leaves
+     * the routing to the tenant.
+     */
+    public static <T> T callOnShard(String shard, Supplier<T> action) {
+        if (shard == null) {
+            return action.get();
+        }
+        String previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                SHARD.set(previous);
+            } else {
+                SHARD.remove();
+            }
+        }
+    }
+
+    public static String shard() {
+        return SHARD.get();
+    }
+
+    /**
+     * {@code key} qualified by the current tenant, for caches shared by all tenants.
+     */
+    public static TenantKey key(Object key) {
+        return new TenantKey(current(), key);
+    }
+
+    static String set(String tenant) {
+        if (!isValid(tenant)) {
+            throw new IllegalArgumentException("Invalid tenant id: " + tenant);
+        }
+        String previous = TENANT.get();
+        TENANT.set(tenant);
+        return previous;
+    }
+
+    static void restore(String previous) {
+        if (previous != null) {
+            TENANT.set(previous);
+        } else {
+            TENANT.remove();
+        }
+    }
+
+    public record TenantKey(String tenant, Object key) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.springboottesting.tenant;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Resolves the tenant of a request from the {@value TenantContext#HEADER} header, falling back to
+ * {@link TenantContext#DEFAULT}, and answers 400 for a malformed id.
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(TenantContext.HEADER);
+        String tenant = header == null || header.isEmpty() ? TenantContext.DEFAULT : header;
+        if (!TenantContext.isValid(tenant)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + TenantContext.HEADER);
+            return;
+        }
+        String previous = TenantContext.set(tenant);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.springboottesting.tenant;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Hands the current tenant to Hibernate, which fills in and filters on the {@code @TenantId}
+ * column of every session opened on this thread. Registered by class name through
+ * {@code hibernate.tenant_identifier_resolver}, so test slices pick it up too.
+ */
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+}
@@ -0,0 +1,22 @@
+-- Matches the schema Hibernate generated for Employee. Databases created by ddl-auto=update
+-- (baselined below V1, see spring.flyway.baseline-version) already have the table, with
+-- IDENTITY ids and no unique email constraint: they get the version column and the constraint
+-- here, and V1_1 (per vendor) moves the new id sequence past their ids. Adding the constraint
+-- fails if such a database holds duplicate emails; those have to be resolved by hand first.
+create sequence if not exists employees_seq start with 1 increment by 50;
+
+create table if not exists employees (
+    id bigint not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+alter table employees add column if not exists version bigint default 0 not null;
+
+alter table employees drop constraint if exists uk_employees_email;
+alter table employees add constraint uk_employees_email unique (email);
+
+create index if not exists idx_employees_name on employees (last_name, first_name);
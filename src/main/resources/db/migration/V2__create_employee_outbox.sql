@@ -0,0 +1,17 @@
+-- Change events written in the same transaction as the employee rows they describe. The relay
+-- numbers them (position) in the order it publishes them; unrelayed rows have no position yet.
+create table if not exists employee_outbox (
+    id bigint generated by default as identity,
+    type varchar(16) not null,
+    employee_id bigint not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    email varchar(255),
+    version bigint,
+    created_at timestamp not null,
+    position bigint,
+    primary key (id)
+);
+
+-- Serves both the relay (position is null, by id) and the catch-up reads (position > ?).
+create index if not exists idx_employee_outbox_position on employee_outbox (position, id);
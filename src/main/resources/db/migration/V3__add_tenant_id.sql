@@ -0,0 +1,17 @@
+-- Every row belongs to a tenant; rows written before tenancy belong to 'default'. Emails are
+-- unique per tenant, and the indexes lead with tenant_id so a tenant's queries only touch its
+-- own part of them.
+alter table employees add column if not exists tenant_id varchar(64) default 'default' not null;
+
+alter table employees drop constraint if exists uk_employees_email;
+alter table employees add constraint uk_employees_email unique (tenant_id, email);
+
+drop index if exists idx_employees_name;
+create index if not exists idx_employees_name on employees (tenant_id, last_name, first_name);
+create index if not exists idx_employees_tenant on employees (tenant_id, id);
+
+alter table employee_outbox add column if not exists tenant_id varchar(64) default 'default' not null;
+
+-- Catch-up reads and the collection version (max(id), max(position)) of one tenant.
+create index if not exists idx_employee_outbox_tenant_position on employee_outbox (tenant_id, position);
+create index if not exists idx_employee_outbox_tenant_id on employee_outbox (tenant_id, id);
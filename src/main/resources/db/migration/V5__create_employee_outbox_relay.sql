@@ -0,0 +1,10 @@
+-- The last position handed out by the relay. The relay locks this row while it numbers a batch,
+-- so instances relaying the same database take turns and each continues where the last one ended.
+create table if not exists employee_outbox_relay (
+    id int not null,
+    position bigint not null,
+    primary key (id)
+);
+
+insert into employee_outbox_relay (id, position)
+select 1, coalesce(max(position), 0) from employee_outbox;
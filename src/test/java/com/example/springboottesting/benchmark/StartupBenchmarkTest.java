@@ -0,0 +1,43 @@
+package com.example.springboottesting.benchmark;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {
+        "app.startup-benchmark.enabled=true",
+        "app.startup-benchmark.warmup=2",
+        "app.startup-benchmark.iterations=10" })
+@ActiveProfiles("test")
+public class StartupBenchmarkTest {
+
+    @Autowired
+    private StartupBenchmark startupBenchmark;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void givenRunningApplication_whenBenchmarkRuns_thenReportLatencyPerQuery() {
+
+        List<StartupBenchmark.Result> results = startupBenchmark.run();
+
+        assertThat(results).extracting(StartupBenchmark.Result::query)
+                .containsExactly("round-trip", "find-by-id", "first-page");
+        assertThat(results).allSatisfy(result -> {
+            assertThat(result.samples()).isEqualTo(10);
+            assertThat(result.p50()).isPositive().isLessThanOrEqualTo(result.p99());
+            assertThat(result.p99()).isLessThanOrEqualTo(result.max());
+        });
+        // Once at startup and once above.
+        assertThat(meterRegistry.get(StartupBenchmark.TIMER).tag("query", "find-by-id").timer().count())
+                .isEqualTo(20);
+    }
+}
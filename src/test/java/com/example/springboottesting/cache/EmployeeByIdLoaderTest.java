@@ -0,0 +1,96 @@
+package com.example.springboottesting.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import com.example.springboottesting.config.CacheConfig;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.tenant.TenantContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeByIdLoaderTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    private MeterRegistry meterRegistry;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private EmployeeByIdLoader employeeByIdLoader;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new ConcurrentMapCacheManager(CacheConfig.EMPLOYEES, CacheConfig.EMPLOYEES_MISSING);
+        employeeByIdLoader = new EmployeeByIdLoader(employeeRepository, cacheManager, meterRegistry);
+    }
+
+    @Test
+    public void givenMissingId_whenLookedUpTwice_thenSecondIsAnsweredFromNegativeCache() {
+        given(employeeRepository.findById(7L)).willReturn(Optional.empty());
+
+        assertThat(employeeByIdLoader.findById(7L)).isEmpty();
+        assertThat(employeeByIdLoader.findById(7L)).isEmpty();
+
+        verify(employeeRepository, times(1)).findById(7L);
+        assertThat(meterRegistry.get(EmployeeByIdLoader.LOOKUPS).tag("result", "known_missing").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void givenRememberedMissingId_whenEmployeeCreated_thenLookupQueriesAgain() {
+        Employee employee = Employee.builder()
+                .id(7L)
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email("lucas@hotmail.com").build();
+        given(employeeRepository.findById(7L)).willReturn(Optional.empty(), Optional.of(employee));
+        employeeByIdLoader.findById(7L);
+
+        employeeByIdLoader.onEmployeeChanged(EmployeeChangedEvent.created(employee));
+
+        assertThat(employeeByIdLoader.findById(7L)).contains(employee);
+    }
+
+    @Test
+    public void givenCachedEmployee_whenFindVersion_thenAnswerFromCacheElseQueryVersionOnly() {
+        cacheManager.getCache(CacheConfig.EMPLOYEES).put(TenantContext.key(1L), Employee.builder().id(1L).version(4L).build());
+        given(employeeRepository.findVersionById(2L)).willReturn(Optional.of(9L));
+
+        assertThat(employeeByIdLoader.findVersion(1L)).contains(4L);
+        assertThat(employeeByIdLoader.findVersion(2L)).contains(9L);
+
+        verify(employeeRepository, never()).findVersionById(1L);
+        verify(employeeRepository, never()).findById(2L);
+    }
+
+    @Test
+    public void givenExistingEmployee_whenLookedUp_thenNotRememberedAsMissing() {
+        Employee employee = Employee.builder().id(1L).build();
+        given(employeeRepository.findById(1L)).willReturn(Optional.of(employee));
+
+        employeeByIdLoader.findById(1L);
+        employeeByIdLoader.findById(1L);
+
+        verify(employeeRepository, times(2)).findById(1L);
+        assertThat(meterRegistry.get("employee.lookups.coalescing.ratio").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.springboottesting.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.example.springboottesting.datasource.TenantRoutingDataSource;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.tenant.TenantContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class KnownEmailsTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private ObjectProvider<TenantRoutingDataSource> tenantRoutingDataSource;
+
+    private MeterRegistry meterRegistry;
+
+    private KnownEmails knownEmails;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        knownEmails = new KnownEmails(employeeRepository, tenantRoutingDataSource, meterRegistry, true, 0.01,
+                Duration.ofHours(1));
+    }
+
+    @Test
+    public void givenFilterNotLoaded_whenFindExisting_thenEveryEmailIsQueried() {
+        given(employeeRepository.findExistingEmails(List.of("lucas@hotmail.com")))
+                .willReturn(List.of("lucas@hotmail.com"));
+
+        assertThat(knownEmails.findExisting(List.of("lucas@hotmail.com"))).containsExactly("lucas@hotmail.com");
+        assertThat(meterRegistry.get(KnownEmails.CHECKS).tag("result", "unfiltered").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void givenLoadedFilter_whenFindExisting_thenOnlyPossibleHitsAreQueried() {
+        givenRows("default/lucas@hotmail.com", "acme/gabriela@hotmail.com");
+        knownEmails.rebuild();
+        given(employeeRepository.findExistingEmails(List.of("lucas@hotmail.com")))
+                .willReturn(List.of("lucas@hotmail.com"));
+
+        List<String> existing = knownEmails.findExisting(List.of("lucas@hotmail.com", "gabriela@hotmail.com"));
+
+        assertThat(existing).containsExactly("lucas@hotmail.com");
+        assertThat(meterRegistry.get(KnownEmails.CHECKS).tag("result", "absent").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(KnownEmails.CHECKS).tag("result", "possible").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenOnlyNewEmails_whenFindExisting_thenNoQuery() {
+        givenRows();
+        knownEmails.rebuild();
+
+        assertThat(knownEmails.findExisting(List.of("new@hotmail.com"))).isEmpty();
+
+        verify(employeeRepository, never()).findExistingEmails(any());
+        assertThat(meterRegistry.get("employee.email.filter.queries.saved").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenLoadedFilter_whenEmployeeCreatedOrUpdated_thenItsEmailIsQueried() {
+        givenRows();
+        knownEmails.rebuild();
+        knownEmails.onEmployeeChanged(EmployeeChangedEvent.created(employee(1L, "lucas@hotmail.com")));
+        knownEmails.onEmployeeChanged(EmployeeChangedEvent.updated(employee(2L, "gabriela@hotmail.com")));
+        given(employeeRepository.findExistingEmails(List.of("lucas@hotmail.com", "gabriela@hotmail.com")))
+                .willReturn(List.of("lucas@hotmail.com", "gabriela@hotmail.com"));
+
+        assertThat(knownEmails.findExisting(List.of("lucas@hotmail.com", "gabriela@hotmail.com")))
+                .containsExactly("lucas@hotmail.com", "gabriela@hotmail.com");
+        assertThat(TenantContext.call("acme", () -> knownEmails.findExisting(List.of("lucas@hotmail.com"))))
+                .isEmpty();
+    }
+
+    @Test
+    public void givenPossibleHitsThatAreFree_whenFindExisting_thenCountedAsFalsePositives() {
+        givenRows("default/lucas@hotmail.com");
+        knownEmails.rebuild();
+        given(employeeRepository.findExistingEmails(List.of("lucas@hotmail.com"))).willReturn(List.of());
+
+        knownEmails.findExisting(List.of("lucas@hotmail.com"));
+
+        assertThat(meterRegistry.get("employee.email.filter.false_positives").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("employee.email.filter.false_positive.ratio").gauge().value()).isEqualTo(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenRows(String... tenantAndEmail) {
+        willAnswer(invocation -> {
+            BiConsumer<String, String> action = invocation.getArgument(1);
+            for (String row : tenantAndEmail) {
+                String[] parts = row.split("/", 2);
+                action.accept(parts[0], parts[1]);
+            }
+            return null;
+        }).given(employeeRepository).streamEmails(anyInt(), any(BiConsumer.class));
+    }
+
+    private static Employee employee(long id, String email) {
+        return Employee.builder()
+                .id(id)
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email(email).build();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.springboottesting.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class ScalableBloomFilterTest {
+
+    @Test
+    public void givenFarMoreKeysThanExpected_whenFilled_thenGrowsAndMissesNone() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+
+        IntStream.range(0, 20_000).parallel().forEach(i -> filter.put("user" + i + "@hotmail.com"));
+
+        assertThat(filter.layerCount()).isGreaterThan(1);
+        assertThat(IntStream.range(0, 20_000)).allMatch(i -> filter.mightContain("user" + i + "@hotmail.com"));
+        assertThat(filter.approximateCount()).isBetween(19_000L, 20_000L);
+    }
+
+    @Test
+    public void givenFilledFilter_whenAskedForUnknownKeys_thenFalsePositivesStayNearTheConfiguredRate() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@hotmail.com"));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("other" + i + "@hotmail.com"))
+                .count();
+
+        assertThat(falsePositives).isLessThan(1_000);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.0, 0.01);
+    }
+}
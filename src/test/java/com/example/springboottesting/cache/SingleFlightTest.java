@@ -0,0 +1,79 @@
+package com.example.springboottesting.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void givenConcurrentCallsForOneKey_whenLoadInFlight_thenLoadOnceAndShareResult() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger shared = new AtomicInteger();
+
+        Future<String> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "employee-1";
+        }, shared::incrementAndGet));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            followers.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                return "duplicate";
+            }, shared::incrementAndGet)));
+        }
+        while (shared.get() < 7) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("employee-1");
+        for (Future<String> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("employee-1");
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void givenFailedLoad_whenCalledAgain_thenStartNewLoad() {
+        assertThatThrownBy(() -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("database down");
+        }, () -> { })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.execute(1L, () -> "employee-1", () -> { })).isEqualTo("employee-1");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
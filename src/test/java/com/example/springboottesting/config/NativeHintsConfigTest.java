@@ -0,0 +1,23 @@
+package com.example.springboottesting.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import com.example.springboottesting.dto.EmployeeView;
+
+public class NativeHintsConfigTest {
+
+    @Test
+    public void givenRegistrar_whenRegisterHints_thenEmployeeViewConstructorIsReflective() {
+        RuntimeHints hints = new RuntimeHints();
+
+        new NativeHintsConfig.EmployeeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        assertThat(RuntimeHintsPredicates.reflection().onType(EmployeeView.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+    }
+}
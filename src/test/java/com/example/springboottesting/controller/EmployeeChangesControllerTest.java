@@ -0,0 +1,72 @@
+package com.example.springboottesting.controller;
+
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.example.springboottesting.config.JacksonConfig;
+import com.example.springboottesting.dto.EmployeeChange;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.event.EmployeeChangedEvent.Type;
+import com.example.springboottesting.outbox.EmployeeChangeStream;
+
+@WebMvcTest(EmployeeChangesController.class)
+@Import(JacksonConfig.class)
+public class EmployeeChangesControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private EmployeeChangeStream employeeChangeStream;
+
+  @Test
+  public void givenSince_whenStreamChanges_thenSendChangesAsEventsWithPositionIds() throws Exception {
+    BDDMockito.given(employeeChangeStream.subscribe(ArgumentMatchers.eq(4L), ArgumentMatchers.any()))
+        .willAnswer(invocation -> {
+          EmployeeChangeStream.Listener listener = invocation.getArgument(1);
+          listener.onChanges(List.of(
+              new EmployeeChange(5, Type.CREATED, 1, new EmployeeView(1, "Lucas", "Barbosa", "lucas@hotmail.com", 0L)),
+              new EmployeeChange(6, Type.DELETED, 1, null)));
+          return Mockito.mock(EmployeeChangeStream.Subscription.class);
+        });
+
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/employees/changes").param("since", "4"))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+
+    Assertions.assertThat(result.getResponse().getContentType()).startsWith("text/event-stream");
+    Assertions.assertThat(result.getResponse().getContentAsString())
+        .contains("id:5\ndata:{\"position\":5,\"type\":\"CREATED\",\"id\":1,\"employee\":{\"id\":1,")
+        .contains("id:6\ndata:{\"position\":6,\"type\":\"DELETED\",\"id\":1,\"employee\":null}");
+  }
+
+  @Test
+  public void givenLastEventId_whenStreamChanges_thenResumeAfterIt() throws Exception {
+    BDDMockito.given(employeeChangeStream.subscribe(ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+        .willReturn(Mockito.mock(EmployeeChangeStream.Subscription.class));
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/employees/changes").param("since", "4").header("Last-Event-ID", "9"))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted());
+
+    BDDMockito.verify(employeeChangeStream).subscribe(ArgumentMatchers.eq(9L), ArgumentMatchers.any());
+  }
+
+  @Test
+  public void givenNegativeSince_whenStreamChanges_thenReturnBadRequest() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/employees/changes").param("since", "-1"))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+}
@@ -3,7 +3,9 @@ package com.example.springboottesting.controller;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import org.assertj.core.api.Assertions;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -12,19 +14,29 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import com.example.springboottesting.config.JacksonConfig;
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.dto.EmployeePage;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.exception.PreconditionFailedException;
 import com.example.springboottesting.exception.ResourceNotFoundException;
 import com.example.springboottesting.model.Employee;
 import com.example.springboottesting.service.EmployeeService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 
-@WebMvcTest
+@WebMvcTest(EmployeeController.class)
+@Import(JacksonConfig.class)
 public class EmployeeControllerTest {
 
         @Autowired
@@ -67,13 +79,9 @@ public class EmployeeControllerTest {
         @Test
         public void givenListOfEmployees_whenGetAllEmployees_thenReturnEmployeesList() throws Exception {
 
-                List<Employee> listOfEmployees = new ArrayList<>();
-                listOfEmployees.add(Employee.builder().id(0)
-                                .firstName("Lucas").lastName("Barbosa")
-                                .email("lucas@hotmail.com").build());
-                listOfEmployees.add(Employee.builder().id(1)
-                                .firstName("Gabriela").lastName("Barbosa")
-                                .email("gabriela@hotmail.com").build());
+                List<EmployeeView> listOfEmployees = new ArrayList<>();
+                listOfEmployees.add(new EmployeeView(0, "Lucas", "Barbosa", "lucas@hotmail.com", 0L));
+                listOfEmployees.add(new EmployeeView(1, "Gabriela", "Barbosa", "gabriela@hotmail.com", 0L));
 
                 BDDMockito.given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
 
@@ -87,6 +95,58 @@ public class EmployeeControllerTest {
                                                 CoreMatchers.is(listOfEmployees.size())));
         }
 
+        @Test
+        public void givenCursor_whenGetEmployeesPage_thenReturnPageAndNextCursor() throws Exception {
+
+                EmployeePage page = EmployeePage.builder()
+                                .content(List.of(new EmployeeView(2, "Gabriela", "Barbosa",
+                                                "gabriela@hotmail.com", 0L)))
+                                .size(1)
+                                .nextCursor("Mg")
+                                .build();
+
+                BDDMockito.given(employeeService.getEmployeesPage("MQ", 1)).willReturn(page);
+
+                ResultActions response = mockMvc.perform(MockMvcRequestBuilders
+                                .get("/employees/page")
+                                .param("cursor", "MQ")
+                                .param("size", "1"));
+
+                response.andExpect(MockMvcResultMatchers.status().isOk())
+                                .andDo(MockMvcResultHandlers.print())
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.content.size()",
+                                                CoreMatchers.is(1)))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor",
+                                                CoreMatchers.is("Mg")));
+        }
+
+        @Test
+        public void givenEmployees_whenStreamEmployees_thenReturnNdjson() throws Exception {
+
+                BDDMockito.willAnswer(invocation -> {
+                        Consumer<Employee> consumer = invocation.getArgument(0);
+                        consumer.accept(Employee.builder().id(1)
+                                        .firstName("Lucas").lastName("Barbosa")
+                                        .email("lucas@hotmail.com").build());
+                        consumer.accept(Employee.builder().id(2)
+                                        .firstName("Gabriela").lastName("Barbosa")
+                                        .email("gabriela@hotmail.com").build());
+                        return null;
+                }).given(employeeService).streamEmployees(ArgumentMatchers.any());
+
+                MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/employees/stream"))
+                                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                                .andReturn();
+
+                mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"));
+
+                String[] lines = result.getResponse().getContentAsString().split("\n");
+                org.assertj.core.api.Assertions.assertThat(lines).hasSize(2);
+                org.assertj.core.api.Assertions.assertThat(lines[1]).contains("gabriela@hotmail.com");
+        }
+
         @Test
         public void givenEmployeeId_thenGetEmployeeById_returnEmployeeObject() throws Exception {
 
@@ -113,6 +173,154 @@ public class EmployeeControllerTest {
                                                 CoreMatchers.is(employee.getEmail())));
         }
 
+        @Test
+        public void givenFields_whenGetEmployeeById_thenReturnOnlySelectedFields() throws Exception {
+
+                long employeeId = 1L;
+                Employee employee = Employee.builder()
+                                .id(employeeId)
+                                .firstName("Lucas")
+                                .lastName("Barbosa")
+                                .email("lucas@hotmail.com")
+                                .version(3L)
+                                .build();
+
+                BDDMockito.given(employeeService.getEmployeeById(employeeId))
+                                .willReturn(Optional.of(employee));
+
+                ResultActions response = mockMvc.perform(MockMvcRequestBuilders
+                                .get("/employees/{id}", employeeId)
+                                .param("fields", "firstName,email"));
+
+                response.andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"3;m=10\""))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.firstName",
+                                                CoreMatchers.is(employee.getFirstName())))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.email",
+                                                CoreMatchers.is(employee.getEmail())))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.id").doesNotExist())
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.lastName").doesNotExist())
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.version").doesNotExist());
+        }
+
+        @Test
+        public void givenAcceptCbor_whenGetAllEmployees_thenReturnCborEncodedSelection() throws Exception {
+
+                BDDMockito.given(employeeService.getEmployeesVersion()).willReturn("17.15");
+                BDDMockito.given(employeeService.getAllEmployees()).willReturn(List.of(
+                                new EmployeeView(1, "Lucas", "Barbosa", "lucas@hotmail.com", 0L)));
+
+                MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                                .get("/employees")
+                                .param("fields", "id,email")
+                                .accept("application/cbor"))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.content().contentType("application/cbor"))
+                                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"17.15;cbor;m=9\""))
+                                .andReturn();
+
+                JsonNode employees = new CBORMapper().readTree(result.getResponse().getContentAsByteArray());
+                Assertions.assertThat(employees).isEqualTo(objectMapper.readTree(
+                                "[{\"id\":1,\"email\":\"lucas@hotmail.com\"}]"));
+
+                mockMvc.perform(MockMvcRequestBuilders.get("/employees"))
+                                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON));
+        }
+
+        @Test
+        public void givenCurrentETag_whenGetEmployeeById_thenReturnNotModifiedWithoutLoading() throws Exception {
+
+                BDDMockito.given(employeeService.getEmployeeVersion(1L)).willReturn(Optional.of(3L));
+
+                mockMvc.perform(MockMvcRequestBuilders.get("/employees/{id}", 1L)
+                                .header("If-None-Match", "W/\"2\", \"3\""))
+                                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"3\""))
+                                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "no-cache"))
+                                .andExpect(MockMvcResultMatchers.content().string(""));
+                BDDMockito.verify(employeeService, Mockito.never()).getEmployeeById(ArgumentMatchers.any());
+        }
+
+        @Test
+        public void givenStaleETag_whenGetEmployeeById_thenReturnEmployeeWithNewETag() throws Exception {
+
+                Employee employee = Employee.builder()
+                                .id(1L)
+                                .firstName("Lucas")
+                                .lastName("Barbosa")
+                                .email("lucas@hotmail.com")
+                                .version(4L)
+                                .build();
+                BDDMockito.given(employeeService.getEmployeeVersion(1L)).willReturn(Optional.of(4L));
+                BDDMockito.given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+                mockMvc.perform(MockMvcRequestBuilders.get("/employees/{id}", 1L)
+                                .header("If-None-Match", "\"3\""))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"4\""))
+                                .andExpect(MockMvcResultMatchers.header().string("Cache-Control", "no-cache"))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.version", CoreMatchers.is(4)));
+        }
+
+        @Test
+        public void givenUnchangedCollection_whenGetAllEmployeesOrPage_thenReturnNotModified() throws Exception {
+
+                BDDMockito.given(employeeService.getEmployeesVersion()).willReturn("17.15");
+
+                mockMvc.perform(MockMvcRequestBuilders.get("/employees"))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"17.15\""))
+                                .andExpect(MockMvcResultMatchers.header().string("Vary", "Accept"));
+
+                mockMvc.perform(MockMvcRequestBuilders.get("/employees").header("If-None-Match", "\"17.15\""))
+                                .andExpect(MockMvcResultMatchers.status().isNotModified());
+                mockMvc.perform(MockMvcRequestBuilders.get("/employees/page").header("If-None-Match", "*"))
+                                .andExpect(MockMvcResultMatchers.status().isNotModified());
+                BDDMockito.verify(employeeService, Mockito.times(1)).getAllEmployees();
+                BDDMockito.verify(employeeService, Mockito.never()).getEmployeesPage(ArgumentMatchers.any(),
+                                ArgumentMatchers.anyInt());
+        }
+
+        @Test
+        public void givenOtherRepresentation_whenGetEmployeeByIdWithItsETag_thenReturnFullBody() throws Exception {
+
+                Employee employee = Employee.builder()
+                                .id(1L)
+                                .firstName("Lucas")
+                                .lastName("Barbosa")
+                                .email("lucas@hotmail.com")
+                                .version(3L)
+                                .build();
+                BDDMockito.given(employeeService.getEmployeeVersion(1L)).willReturn(Optional.of(3L));
+                BDDMockito.given(employeeService.getEmployeeById(1L)).willReturn(Optional.of(employee));
+
+                mockMvc.perform(MockMvcRequestBuilders.get("/employees/{id}", 1L)
+                                .param("fields", "email")
+                                .header("If-None-Match", "\"3\""))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"3;m=8\""));
+                mockMvc.perform(MockMvcRequestBuilders.get("/employees/{id}", 1L)
+                                .accept("application/cbor")
+                                .header("If-None-Match", "\"3\""))
+                                .andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"3;cbor\""));
+                mockMvc.perform(MockMvcRequestBuilders.get("/employees/{id}", 1L)
+                                .accept("application/cbor")
+                                .header("If-None-Match", "\"3;cbor\""))
+                                .andExpect(MockMvcResultMatchers.status().isNotModified());
+        }
+
+        @Test
+        public void givenUnknownField_whenGetAllEmployees_thenReturnBadRequest() throws Exception {
+
+                ResultActions response = mockMvc.perform(MockMvcRequestBuilders
+                                .get("/employees")
+                                .param("fields", "firstName,salary"));
+
+                response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+                BDDMockito.verify(employeeService, Mockito.never()).getAllEmployees();
+        }
+
         @Test
         public void givenInvalidEmployeeId_thenGetEmployeeById_thenReturnEmpty() throws Exception {
 
@@ -149,7 +357,7 @@ public class EmployeeControllerTest {
                                 .willReturn(Optional.of(savedEmployee));
 
                 BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.eq(employeeId),
-                                ArgumentMatchers.any(Employee.class)))
+                                ArgumentMatchers.any(Employee.class), ArgumentMatchers.isNull()))
                                 .willAnswer((invocation) -> {
                                         Employee employeeToUpdate = invocation.getArgument(1);
                                         savedEmployee.setFirstName(employeeToUpdate.getFirstName());
@@ -188,7 +396,7 @@ public class EmployeeControllerTest {
                                 .willReturn(Optional.empty());
 
                 BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.eq(employeeId),
-                                ArgumentMatchers.any(Employee.class)))
+                                ArgumentMatchers.any(Employee.class), ArgumentMatchers.isNull()))
                                 .willThrow(new ResourceNotFoundException("Employee not exist id: " + employeeId));
 
                 ResultActions response = mockMvc.perform(MockMvcRequestBuilders
@@ -200,6 +408,111 @@ public class EmployeeControllerTest {
                                 .andDo(MockMvcResultHandlers.print());
         }
 
+        @Test
+        public void givenIfMatch_whenUpdateEmployee_thenReturnNewETag() throws Exception {
+                long employeeId = 1L;
+                Employee updatedEmployee = Employee.builder()
+                                .id(employeeId)
+                                .firstName("Gabi")
+                                .lastName("Barbosa")
+                                .email("gabi@hotmail.com")
+                                .version(4L)
+                                .build();
+
+                BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.eq(employeeId),
+                                ArgumentMatchers.any(Employee.class), ArgumentMatchers.eq(3L)))
+                                .willReturn(updatedEmployee);
+
+                ResultActions response = mockMvc.perform(MockMvcRequestBuilders
+                                .put("/employees/{id}", employeeId)
+                                .header("If-Match", "\"3\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+                response.andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"4\""))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.version", CoreMatchers.is(4)));
+        }
+
+        @Test
+        public void givenStaleIfMatch_whenUpdateEmployee_thenReturn412() throws Exception {
+                long employeeId = 1L;
+                Employee updatedEmployee = Employee.builder()
+                                .firstName("Gabi")
+                                .lastName("Barbosa")
+                                .email("gabi@hotmail.com")
+                                .build();
+
+                BDDMockito.given(employeeService.updateEmployee(ArgumentMatchers.eq(employeeId),
+                                ArgumentMatchers.any(Employee.class), ArgumentMatchers.eq(2L)))
+                                .willThrow(new PreconditionFailedException("Employee 1 is no longer at version 2"));
+
+                ResultActions response = mockMvc.perform(MockMvcRequestBuilders
+                                .put("/employees/{id}", employeeId)
+                                .header("If-Match", "\"2\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(updatedEmployee)));
+
+                response.andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+        }
+
+        @Test
+        public void givenWeakIfMatch_whenUpdateOrPatchEmployee_thenReturn412WithoutWriting() throws Exception {
+                mockMvc.perform(MockMvcRequestBuilders
+                                .put("/employees/{id}", 1L)
+                                .header("If-Match", "W/\"3\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{}"))
+                                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+                mockMvc.perform(MockMvcRequestBuilders
+                                .patch("/employees/{id}", 1L)
+                                .header("If-Match", "W/\"3\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{}"))
+                                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed());
+                BDDMockito.verifyNoInteractions(employeeService);
+        }
+
+        @Test
+        public void givenInvalidIfMatch_whenUpdateEmployee_thenReturn400() throws Exception {
+                ResultActions response = mockMvc.perform(MockMvcRequestBuilders
+                                .put("/employees/{id}", 1L)
+                                .header("If-Match", "\"abc\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{}"));
+
+                response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+        }
+
+        @Test
+        public void givenChangedFields_whenPatchEmployee_thenReturnPatchedEmployee() throws Exception {
+                long employeeId = 1L;
+                Employee patchedEmployee = Employee.builder()
+                                .id(employeeId)
+                                .firstName("Lucas")
+                                .lastName("Barbosa")
+                                .email("gabi@hotmail.com")
+                                .version(1L)
+                                .build();
+
+                BDDMockito.given(employeeService.patchEmployee(ArgumentMatchers.eq(employeeId),
+                                ArgumentMatchers.argThat(changes -> changes.getFirstName() == null
+                                                && "gabi@hotmail.com".equals(changes.getEmail())),
+                                ArgumentMatchers.eq(0L)))
+                                .willReturn(patchedEmployee);
+
+                ResultActions response = mockMvc.perform(MockMvcRequestBuilders
+                                .patch("/employees/{id}", employeeId)
+                                .header("If-Match", "\"0\"")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"email\":\"gabi@hotmail.com\"}"));
+
+                response.andExpect(MockMvcResultMatchers.status().isOk())
+                                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"1\""))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.firstName", CoreMatchers.is("Lucas")))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.email", CoreMatchers.is("gabi@hotmail.com")));
+        }
+
         @Test
         public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception {
                 long employeeId = 1L;
@@ -212,4 +525,54 @@ public class EmployeeControllerTest {
                                 .andDo(MockMvcResultHandlers.print());
 
         }
+
+        @Test
+        public void givenEmployeesList_whenCreateEmployeesBatch_thenReturnResultPerItem() throws Exception {
+
+                List<Employee> employees = List.of(
+                                Employee.builder().firstName("Lucas").lastName("Barbosa")
+                                                .email("lucas@hotmail.com").build(),
+                                Employee.builder().firstName("Gabriela").lastName("Barbosa")
+                                                .email("lucas@hotmail.com").build());
+
+                BDDMockito.given(employeeService.saveEmployees(ArgumentMatchers.anyList()))
+                                .willReturn(List.of(
+                                                BatchItemResult.builder().index(0).id(1L)
+                                                                .status(BatchItemResult.Status.CREATED).build(),
+                                                BatchItemResult.builder().index(1)
+                                                                .status(BatchItemResult.Status.DUPLICATE_EMAIL)
+                                                                .build()));
+
+                ResultActions response = mockMvc.perform(MockMvcRequestBuilders
+                                .post("/employees/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(employees)));
+
+                response.andExpect(MockMvcResultMatchers.status().isOk())
+                                .andDo(MockMvcResultHandlers.print())
+                                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(2)))
+                                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status",
+                                                CoreMatchers.is("DUPLICATE_EMAIL")));
+        }
+
+        @Test
+        public void givenIdsList_whenDeleteEmployeesBatch_thenReturnResultPerItem() throws Exception {
+
+                BDDMockito.given(employeeService.deleteEmployees(List.of(1L, 2L)))
+                                .willReturn(List.of(
+                                                BatchItemResult.builder().index(0).id(1L)
+                                                                .status(BatchItemResult.Status.DELETED).build(),
+                                                BatchItemResult.builder().index(1).id(2L)
+                                                                .status(BatchItemResult.Status.NOT_FOUND).build()));
+
+                ResultActions response = mockMvc.perform(MockMvcRequestBuilders
+                                .delete("/employees/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[1,2]"));
+
+                response.andExpect(MockMvcResultMatchers.status().isOk())
+                                .andDo(MockMvcResultHandlers.print())
+                                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status",
+                                                CoreMatchers.is("DELETED")));
+        }
 }
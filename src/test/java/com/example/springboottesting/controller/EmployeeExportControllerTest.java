@@ -0,0 +1,61 @@
+package com.example.springboottesting.controller;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.example.springboottesting.export.EmployeeExporter;
+
+@WebMvcTest(EmployeeExportController.class)
+public class EmployeeExportControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private EmployeeExporter employeeExporter;
+
+  @Test
+  public void givenUncompressedExport_whenExportEmployees_thenStreamCsvToTheResponse() throws Exception {
+    BDDMockito.given(employeeExporter.export(ArgumentMatchers.any(OutputStream.class),
+        ArgumentMatchers.eq(EmployeeExporter.Compression.NONE)))
+        .willAnswer(invocation -> {
+          OutputStream out = invocation.getArgument(0);
+          out.write("id,first_name,last_name,email,version\r\n1,Lucas,Barbosa,lucas@hotmail.com,0\r\n"
+              .getBytes(StandardCharsets.UTF_8));
+          return 1L;
+        });
+
+    MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/employees/export").param("compression", "none"))
+        .andExpect(MockMvcResultMatchers.request().asyncStarted())
+        .andReturn();
+
+    mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.header().string("Content-Type", "text/csv;charset=UTF-8"))
+        .andExpect(MockMvcResultMatchers.header().string("Content-Disposition",
+            "attachment; filename=\"employees.csv\""))
+        .andExpect(MockMvcResultMatchers.content().string(
+            "id,first_name,last_name,email,version\r\n1,Lucas,Barbosa,lucas@hotmail.com,0\r\n"));
+    BDDMockito.then(employeeExporter).should(Mockito.never())
+        .export(ArgumentMatchers.any(Path.class), ArgumentMatchers.any());
+  }
+
+  @Test
+  public void givenUnknownCompression_whenExportEmployees_thenReturn400() throws Exception {
+    mockMvc.perform(MockMvcRequestBuilders.get("/employees/export").param("compression", "zip"))
+        .andExpect(MockMvcResultMatchers.status().isBadRequest());
+  }
+}
@@ -0,0 +1,96 @@
+package com.example.springboottesting.controller;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.example.springboottesting.dto.ImportProgress;
+import com.example.springboottesting.importer.EmployeeImporter;
+import com.example.springboottesting.importer.ImportJob;
+
+@WebMvcTest(EmployeeImportController.class)
+public class EmployeeImportControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private EmployeeImporter employeeImporter;
+
+  @Test
+  public void givenCsvBody_whenImportEmployees_thenSpoolUploadAndReturnAccepted() throws Exception {
+    String csv = "first_name,last_name,email\r\nLucas,Barbosa,lucas@hotmail.com\r\n";
+    ImportJob job = job("42", ImportProgress.State.RUNNING);
+    BDDMockito.given(employeeImporter.start(ArgumentMatchers.any(Path.class)))
+        .willAnswer(invocation -> {
+          Path upload = invocation.getArgument(0);
+          Assertions.assertThat(Files.readString(upload)).isEqualTo(csv);
+          return job;
+        });
+
+    mockMvc.perform(MockMvcRequestBuilders.post("/employees/import")
+            .contentType("text/csv")
+            .content(csv))
+        .andExpect(MockMvcResultMatchers.status().isAccepted())
+        .andExpect(MockMvcResultMatchers.header().string("Location", "http://localhost/employees/import/42"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.jobId").value("42"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.state").value("RUNNING"));
+  }
+
+  @Test
+  public void givenJobId_whenGetImportProgress_thenReturnProgress() throws Exception {
+    ImportJob job = job("42", ImportProgress.State.COMPLETED);
+    BDDMockito.given(employeeImporter.getJob("42")).willReturn(Optional.of(job));
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/employees/import/42"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.state").value("COMPLETED"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.rowsImported").value(10));
+
+    mockMvc.perform(MockMvcRequestBuilders.get("/employees/import/unknown"))
+        .andExpect(MockMvcResultMatchers.status().isNotFound());
+  }
+
+  @Test
+  public void givenJobWithRejects_whenGetImportRejects_thenReturnRejectsCsv() throws Exception {
+    Path rejects = Files.createTempFile("rejects-", ".csv");
+    Files.writeString(rejects, "line,reason\r\n3,\"first_name, last_name and email are required\"\r\n");
+    ImportJob job = job("42", ImportProgress.State.COMPLETED);
+    BDDMockito.given(job.getRejects()).willReturn(rejects);
+    BDDMockito.given(employeeImporter.getJob("42")).willReturn(Optional.of(job));
+
+    try {
+      mockMvc.perform(MockMvcRequestBuilders.get("/employees/import/42/rejects"))
+          .andExpect(MockMvcResultMatchers.status().isOk())
+          .andExpect(MockMvcResultMatchers.header().string("Content-Type", "text/csv;charset=UTF-8"))
+          .andExpect(MockMvcResultMatchers.content().string(
+              "line,reason\r\n3,\"first_name, last_name and email are required\"\r\n"));
+    } finally {
+      Files.deleteIfExists(rejects);
+    }
+  }
+
+  private static ImportJob job(String id, ImportProgress.State state) {
+    ImportJob job = Mockito.mock(ImportJob.class);
+    BDDMockito.given(job.getId()).willReturn(id);
+    BDDMockito.given(job.getProgress()).willReturn(ImportProgress.builder()
+        .jobId(id)
+        .state(state)
+        .rowsRead(10)
+        .rowsImported(state == ImportProgress.State.COMPLETED ? 10 : 0)
+        .build());
+    return job;
+  }
+}
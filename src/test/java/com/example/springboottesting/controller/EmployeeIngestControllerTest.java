@@ -0,0 +1,138 @@
+package com.example.springboottesting.controller;
+
+import java.util.Optional;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.example.springboottesting.dto.IngestStatus;
+import com.example.springboottesting.ingest.EmployeeIngestService;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@WebMvcTest(controllers = { EmployeeController.class, EmployeeIngestController.class },
+    properties = "app.ingest.enabled=true")
+public class EmployeeIngestControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private EmployeeIngestService employeeIngestService;
+
+  @MockBean
+  private EmployeeService employeeService;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  private final Employee employee = Employee.builder()
+      .firstName("Lucas")
+      .lastName("Barbosa")
+      .email("lucas@hotmail.com")
+      .build();
+
+  @Test
+  public void givenRespondAsyncPreference_whenCreateEmployee_thenReturn202WithTrackingLocation() throws Exception {
+    BDDMockito.given(employeeIngestService.submit(ArgumentMatchers.any(Employee.class))).willReturn(41L);
+
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/employees")
+        .header("Prefer", "respond-async")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee)));
+
+    response.andExpect(MockMvcResultMatchers.status().isAccepted())
+        .andExpect(MockMvcResultMatchers.header().string("Location", "http://localhost/employees/ingest/41"))
+        .andExpect(MockMvcResultMatchers.header().string("Preference-Applied", "respond-async"))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.trackingId", CoreMatchers.is(41)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.state", CoreMatchers.is("PENDING")));
+    BDDMockito.then(employeeService).shouldHaveNoInteractions();
+  }
+
+  @Test
+  public void givenRespondAsyncAmongOtherPreferences_whenCreateEmployee_thenReturn202() throws Exception {
+    BDDMockito.given(employeeIngestService.submit(ArgumentMatchers.any(Employee.class))).willReturn(41L);
+
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/employees")
+        .header("Prefer", "return=minimal")
+        .header("Prefer", "Respond-Async, wait=10")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee)));
+
+    response.andExpect(MockMvcResultMatchers.status().isAccepted());
+    BDDMockito.then(employeeService).shouldHaveNoInteractions();
+  }
+
+  @Test
+  public void givenOtherPreferencesOnly_whenCreateEmployee_thenStaySynchronous() throws Exception {
+    BDDMockito.given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class))).willReturn(employee);
+
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/employees")
+        .header("Prefer", "wait=10, handling=lenient")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee)));
+
+    response.andExpect(MockMvcResultMatchers.status().isCreated());
+    BDDMockito.then(employeeIngestService).shouldHaveNoInteractions();
+  }
+
+  @Test
+  public void givenNoPreference_whenCreateEmployee_thenStaySynchronous() throws Exception {
+    BDDMockito.given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class))).willReturn(employee);
+
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.post("/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(objectMapper.writeValueAsString(employee)));
+
+    response.andExpect(MockMvcResultMatchers.status().isCreated());
+    BDDMockito.then(employeeIngestService).shouldHaveNoInteractions();
+  }
+
+  @Test
+  public void givenTrackingId_whenGetIngestStatus_thenReturnStatus() throws Exception {
+    BDDMockito.given(employeeIngestService.getStatus(41L)).willReturn(Optional.of(IngestStatus.builder()
+        .trackingId(41L)
+        .state(IngestStatus.State.CREATED)
+        .id(7L)
+        .build()));
+
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/employees/ingest/{trackingId}", 41L));
+
+    response.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.state", CoreMatchers.is("CREATED")))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.id", CoreMatchers.is(7)));
+  }
+
+  @Test
+  public void givenOutcomeNoLongerRetained_whenGetIngestStatus_thenReturn410() throws Exception {
+    BDDMockito.given(employeeIngestService.getStatus(41L)).willReturn(Optional.of(IngestStatus.builder()
+        .trackingId(41L)
+        .state(IngestStatus.State.UNKNOWN)
+        .build()));
+
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/employees/ingest/{trackingId}", 41L));
+
+    response.andExpect(MockMvcResultMatchers.status().isGone())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.state", CoreMatchers.is("UNKNOWN")));
+  }
+
+  @Test
+  public void givenUnknownTrackingId_whenGetIngestStatus_thenReturn404() throws Exception {
+    BDDMockito.given(employeeIngestService.getStatus(42L)).willReturn(Optional.empty());
+
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/employees/ingest/{trackingId}", 42L));
+
+    response.andExpect(MockMvcResultMatchers.status().isNotFound());
+  }
+}
@@ -0,0 +1,56 @@
+package com.example.springboottesting.controller;
+
+import java.util.List;
+
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.BDDMockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.search.EmployeeSearchIndex;
+
+@WebMvcTest(EmployeeSearchController.class)
+public class EmployeeSearchControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private EmployeeSearchIndex employeeSearchIndex;
+
+  @Test
+  public void givenQuery_whenSearchEmployees_thenReturnMatches() throws Exception {
+    Employee employee = Employee.builder()
+        .id(1L)
+        .firstName("Lucas")
+        .lastName("Barbosa")
+        .email("lucas@hotmail.com")
+        .build();
+    BDDMockito.given(employeeSearchIndex.search("luc", 20)).willReturn(List.of(employee));
+
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/employees/search").param("q", "luc"));
+
+    response.andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(1)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].email", CoreMatchers.is(employee.getEmail())));
+  }
+
+  @Test
+  public void givenLimitAboveMax_whenSearchEmployees_thenReturn400() throws Exception {
+    ResultActions response = mockMvc.perform(MockMvcRequestBuilders.get("/employees/search")
+        .param("q", "luc")
+        .param("limit", "1000"));
+
+    response.andExpect(MockMvcResultMatchers.status().isBadRequest());
+    BDDMockito.then(employeeSearchIndex).should(BDDMockito.never())
+        .search(ArgumentMatchers.anyString(), ArgumentMatchers.anyInt());
+  }
+}
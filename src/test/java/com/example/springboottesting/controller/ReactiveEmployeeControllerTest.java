@@ -0,0 +1,252 @@
+package com.example.springboottesting.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.service.ReactiveEmployeeService;
+import com.example.springboottesting.tenant.TenantContext;
+
+import reactor.test.StepVerifier;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=" })
+@AutoConfigureWebTestClient
+@ActiveProfiles({ "reactive", "test" })
+public class ReactiveEmployeeControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveEmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void cleanup() {
+        jdbcTemplate.update("delete from employee_outbox");
+        for (String tenant : new String[] { "acme", TenantContext.DEFAULT }) {
+            TenantContext.run(tenant, employeeRepository::deleteAll);
+        }
+    }
+
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenSavedEmployee() {
+
+        webTestClient.post().uri("/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Employee.builder()
+                        .firstName("Lucas")
+                        .lastName("Barbosa")
+                        .email("lucas@hotmail.com").build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isNumber()
+                .jsonPath("$.email").isEqualTo("lucas@hotmail.com");
+    }
+
+    @Test
+    public void givenExistingEmail_whenCreateEmployee_thenReturn404() {
+
+        save("lucas@hotmail.com");
+
+        webTestClient.post().uri("/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Employee.builder()
+                        .firstName("Luke")
+                        .lastName("Barbosa")
+                        .email("lucas@hotmail.com").build())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenEmployees_whenStreamEmployees_thenReturnNdjsonInIdOrder() {
+
+        save("lucas@hotmail.com");
+        save("gabriela@hotmail.com");
+
+        List<Employee> streamed = webTestClient.get().uri("/employees/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Employee.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(streamed).extracting(Employee::getEmail)
+                .containsExactly("lucas@hotmail.com", "gabriela@hotmail.com");
+    }
+
+    @Test
+    public void givenEmployees_whenGetAllEmployees_thenDemandDrivesTheCursor() {
+
+        save("lucas@hotmail.com");
+        save("gabriela@hotmail.com");
+
+        StepVerifier.create(employeeService.getAllEmployees(), 1)
+                .expectNextMatches(employee -> employee.getEmail().equals("lucas@hotmail.com"))
+                .thenRequest(1)
+                .expectNextMatches(employee -> employee.getEmail().equals("gabriela@hotmail.com"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void givenEmployees_whenGetEmployeesPage_thenReturnPageWithCursor() {
+
+        save("lucas@hotmail.com");
+        save("gabriela@hotmail.com");
+
+        webTestClient.get().uri("/employees/page?size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.nextCursor").isNotEmpty();
+    }
+
+    @Test
+    public void givenEmployeeId_whenGetUpdateDelete_thenFollowMvcContract() {
+
+        Employee saved = save("lucas@hotmail.com");
+
+        webTestClient.get().uri("/employees/{id}", saved.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.firstName").isEqualTo("Lucas");
+
+        webTestClient.put().uri("/employees/{id}", saved.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Employee.builder()
+                        .firstName("Luke")
+                        .lastName("Barbosa")
+                        .email("luke@hotmail.com").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.firstName").isEqualTo("Luke");
+
+        webTestClient.delete().uri("/employees/{id}", saved.getId())
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/employees/{id}", saved.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenInvalidEmployeeId_whenUpdateEmployee_thenReturn404() {
+
+        webTestClient.put().uri("/employees/{id}", -1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Employee.builder()
+                        .firstName("Luke")
+                        .lastName("Barbosa")
+                        .email("luke@hotmail.com").build())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenTenantHeader_whenCreateAndRead_thenScopedToThatTenant() {
+
+        webTestClient.post().uri("/employees")
+                .header(TenantContext.HEADER, "acme")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Employee.builder()
+                        .firstName("Lucas")
+                        .lastName("Barbosa")
+                        .email("lucas@hotmail.com").build())
+                .exchange()
+                .expectStatus().isCreated();
+        Employee saved = save("lucas@hotmail.com");
+
+        webTestClient.get().uri("/employees")
+                .header(TenantContext.HEADER, "acme")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(1);
+        webTestClient.get().uri("/employees/{id}", saved.getId())
+                .header(TenantContext.HEADER, "acme")
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.delete().uri("/employees/{id}", saved.getId())
+                .header(TenantContext.HEADER, "acme")
+                .exchange();
+        assertThat(TenantContext.call("acme", () -> employeeRepository.count())).isEqualTo(1);
+        assertThat(employeeRepository.findById(saved.getId())).isPresent();
+    }
+
+    @Test
+    public void givenCreateUpdateDelete_whenCommitted_thenEachRecordedInTheOutbox() {
+
+        Employee saved = save("lucas@hotmail.com");
+        webTestClient.put().uri("/employees/{id}", saved.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Employee.builder()
+                        .firstName("Luke")
+                        .lastName("Barbosa")
+                        .email("luke@hotmail.com").build())
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.delete().uri("/employees/{id}", saved.getId())
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(jdbcTemplate.queryForList("select type from employee_outbox where employee_id = ?"
+                + " and tenant_id = 'default' order by id", String.class, saved.getId()))
+                .containsExactly("CREATED", "UPDATED", "DELETED");
+        assertThat(jdbcTemplate.queryForObject("select version from employee_outbox where employee_id = ?"
+                + " and type = 'UPDATED'", Long.class, saved.getId())).isNotNull();
+    }
+
+    @Test
+    public void givenMissingEmployee_whenDeleteEmployee_thenNothingRecorded() {
+
+        webTestClient.delete().uri("/employees/{id}", 123456)
+                .exchange()
+                .expectStatus().isOk();
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from employee_outbox", Long.class)).isZero();
+    }
+
+    @Test
+    public void givenMalformedTenantHeader_whenRequest_thenBadRequest() {
+
+        webTestClient.get().uri("/employees")
+                .header(TenantContext.HEADER, "../acme")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private Employee save(String email) {
+        return employeeService.saveEmployee(Employee.builder()
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email(email).build())
+                .block();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.springboottesting.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.service.EmployeeService;
+import com.zaxxer.hikari.HikariDataSource;
+
+// Two in-memory H2 databases: the test profile's one as primary and "replica" below.
+@SpringBootTest(properties = {
+        "app.read-replicas.enabled=true",
+        "app.read-replicas.urls[0]=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "app.read-replicas.username=sa",
+        "app.read-replicas.password=",
+        "app.read-replicas.lag-query=select lag_seconds from replica_status",
+        "app.read-replicas.health-check-interval=1h" })
+@ActiveProfiles("test")
+public class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    public void setup() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("create table if not exists employees (id bigint primary key, first_name varchar(255),"
+                + " last_name varchar(255), email varchar(255), version bigint,"
+                + " tenant_id varchar(64) default 'default' not null)");
+        replica.execute("create table if not exists replica_status (lag_seconds double precision)");
+        replica.update("delete from employees");
+        replica.update("delete from replica_status");
+        replica.update("insert into replica_status values (0)");
+        replica.update("insert into employees (id, first_name, last_name, email, version)"
+                + " values (1000, 'Replica', 'Row', 'replica@hotmail.com', 0)");
+        replicaRoutingDataSource.checkReplicas();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        employeeRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    public void givenHealthyReplica_whenReadEmployees_thenServeFromReplica() {
+
+        employeeService.saveEmployee(employee());
+
+        assertThat(employeeService.getAllEmployees()).extracting(EmployeeView::email)
+                .containsExactly("replica@hotmail.com");
+        assertThat(employeeService.getEmployeeById(1000L)).isPresent();
+    }
+
+    @Test
+    public void givenEmployee_whenSaveEmployee_thenWriteToPrimaryOnly() {
+
+        employeeService.saveEmployee(employee());
+
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject(
+                "select count(*) from employees where email = 'lucas@hotmail.com'", Integer.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from employees", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    public void givenLaggingReplica_whenReadEmployees_thenFallBackToPrimary() {
+
+        employeeService.saveEmployee(employee());
+        replica.update("update replica_status set lag_seconds = 60");
+        replicaRoutingDataSource.checkReplicas();
+
+        assertThat(replicaRoutingDataSource.isReplicaHealthy(0)).isFalse();
+        assertThat(employeeService.getAllEmployees()).extracting(EmployeeView::email)
+                .containsExactly("lucas@hotmail.com");
+    }
+
+    @Test
+    public void givenBrokenLagQuery_whenCheckReplicas_thenReplicaIsUnhealthy() {
+
+        replica.execute("drop table replica_status");
+        replicaRoutingDataSource.checkReplicas();
+
+        assertThat(replicaRoutingDataSource.isReplicaHealthy(0)).isFalse();
+        assertThat(employeeService.getEmployeeById(1000L)).isEmpty();
+    }
+
+    private static Employee employee() {
+        return Employee.builder()
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email("lucas@hotmail.com").build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.springboottesting.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource firstReplica;
+
+    @Mock
+    private DataSource secondReplica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection firstReplicaConnection;
+
+    @Mock
+    private Connection secondReplicaConnection;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    public void setup() {
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(firstReplica, secondReplica), "select 0",
+                Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void givenReadWriteTransaction_whenGetConnection_thenUsePrimary() throws Exception {
+        given(primary.getConnection()).willReturn(primaryConnection);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        verify(firstReplica, never()).getConnection();
+        verify(secondReplica, never()).getConnection();
+    }
+
+    @Test
+    public void givenBusyReplica_whenGetReadOnlyConnection_thenUseLeastLoadedReplica() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        given(firstReplica.getConnection()).willReturn(firstReplicaConnection);
+        given(secondReplica.getConnection()).willReturn(secondReplicaConnection);
+
+        Connection first = routingDataSource.getConnection();
+        Connection second = routingDataSource.getConnection();
+        second.close();
+        Connection third = routingDataSource.getConnection();
+
+        // The first replica still has a borrowed connection, the second one has none.
+        first.isValid(1);
+        second.isValid(1);
+        third.isValid(1);
+        verify(firstReplicaConnection).isValid(1);
+        verify(secondReplicaConnection, times(2)).isValid(1);
+    }
+
+    @Test
+    public void givenRefusingReplica_whenGetReadOnlyConnection_thenFallBackToPrimaryAndSkipIt() throws Exception {
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(firstReplica), "select 0",
+                Duration.ofSeconds(5));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        given(firstReplica.getConnection()).willThrow(new SQLException("connection refused"));
+        given(primary.getConnection()).willReturn(primaryConnection);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        assertThat(routingDataSource.isReplicaHealthy(0)).isFalse();
+        assertThat(routingDataSource.getConnection()).isSameAs(primaryConnection);
+        verify(firstReplica, times(1)).getConnection();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.springboottesting.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.service.EmployeeService;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeExporterTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @InjectMocks
+    private EmployeeExporter employeeExporter;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void givenEmployees_whenExportCsv_thenWriteHeaderAndEscapedRows() throws Exception {
+        givenStreamedEmployees();
+        Path file = directory.resolve("employees.csv");
+
+        long rows = employeeExporter.export(file, EmployeeExporter.Compression.NONE);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(Files.readString(file)).isEqualTo(EmployeeExporter.HEADER + "\r\n"
+                + "1,Lucas,Barbosa,lucas@hotmail.com,0\r\n"
+                + "2,\"Gabi, \"\"G\"\"\",Barbosa,gabi@hotmail.com,3\r\n");
+    }
+
+    @Test
+    public void givenGzipFileName_whenExport_thenWriteGzipStream() throws Exception {
+        givenStreamedEmployees();
+        Path file = directory.resolve("employees.csv.gz");
+
+        employeeExporter.export(file, EmployeeExporter.Compression.forFile(file));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            in.transferTo(csv);
+        }
+        assertThat(csv.toString(StandardCharsets.UTF_8)).startsWith(EmployeeExporter.HEADER)
+                .contains("1,Lucas,Barbosa,lucas@hotmail.com,0");
+    }
+
+    @Test
+    public void givenResponseStream_whenExportGzip_thenFinishGzipButLeaveStreamOpen() throws Exception {
+        givenStreamedEmployees();
+        boolean[] closed = new boolean[1];
+        ByteArrayOutputStream response = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        long rows = employeeExporter.export(response, EmployeeExporter.Compression.GZIP);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(closed[0]).isFalse();
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.toByteArray()))) {
+            in.transferTo(csv);
+        }
+        assertThat(csv.toString(StandardCharsets.UTF_8)).startsWith(EmployeeExporter.HEADER)
+                .endsWith("2,\"Gabi, \"\"G\"\"\",Barbosa,gabi@hotmail.com,3\r\n");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenStreamedEmployees() {
+        willAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(Employee.builder()
+                    .id(1L)
+                    .firstName("Lucas")
+                    .lastName("Barbosa")
+                    .email("lucas@hotmail.com")
+                    .version(0L).build());
+            consumer.accept(Employee.builder()
+                    .id(2L)
+                    .firstName("Gabi, \"G\"")
+                    .lastName("Barbosa")
+                    .email("gabi@hotmail.com")
+                    .version(3L).build());
+            return null;
+        }).given(employeeService).streamEmployees(any(Consumer.class));
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.springboottesting.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.springboottesting.dto.ImportProgress;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.tenant.TenantContext;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class EmployeeImporterTest {
+
+    @Autowired
+    private EmployeeImporter employeeImporter;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    public void cleanup() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    public void givenCsvWithInvalidAndDuplicateRows_whenImport_thenLoadValidRowsAndReportRejects() throws Exception {
+        employeeRepository.save(Employee.builder()
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email("lucas@hotmail.com").build());
+        Path file = Files.writeString(directory.resolve("employees.csv"), "id,first_name,last_name,email,version\r\n"
+                + "7,Gabi,\"Barbosa, Jr\",gabi@hotmail.com,3\r\n"
+                + ",\"Multi\nLine\",Silva,multi@hotmail.com,\r\n"
+                + "\r\n"
+                + ",Lucas,Barbosa,lucas@hotmail.com,\r\n"
+                + ",NoEmail,Silva,,\r\n"
+                + ",Gabi,Again,gabi@hotmail.com,\r\n");
+
+        ImportJob job = employeeImporter.start(file);
+        job.getCompletion().get(30, TimeUnit.SECONDS);
+
+        ImportProgress progress = job.getProgress();
+        assertThat(progress.getState()).isEqualTo(ImportProgress.State.COMPLETED);
+        assertThat(progress.getRowsRead()).isEqualTo(5);
+        assertThat(progress.getRowsImported()).isEqualTo(2);
+        assertThat(progress.getRowsRejected()).isEqualTo(3);
+        assertThat(file).doesNotExist();
+
+        Employee gabi = employeeRepository.findByEmail("gabi@hotmail.com").get();
+        assertThat(gabi.getLastName()).isEqualTo("Barbosa, Jr");
+        assertThat(gabi.getId()).isNotEqualTo(7L);
+        assertThat(gabi.getVersion()).isZero();
+        assertThat(employeeRepository.findByEmail("multi@hotmail.com").get().getFirstName()).isEqualTo("Multi\nLine");
+
+        List<String> rejects = Files.readAllLines(job.getRejects());
+        // Line numbers count physical lines, so the quoted line break and the blank line are included.
+        assertThat(rejects).containsExactly("line,reason",
+                "7,\"first_name, last_name and email are required\"",
+                "6,Employee already exist with given email",
+                "8,Employee already exist with given email");
+    }
+
+    @Test
+    public void givenGzipCsvLargerThanOneChunk_whenImport_thenLoadAllRowsWithDistinctIds() throws Exception {
+        int rows = EmployeeImporter.LOAD_CHUNK_SIZE + 123;
+        Path file = directory.resolve("employees.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file));
+                Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            writer.write("firstName,lastName,email\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write("First" + i + ",Last" + i + ",employee" + i + "@example.com\n");
+            }
+        }
+        Employee saved = employeeRepository.save(Employee.builder()
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email("lucas@hotmail.com").build());
+
+        ImportJob job = employeeImporter.start(file);
+        job.getCompletion().get(60, TimeUnit.SECONDS);
+
+        assertThat(job.getProgress().getState()).isEqualTo(ImportProgress.State.COMPLETED);
+        assertThat(job.getProgress().getRowsImported()).isEqualTo(rows);
+        assertThat(employeeRepository.count()).isEqualTo(rows + 1);
+        // Bulk ids come from the same sequence blocks the entity manager uses.
+        Employee next = employeeRepository.save(Employee.builder()
+                .firstName("Gabi")
+                .lastName("Barbosa")
+                .email("gabi@hotmail.com").build());
+        assertThat(next.getId()).isNotEqualTo(saved.getId());
+        assertThat(employeeRepository.count()).isEqualTo(rows + 2);
+    }
+
+    @Test
+    public void givenCsvWithoutEmailColumn_whenImport_thenJobFails() throws Exception {
+        Path file = Files.writeString(directory.resolve("employees.csv"), "first_name,last_name\r\nLucas,Barbosa\r\n");
+
+        ImportJob job = employeeImporter.start(file);
+        job.getCompletion().get(30, TimeUnit.SECONDS);
+
+        assertThat(job.getProgress().getState()).isEqualTo(ImportProgress.State.FAILED);
+        assertThat(job.getProgress().getMessage()).contains("email");
+        assertThat(employeeRepository.count()).isZero();
+    }
+
+    @Test
+    public void givenJobOfAnotherTenant_whenGetJob_thenEmpty() throws Exception {
+        Path file = Files.writeString(directory.resolve("employees.csv"), "first_name,last_name\r\nLucas,Barbosa\r\n");
+
+        ImportJob job = TenantContext.call("acme", () -> {
+            try {
+                return employeeImporter.start(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        job.getCompletion().get(30, TimeUnit.SECONDS);
+
+        assertThat(employeeImporter.getJob(job.getId())).isEmpty();
+        assertThat(TenantContext.call("acme", () -> employeeImporter.getJob(job.getId()))).containsSame(job);
+    }
+}
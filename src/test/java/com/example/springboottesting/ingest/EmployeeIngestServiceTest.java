@@ -0,0 +1,213 @@
+package com.example.springboottesting.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.dto.IngestStatus;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.service.EmployeeService;
+import com.example.springboottesting.tenant.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeIngestServiceTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    @TempDir
+    Path directory;
+
+    private EmployeeIngestService ingestService;
+
+    private final Employee employee = Employee.builder()
+            .id(99L)
+            .firstName("Lucas")
+            .lastName("Barbosa")
+            .email("lucas@hotmail.com").build();
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        if (ingestService != null) {
+            ingestService.stop();
+        }
+    }
+
+    @Test
+    public void givenSubmittedEmployee_whenWriterDrains_thenSaveInBatchAndReportCreated() throws Exception {
+        ingestService = newService();
+        given(employeeService.saveEmployees(anyList()))
+                .willReturn(List.of(created(0, 7L)));
+
+        long trackingId = ingestService.submit(employee);
+        assertThat(ingestService.getStatus(trackingId).get().getState()).isEqualTo(IngestStatus.State.PENDING);
+        ingestService.start();
+
+        awaitState(ingestService, trackingId, IngestStatus.State.CREATED, 5000);
+        assertThat(ingestService.getStatus(trackingId).get().getId()).isEqualTo(7L);
+        assertThat(ingestService.getStatus(trackingId + 1)).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void givenAcceptedButUnwrittenEmployees_whenRestart_thenReplayThem() throws Exception {
+        EmployeeIngestService crashed = newService();
+        long first = crashed.submit(employee);
+        long second = crashed.submit(Employee.builder()
+                .firstName("Gabriela")
+                .lastName("Barbosa")
+                .email("gabriela@hotmail.com").build());
+        // Never started nor stopped: the process died right after acknowledging both.
+
+        ingestService = newService();
+        given(employeeService.saveEmployees(anyList()))
+                .willReturn(List.of(created(0, 1L), created(1, 2L)));
+        ingestService.start();
+
+        ArgumentCaptor<List<Employee>> saved = ArgumentCaptor.forClass(List.class);
+        verify(employeeService, timeout(5000)).saveEmployees(saved.capture());
+        assertThat(saved.getValue()).extracting(Employee::getEmail)
+                .containsExactly("lucas@hotmail.com", "gabriela@hotmail.com");
+        // The request's id is never trusted.
+        assertThat(saved.getValue().get(0).getId()).isZero();
+        awaitState(ingestService, second, IngestStatus.State.CREATED, 5000);
+        assertThat(ingestService.getStatus(first).get().getId()).isEqualTo(1L);
+        assertThat(ingestService.getStatus(second).get().getId()).isEqualTo(2L);
+    }
+
+    @Test
+    public void givenDatabaseFailure_whenWriterDrains_thenRetryUntilWritten() throws Exception {
+        ingestService = newService();
+        given(employeeService.saveEmployees(anyList()))
+                .willThrow(new DataAccessResourceFailureException("database down"))
+                .willReturn(List.of(created(0, 7L)));
+
+        long trackingId = ingestService.submit(employee);
+        ingestService.start();
+
+        awaitState(ingestService, trackingId, IngestStatus.State.CREATED, 10_000);
+    }
+
+    @Test
+    public void givenStoppedService_whenRestart_thenAppliedEmployeesAreNotReplayed() throws Exception {
+        EmployeeIngestService first = newService();
+        given(employeeService.saveEmployees(anyList()))
+                .willReturn(List.of(created(0, 7L)));
+        long trackingId = first.submit(employee);
+        first.start();
+        awaitState(first, trackingId, IngestStatus.State.CREATED, 5000);
+        first.stop();
+        org.mockito.Mockito.clearInvocations(employeeService);
+
+        ingestService = newService();
+        ingestService.start();
+
+        Thread.sleep(3 * EmployeeIngestService.POLL_MILLIS);
+        verify(employeeService, never()).saveEmployees(anyList());
+        assertThat(ingestService.getStatus(trackingId).get().getState()).isEqualTo(IngestStatus.State.CREATED);
+        assertThat(ingestService.getStatus(trackingId).get().getId()).isEqualTo(7L);
+    }
+
+    @Test
+    public void givenOutcomeRecordedButNotCheckpointed_whenRestart_thenEntryIsNotReplayed() throws Exception {
+        EmployeeIngestService crashed = newService();
+        long trackingId = crashed.submit(employee);
+        // The insert committed and its outcome was recorded, then the process died before the checkpoint.
+        try (IngestResults results = IngestResults.open(directory, new ObjectMapper(), 10)) {
+            results.record(List.of(new IngestResults.Outcome(trackingId, TenantContext.DEFAULT,
+                    IngestStatus.State.CREATED, 7L, null)));
+        }
+
+        ingestService = newService();
+        ingestService.start();
+
+        Thread.sleep(3 * EmployeeIngestService.POLL_MILLIS);
+        verify(employeeService, never()).saveEmployees(anyList());
+        assertThat(ingestService.getStatus(trackingId).get().getId()).isEqualTo(7L);
+    }
+
+    @Test
+    public void givenOutcomeNoLongerRetained_whenGetStatus_thenUnknown() throws Exception {
+        ingestService = newService(1);
+        given(employeeService.saveEmployees(anyList()))
+                .willReturn(List.of(created(0, 7L), created(1, 8L)));
+
+        long first = ingestService.submit(employee);
+        long second = ingestService.submit(Employee.builder()
+                .firstName("Gabriela")
+                .lastName("Barbosa")
+                .email("gabriela@hotmail.com").build());
+        ingestService.start();
+
+        awaitState(ingestService, second, IngestStatus.State.CREATED, 5000);
+        awaitState(ingestService, first, IngestStatus.State.UNKNOWN, 5000);
+    }
+
+    @Test
+    public void givenOtherTenantsEntry_whenGetStatus_thenEmpty() throws Exception {
+        ingestService = newService();
+        given(employeeService.saveEmployees(anyList()))
+                .willReturn(List.of(created(0, 7L)));
+
+        long trackingId = TenantContext.call("acme", () -> ingestService.submit(employee));
+        ingestService.start();
+
+        awaitState("acme", ingestService, trackingId, IngestStatus.State.CREATED, 5000);
+        assertThat(ingestService.getStatus(trackingId)).isEmpty();
+    }
+
+    private static void awaitState(EmployeeIngestService service, long trackingId, IngestStatus.State state,
+            long timeoutMillis) throws InterruptedException {
+        awaitState(TenantContext.DEFAULT, service, trackingId, state, timeoutMillis);
+    }
+
+    private static void awaitState(String tenant, EmployeeIngestService service, long trackingId,
+            IngestStatus.State state, long timeoutMillis) throws InterruptedException {
+        Supplier<IngestStatus.State> current = () -> TenantContext.call(tenant,
+                () -> service.getStatus(trackingId).get().getState());
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (current.get() != state && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(current.get()).isEqualTo(state);
+    }
+
+    private EmployeeIngestService newService() throws Exception {
+        return newService(1000);
+    }
+
+    private EmployeeIngestService newService(int retainedResults) throws Exception {
+        return new EmployeeIngestService(employeeService, new ObjectMapper(), new SimpleMeterRegistry(), directory,
+                64 * 1024, retainedResults);
+    }
+
+    private static BatchItemResult created(int index, long id) {
+        return BatchItemResult.builder()
+                .index(index)
+                .id(id)
+                .status(BatchItemResult.Status.CREATED)
+                .build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.springboottesting.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class IngestLogTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void givenAppendedRecords_whenReopenWithoutClose_thenReadAllInOrder() throws Exception {
+
+        IngestLog log = IngestLog.open(directory, SEGMENT_SIZE);
+        for (int i = 0; i < 10; i++) {
+            assertThat(log.append(payload(i))).isEqualTo(i);
+        }
+
+        // No close(): the first instance simply disappears, as in a crash.
+        IngestLog recovered = IngestLog.open(directory, SEGMENT_SIZE);
+
+        assertThat(payloads(recovered.read(100, 0))).containsExactly(
+                "employee-0", "employee-1", "employee-2", "employee-3", "employee-4",
+                "employee-5", "employee-6", "employee-7", "employee-8", "employee-9");
+        assertThat(recovered.append(payload(10))).isEqualTo(10);
+    }
+
+    @Test
+    public void givenRecordsAppendedTogether_whenReopen_thenReadThemInOrderAcrossSegments() throws Exception {
+
+        IngestLog log = IngestLog.open(directory, 1024);
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            payloads.add(payload(i));
+        }
+
+        assertThat(log.appendAll(payloads)).isEqualTo(99);
+
+        IngestLog recovered = IngestLog.open(directory, 1024);
+        assertThat(payloads(recovered.read(1000, 0))).hasSize(100).startsWith("employee-0").endsWith("employee-99");
+        assertThat(recovered.append(payload(100))).isEqualTo(100);
+    }
+
+    @Test
+    public void givenCheckpoint_whenReopen_thenResumeAfterCheckpoint() throws Exception {
+
+        IngestLog log = IngestLog.open(directory, SEGMENT_SIZE);
+        for (int i = 0; i < 5; i++) {
+            log.append(payload(i));
+        }
+        List<IngestLog.Record> firstBatch = log.read(3, 0);
+        log.checkpoint(firstBatch.get(firstBatch.size() - 1).sequence());
+
+        IngestLog recovered = IngestLog.open(directory, SEGMENT_SIZE);
+
+        assertThat(recovered.checkpoint()).isEqualTo(2);
+        assertThat(payloads(recovered.read(100, 0))).containsExactly("employee-3", "employee-4");
+    }
+
+    @Test
+    public void givenTornTail_whenReopen_thenDiscardItAndKeepAppending() throws Exception {
+
+        IngestLog log = IngestLog.open(directory, SEGMENT_SIZE);
+        log.append(payload(0));
+        log.append(payload(1));
+        // A record whose length made it to disk but whose payload did not.
+        int tornPosition = 2 * (8 + payload(0).length);
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putInt(0, 42).putInt(4, 12345), tornPosition);
+        }
+
+        IngestLog recovered = IngestLog.open(directory, SEGMENT_SIZE);
+        long sequence = recovered.append(payload(2));
+
+        assertThat(sequence).isEqualTo(2);
+        assertThat(payloads(IngestLog.open(directory, SEGMENT_SIZE).read(100, 0)))
+                .containsExactly("employee-0", "employee-1", "employee-2");
+    }
+
+    @Test
+    public void givenSmallSegments_whenCheckpointPastSegment_thenReadAcrossAndDeleteDrained() throws Exception {
+
+        IngestLog log = IngestLog.open(directory, 64);
+        for (int i = 0; i < 6; i++) {
+            log.append(payload(i));
+        }
+        assertThat(segments()).hasSize(2);
+
+        List<IngestLog.Record> records = log.read(100, 0);
+        log.checkpoint(records.get(4).sequence());
+
+        assertThat(payloads(records)).hasSize(6).endsWith("employee-5");
+        assertThat(segments()).hasSize(1);
+        assertThat(payloads(IngestLog.open(directory, 64).read(100, 0))).containsExactly("employee-5");
+    }
+
+    @Test
+    public void givenKilledWriterProcess_whenReopen_thenEveryAcknowledgedRecordIsPresent() throws Exception {
+
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(java.toString(), "-cp", System.getProperty("java.class.path"),
+                CrashingWriter.class.getName(), directory.toString())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        List<Long> acknowledged = new ArrayList<>();
+        try (BufferedReader acks = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while (acknowledged.size() < 200 && (line = acks.readLine()) != null) {
+                acknowledged.add(Long.parseLong(line));
+            }
+            // kill -9 while the writer is still appending.
+            process.destroyForcibly();
+            assertThat(process.waitFor(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        List<IngestLog.Record> recovered = IngestLog.open(directory, SEGMENT_SIZE).read(Integer.MAX_VALUE, 0);
+
+        assertThat(acknowledged).hasSize(200);
+        assertThat(recovered.size()).isGreaterThanOrEqualTo(acknowledged.size());
+        for (long sequence : acknowledged) {
+            IngestLog.Record record = recovered.get((int) sequence);
+            assertThat(record.sequence()).isEqualTo(sequence);
+            assertThat(new String(record.payload(), StandardCharsets.UTF_8)).isEqualTo("employee-" + sequence);
+        }
+    }
+
+    // Appends until killed, printing each sequence once append() has returned.
+    static class CrashingWriter {
+
+        public static void main(String[] args) throws IOException {
+            IngestLog log = IngestLog.open(Paths.get(args[0]), SEGMENT_SIZE);
+            for (int i = 0; ; i++) {
+                System.out.println(log.append(payload(i)));
+                System.out.flush();
+            }
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return ("employee-" + i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> payloads(List<IngestLog.Record> records) {
+        return records.stream().map(record -> new String(record.payload(), StandardCharsets.UTF_8)).toList();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".log")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.springboottesting.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.model.Employee;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+public class EmployeeSerializersTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void givenViewsAndEntity_whenSerialize_thenMatchReflectiveOutput() throws Exception {
+        ObjectMapper reflective = JsonMapper.builder().disable(MapperFeature.USE_ANNOTATIONS).build();
+        List<EmployeeView> views = List.of(new EmployeeView(1, "Lucas", "Barbosa", "lucas@hotmail.com", 3L),
+                new EmployeeView(2, "Gabriela \"Gabi\"", "Barbosa", "gabriela@hotmail.com", null));
+        Employee employee = new Employee(7, "Lucas", "Barbosa", "lucas@hotmail.com", 0L, "default");
+        // Without annotations the reflective mapper also writes the @JsonIgnore'd tenant.
+        ObjectNode reflectiveEmployee = (ObjectNode) reflective.readTree(reflective.writeValueAsString(employee));
+        reflectiveEmployee.remove("tenantId");
+
+        assertThat(objectMapper.writeValueAsString(views)).isEqualTo(reflective.writeValueAsString(views));
+        assertThat(objectMapper.readTree(objectMapper.writeValueAsString(employee))).isEqualTo(reflectiveEmployee);
+    }
+
+    @Test
+    public void givenFieldSelection_whenSerializeView_thenWriteOnlySelectedFields() throws Exception {
+        EmployeeView view = new EmployeeView(1, "Lucas", "Barbosa", "lucas@hotmail.com", 3L);
+
+        String json = objectMapper.writer(EmployeeFields.of(List.of("email", "id")).filters()).writeValueAsString(view);
+
+        assertThat(json).isEqualTo("{\"id\":1,\"email\":\"lucas@hotmail.com\"}");
+        assertThat(EmployeeFields.of(List.of("email", "id"))).isSameAs(EmployeeFields.of(List.of("id", "email")));
+        assertThatThrownBy(() -> EmployeeFields.of(List.of("salary"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void givenCborMapper_whenSerializeView_thenReadBackSameTree() throws Exception {
+        EmployeeView view = new EmployeeView(1, "Lucas", "Barbosa", "lucas@hotmail.com", 3L);
+        CBORMapper cbor = new CBORMapper();
+
+        byte[] bytes = cbor.writeValueAsBytes(view);
+
+        JsonNode tree = cbor.readTree(bytes);
+        assertThat(tree).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsString(view)));
+        assertThat(bytes.length).isLessThan(objectMapper.writeValueAsBytes(view).length);
+    }
+}
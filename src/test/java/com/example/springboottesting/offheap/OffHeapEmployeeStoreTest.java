@@ -0,0 +1,192 @@
+package com.example.springboottesting.offheap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import com.example.springboottesting.model.Employee;
+
+public class OffHeapEmployeeStoreTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private OffHeapEmployeeStore store;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        store = OffHeapEmployeeStore.open(directory, SEGMENT_SIZE, 1000);
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        store.close();
+    }
+
+    @Test
+    public void givenInsertedEmployee_whenFoundByIdAndEmail_thenReturnSameEmployee() throws Exception {
+
+        Employee saved = store.insert(employee("lucas"));
+
+        assertThat(saved.getId()).isEqualTo(1);
+        assertThat(saved.getVersion()).isZero();
+        assertThat(store.findById(saved.getId())).usingRecursiveComparison().isEqualTo(saved);
+        assertThat(store.findByEmail("lucas@hotmail.com")).usingRecursiveComparison().isEqualTo(saved);
+        assertThat(store.findById(2)).isNull();
+        assertThat(store.findByEmail("gabi@hotmail.com")).isNull();
+    }
+
+    @Test
+    public void givenTakenEmail_whenInsert_thenThrowsAndBatchMarksDuplicates() throws Exception {
+
+        store.insert(employee("lucas"));
+
+        assertThatThrownBy(() -> store.insert(employee("lucas"))).isInstanceOf(DuplicateKeyException.class);
+        List<Employee> saved = store.insertAll(List.of(employee("gabi"), employee("lucas"), employee("gabi")));
+        assertThat(saved.get(0)).isNotNull();
+        assertThat(saved.get(1)).isNull();
+        assertThat(saved.get(2)).isNull();
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenStoredEmployee_whenUpdate_thenBumpVersionAndReindexEmail() throws Exception {
+
+        Employee saved = store.insert(employee("lucas"));
+        store.insert(employee("gabi"));
+
+        Employee updated = store.update(saved.getId(), 0L, null, null, "lucas.barbosa@hotmail.com");
+
+        assertThat(updated.getVersion()).isEqualTo(1);
+        assertThat(updated.getFirstName()).isEqualTo("Lucas");
+        assertThat(store.findByEmail("lucas@hotmail.com")).isNull();
+        assertThat(store.findByEmail("lucas.barbosa@hotmail.com").getId()).isEqualTo(saved.getId());
+        assertThatThrownBy(() -> store.update(saved.getId(), 0L, "Luke", null, null))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThatThrownBy(() -> store.update(saved.getId(), null, null, null, "gabi@hotmail.com"))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(store.update(99, null, "Luke", null, null)).isNull();
+    }
+
+    @Test
+    public void givenWrites_whenFindVersionAndLastSequence_thenTrackEveryChange() throws Exception {
+
+        Employee saved = store.insert(employee("lucas"));
+        long afterInsert = store.lastSequence();
+        store.update(saved.getId(), null, "Luke", null, null);
+
+        assertThat(store.findVersion(saved.getId())).isEqualTo(1);
+        assertThat(store.findVersion(99)).isNull();
+        assertThat(store.lastSequence()).isGreaterThan(afterInsert);
+
+        long afterUpdate = store.lastSequence();
+        store.delete(saved.getId());
+
+        assertThat(store.findVersion(saved.getId())).isNull();
+        assertThat(store.lastSequence()).isGreaterThan(afterUpdate);
+    }
+
+    @Test
+    public void givenDeletedEmployees_whenPaging_thenSkipThemInIdOrder() throws Exception {
+
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            employees.add(employee("employee" + i));
+        }
+        store.insertAll(employees);
+        store.delete(3);
+        store.delete(4);
+
+        assertThat(store.findAfter(2, 3)).extracting(Employee::getId).containsExactly(5L, 6L, 7L);
+        assertThat(store.findAfter(9, 3)).extracting(Employee::getId).containsExactly(10L);
+        assertThat(store.delete(3)).isFalse();
+
+        store.compact();
+
+        assertThat(store.findAfter(0, 100)).extracting(Employee::getId)
+                .containsExactly(1L, 2L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(store.findByEmail("employee9@hotmail.com").getId()).isEqualTo(10);
+    }
+
+    @Test
+    public void givenWritesBeforeAndAfterSnapshot_whenReopenWithoutClose_thenRecoverAll() throws Exception {
+
+        Employee lucas = store.insert(employee("lucas"));
+        Employee gabi = store.insert(employee("gabi"));
+        store.snapshot();
+        store.update(lucas.getId(), null, "Luke", null, null);
+        store.delete(gabi.getId());
+        store.insert(employee("ana"));
+
+        // No close(): the first store simply disappears, as in a crash.
+        OffHeapEmployeeStore recovered = OffHeapEmployeeStore.open(directory, SEGMENT_SIZE, 1000);
+        try {
+            assertThat(recovered.findAfter(0, 100)).extracting(Employee::getEmail)
+                    .containsExactly("lucas@hotmail.com", "ana@hotmail.com");
+            assertThat(recovered.findById(lucas.getId()).getFirstName()).isEqualTo("Luke");
+            assertThat(recovered.findById(lucas.getId()).getVersion()).isEqualTo(1);
+            // Ids are never handed out twice, even after the highest one was deleted.
+            recovered.delete(3);
+            assertThat(recovered.insert(employee("bia")).getId()).isEqualTo(4);
+        } finally {
+            recovered.close();
+        }
+
+        OffHeapEmployeeStore reopened = OffHeapEmployeeStore.open(directory, SEGMENT_SIZE, 1000);
+        try {
+            assertThat(reopened.findAfter(0, 100)).extracting(Employee::getId).containsExactly(1L, 4L);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    public void givenConcurrentWriter_whenReading_thenNeverSeeTornEmployees() throws Exception {
+
+        Employee saved = store.insert(employee("lucas"));
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (long version = 0; version < 300; version++) {
+                    store.update(saved.getId(), version, "Lucas" + (version + 1), "Barbosa" + (version + 1), null);
+                }
+                writing.set(false);
+                return null;
+            });
+            while (writing.get()) {
+                Employee read = store.findById(saved.getId());
+                assertThat(read.getFirstName()).isEqualTo("Lucas" + (read.getVersion() == 0 ? "" : read.getVersion()));
+                assertThat(read.getLastName()).isEqualTo("Barbosa" + (read.getVersion() == 0 ? "" : read.getVersion()));
+            }
+            writer.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Employee employee(String name) {
+        return Employee.builder()
+                .firstName(Character.toUpperCase(name.charAt(0)) + name.substring(1))
+                .lastName("Barbosa")
+                .email(name + "@hotmail.com")
+                .build();
+    }
+}
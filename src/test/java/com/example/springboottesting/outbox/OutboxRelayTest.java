@@ -0,0 +1,220 @@
+package com.example.springboottesting.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.springboottesting.datasource.TenantRoutingDataSource;
+import com.example.springboottesting.dto.EmployeeChange;
+import com.example.springboottesting.event.EmployeeChangedEvent.Type;
+import com.example.springboottesting.exception.ResourceNotFoundException;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.service.EmployeeService;
+import com.example.springboottesting.tenant.TenantContext;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// A long interval keeps the background relay out of the way; the tests relay explicitly, and the
+// stream picks the numbered rows up from the outbox.
+@SpringBootTest(properties = "app.outbox.relay.interval=1h")
+@ActiveProfiles("test")
+public class OutboxRelayTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private EmployeeChangeStream employeeChangeStream;
+
+    @Autowired
+    private EmployeeOutbox employeeOutbox;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private final BlockingQueue<EmployeeChange> received = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    public void setup() {
+        outboxRelay.relayBatch();
+    }
+
+    @Test
+    public void givenEmployeeMutations_whenRelayed_thenSubscriberReceivesNumberedChangesInOrder() throws Exception {
+        EmployeeChangeStream.Subscription subscription = subscribe(employeeChangeStream.lastPosition());
+        try {
+            Employee employee = employeeService.saveEmployee(employee());
+            employee.setFirstName("Gabriela");
+            employeeService.updateEmployee(employee.getId(), employee, null);
+            employeeService.deleteEmployee(employee.getId());
+
+            assertThat(outboxRelay.relayBatch()).isEqualTo(3);
+
+            List<EmployeeChange> changes = take(3);
+            assertThat(changes).extracting(EmployeeChange::type)
+                    .containsExactly(Type.CREATED, Type.UPDATED, Type.DELETED);
+            assertThat(changes).extracting(EmployeeChange::id).containsOnly(employee.getId());
+            assertThat(changes.get(1).employee().firstName()).isEqualTo("Gabriela");
+            assertThat(changes.get(2).employee()).isNull();
+            assertThat(changes.get(1).position()).isEqualTo(changes.get(0).position() + 1);
+            assertThat(changes.get(2).position()).isEqualTo(changes.get(1).position() + 1);
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    @Test
+    public void givenRelayedChanges_whenSubscribingFromEarlierPosition_thenCatchUpFromOutbox() throws Exception {
+        long since = employeeChangeStream.lastPosition();
+        Employee first = employeeService.saveEmployee(employee());
+        Employee second = employeeService.saveEmployee(employee());
+        outboxRelay.relayBatch();
+
+        EmployeeChangeStream.Subscription subscription = subscribe(since);
+        try {
+            assertThat(take(2)).extracting(EmployeeChange::id).containsExactly(first.getId(), second.getId());
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    @Test
+    public void givenDuplicateEmail_whenSaveEmployee_thenNoChangeIsRecorded() {
+        Employee employee = employeeService.saveEmployee(employee());
+        Employee duplicate = employee();
+        duplicate.setEmail(employee.getEmail());
+
+        assertThatThrownBy(() -> employeeService.saveEmployee(duplicate)).isInstanceOf(ResourceNotFoundException.class);
+
+        assertThat(outboxRelay.relayBatch()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenCommittedChange_whenVersionRead_thenChangesBeforeAndAfterRelay() {
+        String before = employeeOutbox.version();
+
+        employeeService.saveEmployee(employee());
+        String committed = employeeOutbox.version();
+        outboxRelay.relayBatch();
+
+        assertThat(committed).isNotEqualTo(before);
+        assertThat(employeeOutbox.version()).isNotEqualTo(committed);
+    }
+
+    @Test
+    public void givenQuietTenant_whenRelayedChangesPurged_thenItsVersionDoesNotMoveBack() {
+        String quietTenant = "quiet-" + UUID.randomUUID().toString().substring(0, 8);
+        String initial = TenantContext.call(quietTenant, employeeOutbox::version);
+        TenantContext.run(quietTenant, () -> {
+            employeeService.saveEmployee(employee());
+            employeeService.saveEmployee(employee());
+        });
+        employeeService.saveEmployee(employee());
+        outboxRelay.relayBatch();
+        String relayed = TenantContext.call(quietTenant, employeeOutbox::version);
+        long lastPosition = employeeOutbox.lastPosition();
+
+        assertThat(employeeOutbox.purgeRelayedBefore(Instant.now().plusSeconds(60))).isPositive();
+
+        assertThat(initial).isEqualTo("0.0");
+        assertThat(TenantContext.call(quietTenant, employeeOutbox::version)).isEqualTo(relayed);
+        assertThat(employeeOutbox.lastPosition()).isEqualTo(lastPosition);
+    }
+
+    @Test
+    public void givenTwoRelayingInstances_whenRelayingConcurrently_thenEveryChangeGetsOneUniquePosition()
+            throws Exception {
+        OutboxRelay otherInstance = new OutboxRelay(employeeOutbox, transactionTemplate, new SimpleMeterRegistry(),
+                applicationContext.getBeanProvider(TenantRoutingDataSource.class), Duration.ofHours(1),
+                Duration.ofDays(1));
+        long since = employeeChangeStream.lastPosition();
+        for (int i = 0; i < 20; i++) {
+            employeeService.saveEmployee(employee());
+        }
+
+        CompletableFuture<Integer> other = CompletableFuture.supplyAsync(otherInstance::relayBatch);
+        int relayed = outboxRelay.relayBatch() + other.get(10, TimeUnit.SECONDS);
+
+        assertThat(relayed).isEqualTo(20);
+        EmployeeChangeStream.Subscription subscription = subscribe(since);
+        try {
+            assertThat(take(20)).extracting(EmployeeChange::position)
+                    .containsExactlyElementsOf(LongStream.rangeClosed(since + 1, since + 20).boxed().toList());
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    @Test
+    public void givenChangesRelayedByAnotherInstance_whenSubscribed_thenStreamFollowsThem() throws Exception {
+        OutboxRelay otherInstance = new OutboxRelay(employeeOutbox, transactionTemplate, new SimpleMeterRegistry(),
+                applicationContext.getBeanProvider(TenantRoutingDataSource.class), Duration.ofHours(1),
+                Duration.ofDays(1));
+        EmployeeChangeStream.Subscription subscription = subscribe(employeeChangeStream.lastPosition());
+        try {
+            Employee employee = employeeService.saveEmployee(employee());
+
+            otherInstance.relayBatch();
+
+            assertThat(take(1)).extracting(EmployeeChange::id).containsExactly(employee.getId());
+        } finally {
+            subscription.cancel();
+        }
+    }
+
+    private EmployeeChangeStream.Subscription subscribe(long since) {
+        return employeeChangeStream.subscribe(since, new EmployeeChangeStream.Listener() {
+
+            @Override
+            public void onChanges(List<EmployeeChange> changes) {
+                received.addAll(changes);
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+            }
+        });
+    }
+
+    private List<EmployeeChange> take(int count) throws InterruptedException {
+        List<EmployeeChange> changes = new ArrayList<>();
+        while (changes.size() < count) {
+            EmployeeChange change = received.poll(5, TimeUnit.SECONDS);
+            assertThat(change).as("change %d of %d", changes.size() + 1, count).isNotNull();
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    private static Employee employee() {
+        return Employee.builder()
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email(UUID.randomUUID() + "@hotmail.com")
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.springboottesting.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void givenLimitReached_whenTryAcquire_thenRefuseUntilReleased() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, THRESHOLD, 0.5);
+
+        int first = limiter.tryAcquire();
+        assertThat(first).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isEqualTo(2);
+        assertThat(limiter.tryAcquire()).isZero();
+
+        limiter.release(first, 0);
+
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isPositive();
+    }
+
+    @Test
+    public void givenSlowRequests_whenReleased_thenShrinkLimitDownToMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 2, 10, THRESHOLD, 0.5);
+
+        limiter.release(limiter.tryAcquire(), 2 * THRESHOLD);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.release(limiter.tryAcquire(), 2 * THRESHOLD);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenFastRequests_whenLimitIsBusy_thenGrowLimitUpToMaximum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 5, THRESHOLD, 0.5);
+
+        // A lone fast request on an idle limiter says nothing about capacity.
+        limiter.release(limiter.tryAcquire(), 0);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        int first = limiter.tryAcquire();
+        int second = limiter.tryAcquire();
+        limiter.release(second, 0);
+        limiter.release(first, 0);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        limiter.tryAcquire();
+        limiter.release(limiter.tryAcquire(), 0);
+        limiter.release(limiter.tryAcquire(), 0);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.springboottesting.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.example.springboottesting.config.RateLimitProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RateLimitFilterTest {
+
+    private MeterRegistry meterRegistry;
+
+    private RateLimitProperties properties;
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    public void setup() {
+        properties = new RateLimitProperties();
+        properties.setList(new RateLimitProperties.Budget(0.001, 2));
+        properties.getConcurrency().setInitialLimit(2);
+        properties.getConcurrency().setMinLimit(1);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(properties, meterRegistry);
+    }
+
+    @Test
+    public void givenListBudgetUsedUp_whenListAgain_thenReturnTooManyRequestsWithRetryAfter() throws Exception {
+        assertThat(perform("GET", "/employees", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(perform("GET", "/employees/page", "10.0.0.1").getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse response = perform("GET", "/employees", "10.0.0.1");
+
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(response.getHeader("Retry-After"))).isPositive();
+        assertThat(meterRegistry.get(RateLimitFilter.REJECTED).tag("budget", "list").tag("reason", "rate_limit")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenListBudgetUsedUp_whenGetByIdOrOtherClient_thenStillServed() throws Exception {
+        perform("GET", "/employees", "10.0.0.1");
+        perform("GET", "/employees", "10.0.0.1");
+
+        assertThat(perform("GET", "/employees/1", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(perform("GET", "/employees", "10.0.0.2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void givenConcurrencyLimitReached_whenRequest_thenReturnServiceUnavailable() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = filter.getConcurrencyLimiter();
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        MockHttpServletResponse response = perform("GET", "/employees/1", "10.0.0.1");
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    public void givenRequests_whenClassified_thenGroupByCost() {
+        assertThat(EndpointBudget.of(new MockHttpServletRequest("GET", "/employees/42"))).isEqualTo(EndpointBudget.BY_ID);
+        assertThat(EndpointBudget.of(new MockHttpServletRequest("GET", "/employees/search"))).isEqualTo(EndpointBudget.LIST);
+        assertThat(EndpointBudget.of(new MockHttpServletRequest("GET", "/employees/stream"))).isEqualTo(EndpointBudget.EXPORT);
+        assertThat(EndpointBudget.of(new MockHttpServletRequest("GET", "/employees/changes"))).isEqualTo(EndpointBudget.EXPORT);
+        assertThat(EndpointBudget.of(new MockHttpServletRequest("POST", "/employees"))).isEqualTo(EndpointBudget.WRITE);
+        assertThat(EndpointBudget.of(new MockHttpServletRequest("DELETE", "/employees/42"))).isEqualTo(EndpointBudget.WRITE);
+    }
+
+    @Test
+    public void givenNoClientHeaderConfigured_whenClientIdRotates_thenStillOneBucketPerAddress() throws Exception {
+        perform("GET", "/employees", "10.0.0.1", "id-1");
+        perform("GET", "/employees", "10.0.0.1", "id-2");
+
+        assertThat(perform("GET", "/employees", "10.0.0.1", "id-3").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    public void givenClientHeaderFromTrustedProxy_whenRequest_thenBucketPerClientId() throws Exception {
+        properties.setClientHeader("X-Client-Id");
+        properties.setTrustedProxies(Set.of("10.0.0.100"));
+        perform("GET", "/employees", "10.0.0.100", "id-1");
+        perform("GET", "/employees", "10.0.0.100", "id-1");
+
+        assertThat(perform("GET", "/employees", "10.0.0.100", "id-2").getStatus()).isEqualTo(200);
+        perform("GET", "/employees", "10.0.0.1", "id-3");
+        perform("GET", "/employees", "10.0.0.1", "id-4");
+        assertThat(perform("GET", "/employees", "10.0.0.1", "id-5").getStatus()).isEqualTo(429);
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String address) throws Exception {
+        return perform(method, uri, address, null);
+    }
+
+    private MockHttpServletResponse perform(String method, String uri, String address, String clientId)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(address);
+        if (clientId != null) {
+            request.addHeader("X-Client-Id", clientId);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.springboottesting.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void givenFullBucket_whenBurstExceedsCapacity_thenRejectWithWaitUntilNextToken() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(10, 3, now);
+
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isZero();
+        assertThat(bucket.tryAcquire(now)).isZero();
+
+        assertThat(bucket.tryAcquire(now)).isEqualTo(SECOND / 10);
+    }
+
+    @Test
+    public void givenEmptyBucket_whenTimePasses_thenRefillAtRateUpToCapacity() {
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(10, 3, now);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire(now);
+        }
+
+        assertThat(bucket.tryAcquire(now + SECOND / 10)).isZero();
+        assertThat(bucket.tryAcquire(now + SECOND / 10)).isPositive();
+
+        long later = now + 60 * SECOND;
+        int granted = 0;
+        while (bucket.tryAcquire(later) == 0) {
+            granted++;
+        }
+        assertThat(granted).isEqualTo(3);
+    }
+
+    @Test
+    public void givenConcurrentClients_whenAcquireAtSameInstant_thenGrantExactlyCapacity() throws Exception {
+        long now = System.nanoTime();
+        TokenBucket bucket = new TokenBucket(0.001, 100, now);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    if (bucket.tryAcquire(now) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(granted).hasValue(100);
+    }
+}
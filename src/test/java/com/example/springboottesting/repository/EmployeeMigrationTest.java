@@ -0,0 +1,71 @@
+package com.example.springboottesting.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.example.springboottesting.model.Employee;
+
+// Upgrading a database that ddl-auto=update created for the original entity (IDENTITY ids, no
+// unique email constraint) with the migrations, as spring.flyway.baseline-on-migrate does.
+public class EmployeeMigrationTest {
+
+    private DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table employees (id bigint generated by default as identity,"
+                + " email varchar(255) not null, first_name varchar(255) not null, last_name varchar(255) not null,"
+                + " primary key (id))");
+        for (int i = 0; i < 120; i++) {
+            jdbcTemplate.update("insert into employees (email, first_name, last_name) values (?, 'Lucas', 'Barbosa')",
+                    "user" + i + "@hotmail.com");
+        }
+    }
+
+    @Test
+    public void givenBaselineIdentitySchemaWithRows_whenMigrated_thenSequenceHandsOutUnusedIds() {
+
+        migrate();
+
+        long maxId = jdbcTemplate.queryForObject("select max(id) from employees", Long.class);
+        long hi = jdbcTemplate.queryForObject("select next value for " + Employee.ID_SEQUENCE, Long.class);
+        // The block handed out by a sequence value ends at that value.
+        assertThat(hi - Employee.ID_ALLOCATION_SIZE + 1).isGreaterThan(maxId);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from employees where tenant_id = 'default'",
+                Long.class)).isEqualTo(120);
+    }
+
+    @Test
+    public void givenBaselineSchemaWithoutEmailConstraint_whenMigrated_thenDuplicateEmailRejected() {
+
+        migrate();
+
+        assertThatThrownBy(() -> jdbcTemplate.update("insert into employees (id, first_name, last_name, email)"
+                + " values (100000, 'Lucas', 'Barbosa', 'user1@hotmail.com')"))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining(Employee.EMAIL_CONSTRAINT.toUpperCase());
+    }
+
+    private void migrate() {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+}
@@ -2,14 +2,22 @@ package com.example.springboottesting.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.hibernate.engine.spi.SessionImplementor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import com.example.springboottesting.dto.EmployeeView;
 import com.example.springboottesting.model.Employee;
 
 @DataJpaTest
@@ -18,6 +26,12 @@ public class EmployeeRepositoryTests {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Employee employee;
 
     @BeforeEach
@@ -117,4 +131,110 @@ public class EmployeeRepositoryTests {
         assertThat(savEmployee).isNotNull();
     }
 
+    @Test
+    public void givenEmployeesList_whenFindViewsAfter_thenReturnUnmanagedRowsInIdOrder() {
+
+        Employee employee1 = Employee.builder()
+                .firstName("Gabriela")
+                .lastName("Barbosa")
+                .email("gabriela@hotmail.com").build();
+
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<EmployeeView> views = employeeRepository.findViewsAfter(0, PageRequest.of(0, 10));
+
+        assertThat(views).extracting(EmployeeView::email).containsExactly("lucas@hotmail.com", "gabriela@hotmail.com");
+        assertThat(views.get(0).version()).isZero();
+        assertThat(entityManager.getEntityManager().unwrap(SessionImplementor.class)
+                .getPersistenceContext().getNumberOfManagedEntities()).isZero();
+    }
+
+    @Test
+    public void givenEmployeesList_whenStreamAll_thenVisitEveryRowInIdOrder() {
+
+        Employee employee1 = Employee.builder()
+                .firstName("Gabriela")
+                .lastName("Barbosa")
+                .email("gabriela@hotmail.com").build();
+
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+        employeeRepository.flush();
+
+        List<String> emails = new ArrayList<>();
+        employeeRepository.streamAll(1, streamed -> emails.add(streamed.getEmail()));
+
+        assertThat(emails).containsExactly("lucas@hotmail.com", "gabriela@hotmail.com");
+    }
+
+    @Test
+    public void givenEmployeeObject_whenFindExistingEmails_thenReturnOnlyKnownEmails() {
+
+        employeeRepository.save(employee);
+
+        List<String> existingEmails = employeeRepository.findExistingEmails(
+                List.of("lucas@hotmail.com", "gabriela@hotmail.com"));
+
+        assertThat(existingEmails).containsExactly("lucas@hotmail.com");
+    }
+
+    @Test
+    public void givenExistingEmail_whenSaveAndFlush_thenUniqueConstraintRejectsDuplicate() {
+
+        employeeRepository.saveAndFlush(employee);
+
+        Employee duplicate = Employee.builder()
+                .firstName("Luke")
+                .lastName("Barbosa")
+                .email("lucas@hotmail.com").build();
+
+        org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeRepository.saveAndFlush(duplicate);
+        });
+    }
+
+    @Test
+    public void givenExpectedVersion_whenUpdateIfVersionTwice_thenSecondWriterLoses() {
+
+        employeeRepository.saveAndFlush(employee);
+        long version = employee.getVersion();
+
+        int first = employeeRepository.updateIfVersion(employee.getId(), version, Map.of("firstName", "Gabi"));
+        int second = employeeRepository.updateIfVersion(employee.getId(), version, Map.of("lastName", "Silva"));
+
+        assertThat(first).isEqualTo(1);
+        assertThat(second).isZero();
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "select first_name, last_name, version from employees where id = ?", employee.getId());
+        assertThat(row.get("FIRST_NAME")).isEqualTo("Gabi");
+        assertThat(row.get("LAST_NAME")).isEqualTo("Barbosa");
+        assertThat(row.get("VERSION")).isEqualTo(version + 1);
+    }
+
+    @Test
+    public void givenEmailLookup_whenExplain_thenUsesUniqueEmailIndex() {
+
+        // Hibernate's tenant filter adds the tenant_id predicate to every employee query.
+        String plan = explain("select id, first_name, last_name, email from employees"
+                + " where tenant_id = 'default' and email = 'lucas@hotmail.com'");
+
+        assertThat(plan.toUpperCase()).contains("UK_EMPLOYEES_EMAIL");
+    }
+
+    @Test
+    public void givenNameLookup_whenExplain_thenUsesNameIndex() {
+
+        String plan = explain("select id, first_name, last_name, email from employees"
+                + " where tenant_id = 'default' and first_name = 'Lucas' and last_name = 'Barbosa'");
+
+        assertThat(plan.toUpperCase()).contains("IDX_EMPLOYEES_NAME");
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class));
+    }
+
 }
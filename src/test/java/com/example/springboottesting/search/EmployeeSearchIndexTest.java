@@ -0,0 +1,194 @@
+package com.example.springboottesting.search;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.springboottesting.dto.EmployeeChange;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.outbox.EmployeeChangeStream;
+import com.example.springboottesting.repository.EmployeeRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeSearchIndexTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeChangeStream employeeChangeStream;
+
+    @InjectMocks
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    private Employee lucas;
+
+    private Employee maria;
+
+    @BeforeEach
+    public void setup() {
+        lucas = Employee.builder()
+                .id(1L)
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email("lucas@hotmail.com").build();
+        maria = Employee.builder()
+                .id(2L)
+                .firstName("Maria")
+                .lastName("Barros")
+                .email("maria@gmail.com").build();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void givenStoredEmployees_whenLoad_thenIndexAll() {
+
+        willAnswer(invocation -> {
+            Consumer<Employee> action = invocation.getArgument(1);
+            action.accept(lucas);
+            action.accept(maria);
+            return null;
+        }).given(employeeRepository).streamAll(anyInt(), any(Consumer.class));
+        givenStoredEmployees();
+
+        employeeSearchIndex.load();
+
+        assertThat(employeeSearchIndex.size()).isEqualTo(2);
+        assertThat(employeeSearchIndex.search("bar", 10)).extracting(Employee::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    public void givenIndexedEmployees_whenSearchByPrefix_thenMatchAnyField() {
+
+        employeeSearchIndex.index(lucas);
+        employeeSearchIndex.index(maria);
+
+        assertThat(employeeSearchIndex.search("Luc", 10)).extracting(Employee::getId).containsExactly(1L);
+        assertThat(employeeSearchIndex.search("barr", 10)).extracting(Employee::getId).containsExactly(2L);
+        assertThat(employeeSearchIndex.search("maria@g", 10)).extracting(Employee::getId).containsExactly(2L);
+        assertThat(employeeSearchIndex.search("zzz", 10)).isEmpty();
+    }
+
+    @Test
+    public void givenSeveralTerms_whenSearch_thenEveryTermMustMatch() {
+
+        employeeSearchIndex.index(lucas);
+        employeeSearchIndex.index(maria);
+
+        List<Employee> results = employeeSearchIndex.search("bar mar", 10);
+
+        assertThat(results).extracting(Employee::getId).containsExactly(2L);
+    }
+
+    @Test
+    public void givenManyMatches_whenSearch_thenRespectLimit() {
+
+        employeeSearchIndex.index(lucas);
+        employeeSearchIndex.index(maria);
+
+        assertThat(employeeSearchIndex.search("bar", 1)).hasSize(1);
+    }
+
+    @Test
+    public void givenChangedEvents_whenOnEmployeeChanged_thenFollowUpdatesAndDeletes() {
+
+        givenStoredEmployees();
+        employeeSearchIndex.load();
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.created(lucas));
+        lucas.setLastName("Silva");
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.updated(lucas));
+
+        assertThat(employeeSearchIndex.search("barbosa", 10)).isEmpty();
+        assertThat(employeeSearchIndex.search("silva", 10)).extracting(Employee::getLastName).containsExactly("Silva");
+
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(lucas.getId()));
+
+        assertThat(employeeSearchIndex.search("lucas", 10)).isEmpty();
+        assertThat(employeeSearchIndex.size()).isZero();
+    }
+
+    @Test
+    public void givenChangesFromOtherInstances_whenFeedDelivers_thenFollowThemAndKeepVersions() throws Exception {
+        ArgumentCaptor<EmployeeChangeStream.Listener> follower =
+                ArgumentCaptor.forClass(EmployeeChangeStream.Listener.class);
+        given(employeeChangeStream.lastPosition()).willReturn(7L);
+        givenStoredEmployees();
+        employeeSearchIndex.load();
+        verify(employeeChangeStream).subscribe(eq(7L), follower.capture());
+
+        follower.getValue().onChanges(List.of(
+                new EmployeeChange(8, EmployeeChangedEvent.Type.CREATED, 1L,
+                        new EmployeeView(1L, "Lucas", "Barbosa", "lucas@hotmail.com", 0L)),
+                new EmployeeChange(9, EmployeeChangedEvent.Type.UPDATED, 1L,
+                        new EmployeeView(1L, "Lucas", "Silva", "lucas@hotmail.com", 1L)),
+                new EmployeeChange(10, EmployeeChangedEvent.Type.CREATED, 2L,
+                        new EmployeeView(2L, "Maria", "Barros", "maria@gmail.com", 0L))));
+        // Replayed as an event after the feed moved on.
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.created(Employee.builder()
+                .id(1L)
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email("lucas@hotmail.com")
+                .version(0L).build()));
+
+        assertThat(employeeSearchIndex.search("silva", 10)).extracting(Employee::getVersion).containsExactly(1L);
+        assertThat(employeeSearchIndex.search("barbosa", 10)).isEmpty();
+
+        follower.getValue().onChanges(List.of(new EmployeeChange(11, EmployeeChangedEvent.Type.DELETED, 2L, null)));
+
+        assertThat(employeeSearchIndex.search("maria", 10)).isEmpty();
+    }
+
+    @Test
+    public void givenTenantWithoutEmployees_whenSearchAndChangeEvent_thenNoIndexIsCreated() {
+
+        assertThat(employeeSearchIndex.search("lucas", 10)).isEmpty();
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.deleted(lucas.getId()));
+
+        assertThat(employeeSearchIndex.size()).isZero();
+        verify(employeeChangeStream, never()).subscribe(anyLong(), any());
+        verify(employeeRepository, never()).streamAll(anyInt(), any());
+    }
+
+    @Test
+    public void givenLoadedIndex_whenSubscriptionFails_thenDropIndexAndCancelSubscription() {
+        EmployeeChangeStream.Subscription subscription = mock(EmployeeChangeStream.Subscription.class);
+        ArgumentCaptor<EmployeeChangeStream.Listener> follower =
+                ArgumentCaptor.forClass(EmployeeChangeStream.Listener.class);
+        given(employeeChangeStream.subscribe(anyLong(), follower.capture())).willReturn(subscription);
+        givenStoredEmployees();
+        employeeSearchIndex.load();
+        employeeSearchIndex.onEmployeeChanged(EmployeeChangedEvent.created(lucas));
+
+        follower.getValue().onFailure(new IllegalStateException("behind"));
+
+        assertThat(employeeSearchIndex.size()).isZero();
+        verify(subscription, timeout(5000)).cancel();
+    }
+
+    private void givenStoredEmployees() {
+        given(employeeRepository.findAllViews(any())).willReturn(List.of(EmployeeView.of(lucas)));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.springboottesting.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.springboottesting.config.CacheConfig;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.tenant.TenantContext;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class EmployeeServiceCacheTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Employee employee;
+
+    @BeforeEach
+    public void setup() {
+        employee = employeeService.saveEmployee(Employee.builder()
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email("lucas@hotmail.com").build());
+        cacheManager.getCache(CacheConfig.EMPLOYEES).clear();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        employeeRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    public void givenEmployeeId_whenGetEmployeeByIdTwice_thenSecondCallServedFromCache() {
+
+        employeeService.getEmployeeById(employee.getId());
+        // A row removed behind the cache's back is still served from the cache.
+        employeeRepository.deleteById(employee.getId());
+
+        assertThat(employeeService.getEmployeeById(employee.getId())).isPresent();
+    }
+
+    @Test
+    public void givenUnknownEmployeeId_whenGetEmployeeById_thenMissIsNotCached() {
+
+        assertThat(employeeService.getEmployeeById(-1L)).isEmpty();
+
+        assertThat(employeesCache().get(TenantContext.key(-1L))).isNull();
+    }
+
+    @Test
+    public void givenCachedEmployee_whenUpdateEmployee_thenCacheHoldsUpdatedEmployee() {
+
+        employeeService.getEmployeeById(employee.getId());
+
+        employeeService.updateEmployee(employee.getId(), Employee.builder()
+                .firstName("Luke")
+                .lastName("Barbosa")
+                .email("luke@hotmail.com").build(), null);
+
+        assertThat(employeeService.getEmployeeById(employee.getId()).get().getFirstName()).isEqualTo("Luke");
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_EMAIL).get(TenantContext.key("lucas@hotmail.com"))).isNull();
+    }
+
+    @Test
+    public void givenCachedEmployee_whenDeleteEmployee_thenEntryEvicted() {
+
+        employeeService.getEmployeeById(employee.getId());
+
+        employeeService.deleteEmployee(employee.getId());
+
+        assertThat(employeesCache().get(TenantContext.key(employee.getId()))).isNull();
+        assertThat(employeeService.getEmployeeById(employee.getId())).isEmpty();
+    }
+
+    @Test
+    public void givenKnownEmail_whenFindByEmail_thenServedFromCache() {
+
+        employeeRepository.findByEmail(employee.getEmail());
+
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_BY_EMAIL).get(TenantContext.key(employee.getEmail()))).isNotNull();
+    }
+
+    private Cache employeesCache() {
+        return cacheManager.getCache(CacheConfig.EMPLOYEES);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.springboottesting.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.service.impl.EmployeeServiceImpl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class EmployeeServiceMetricsTest {
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    public void cleanup() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    public void givenServiceCalls_whenReadTimer_thenCountedPerMethodOnCacheMisses() {
+
+        Employee employee = employeeService.saveEmployee(Employee.builder()
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email("lucas@hotmail.com").build());
+        employeeService.getEmployeeById(employee.getId());
+        employeeService.getAllEmployees();
+
+        assertThat(meterRegistry.get(EmployeeServiceImpl.TIMER).tag("method", "saveEmployee").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(EmployeeServiceImpl.TIMER).tag("method", "getAllEmployees").timer().count())
+                .isEqualTo(1);
+        // Served by the cache put on save, which sits in front of the timer.
+        assertThat(meterRegistry.find(EmployeeServiceImpl.TIMER).tag("method", "getEmployeeById").timer())
+                .isNull();
+    }
+
+    @Test
+    public void givenServiceCall_whenScrapePrometheus_thenExposeHistogramBuckets() throws Exception {
+
+        employeeService.getAllEmployees();
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string(org.hamcrest.Matchers.containsString(
+                        "employee_service_seconds_bucket{class=\"com.example.springboottesting.service.impl.EmployeeServiceImpl\"")))
+                .andExpect(MockMvcResultMatchers.content().string(org.hamcrest.Matchers.containsString(
+                        "spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(MockMvcResultMatchers.content().string(org.hamcrest.Matchers.containsString(
+                        "hikaricp_connections_active")))
+                .andExpect(MockMvcResultMatchers.content().string(org.hamcrest.Matchers.containsString(
+                        "cache_gets_total")));
+    }
+}
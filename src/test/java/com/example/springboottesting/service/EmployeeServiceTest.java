@@ -1,27 +1,51 @@
 package com.example.springboottesting.service;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.BDDMockito;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.springboottesting.cache.EmployeeByIdLoader;
+import com.example.springboottesting.cache.KnownEmails;
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.dto.EmployeePage;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.exception.BadRequestException;
+import com.example.springboottesting.exception.PreconditionFailedException;
 import com.example.springboottesting.exception.ResourceNotFoundException;
 import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.outbox.EmployeeOutbox;
 import com.example.springboottesting.repository.EmployeeRepository;
 import com.example.springboottesting.service.impl.EmployeeServiceImpl;
 
@@ -31,6 +55,21 @@ public class EmployeeServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EmployeeByIdLoader employeeByIdLoader;
+
+    @Mock
+    private EmployeeOutbox employeeOutbox;
+
+    @Mock
+    private KnownEmails knownEmails;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -51,10 +90,8 @@ public class EmployeeServiceTest {
     @Test
     public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject() {
 
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.empty());
-
-        given(employeeRepository.save(employee))
+        givenTransactionTemplateRunsCallbacks();
+        given(employeeRepository.saveAndFlush(employee))
                 .willReturn(employee);
 
         Employee savedEmployee = employeeService.saveEmployee(employee);
@@ -62,17 +99,43 @@ public class EmployeeServiceTest {
         assertThat(savedEmployee).isNotNull();
     }
 
+    @Test
+    public void givenEmployeeObject_whenSaveEmployee_thenPublishCreatedEvent() {
+
+        givenTransactionTemplateRunsCallbacks();
+        given(employeeRepository.saveAndFlush(employee))
+                .willReturn(employee);
+
+        employeeService.saveEmployee(employee);
+
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.created(employee));
+    }
+
     @Test
     public void givenExistEmail_whenSaveEmployee_thenThrowsexception() {
 
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
+        givenTransactionTemplateRunsCallbacks();
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException(
+                        "Unique index or primary key violation: \"PUBLIC.UK_EMPLOYEES_EMAIL_INDEX_1\""));
 
         org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
             employeeService.saveEmployee(employee);
         });
 
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    public void givenOtherConstraintViolation_whenSaveEmployee_thenRethrowsViolation() {
+
+        givenTransactionTemplateRunsCallbacks();
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(new DataIntegrityViolationException("NULL not allowed for column \"FIRST_NAME\""));
+
+        org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeService.saveEmployee(employee);
+        });
     }
 
     @Test
@@ -84,15 +147,26 @@ public class EmployeeServiceTest {
                 .lastName("Barbosa")
                 .email("gabriela@hotmail.com").build();
 
-        given(employeeRepository.findAll())
-                .willReturn(List.of(employee, employee1));
+        given(employeeRepository.findAllViews(any(Pageable.class)))
+                .willReturn(List.of(EmployeeView.of(employee), EmployeeView.of(employee1)));
 
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
 
         assertThat(employeeList).isNotNull();
         assertThat(employeeList.size()).isEqualTo(2);
     }
 
+    @Test
+    public void givenMoreEmployeesThanListLimit_whenGetAllEmployees_thenBadRequest() {
+
+        given(employeeRepository.findAllViews(any(Pageable.class)))
+                .willReturn(Collections.nCopies(EmployeeServiceImpl.MAX_LIST_SIZE + 1, EmployeeView.of(employee)));
+
+        assertThatThrownBy(() -> employeeService.getAllEmployees())
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("/employees/page");
+    }
+
     @Test
     public void givenEmptyEmployeesList_whenGetAllEmployees_thenReturnEmptyEmployeeList() {
 
@@ -102,19 +176,71 @@ public class EmployeeServiceTest {
                 .lastName("Barbosa")
                 .email("gabriela@hotmail.com").build();
 
-        given(employeeRepository.findAll())
+        given(employeeRepository.findAllViews(any(Pageable.class)))
                 .willReturn(Collections.emptyList());
 
-        List<Employee> employeeList = employeeService.getAllEmployees();
+        List<EmployeeView> employeeList = employeeService.getAllEmployees();
 
         assertThat(employeeList).isEmpty();
         assertThat(employeeList.size()).isEqualTo(0);
     }
 
+    @Test
+    public void givenMoreRowsThanPageSize_whenGetEmployeesPage_thenReturnPageWithNextCursor() {
+
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Gabriela")
+                .lastName("Barbosa")
+                .email("gabriela@hotmail.com").build();
+
+        given(employeeRepository.findViewsAfter(0L, PageRequest.of(0, 2)))
+                .willReturn(List.of(EmployeeView.of(employee), EmployeeView.of(employee1)));
+
+        EmployeePage page = employeeService.getEmployeesPage(null, 1);
+
+        assertThat(page.getContent()).containsExactly(EmployeeView.of(employee));
+        assertThat(page.getNextCursor()).isNotNull();
+
+        given(employeeRepository.findViewsAfter(1L, PageRequest.of(0, 2)))
+                .willReturn(List.of(EmployeeView.of(employee1)));
+
+        EmployeePage nextPage = employeeService.getEmployeesPage(page.getNextCursor(), 1);
+
+        assertThat(nextPage.getContent()).containsExactly(EmployeeView.of(employee1));
+        assertThat(nextPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void givenInvalidCursor_whenGetEmployeesPage_thenThrowsException() {
+
+        org.junit.jupiter.api.Assertions.assertThrows(BadRequestException.class, () -> {
+            employeeService.getEmployeesPage("not-a-cursor", 10);
+        });
+
+        verify(employeeRepository, never()).findViewsAfter(anyLong(), any());
+    }
+
+    @Test
+    public void givenEmployees_whenStreamEmployees_thenDelegateToCursor() {
+
+        BDDMockito.willAnswer(invocation -> {
+            Consumer<Employee> action = invocation.getArgument(1);
+            action.accept(employee);
+            return null;
+        }).given(employeeRepository).streamAll(anyInt(), any());
+
+        List<Employee> streamed = new ArrayList<>();
+        employeeService.streamEmployees(streamed::add);
+
+        assertThat(streamed).containsExactly(employee);
+        verify(employeeRepository).streamAll(eq(500), any());
+    }
+
     @Test
     public void givenEmployeeId_whenGetEmployeeById_thenReturnEmployeeObject() {
 
-        given(employeeRepository.findById(employee.getId()))
+        given(employeeByIdLoader.findById(employee.getId()))
                 .willReturn(Optional.of(employee));
 
         Employee savedEmployee = employeeService.getEmployeeById(employee.getId()).get();
@@ -123,47 +249,229 @@ public class EmployeeServiceTest {
     }
 
     @Test
-public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() {
-    // Suponha que você tenha um ID de funcionário válido, por exemplo, 1L
-    long employeeId = 1L;
+    public void givenEmployeeObject_whenUpdateEmployee_thenReturnUpdatedEmployee() {
+        givenTransactionTemplateRunsCallbacks();
+        long employeeId = 1L;
+        employee.setEmail("Gabriela@hotmail.com");
+        employee.setFirstName("Gabriela");
+
+        given(employeeRepository.updateIfVersion(eq(employeeId), eq(3L), any()))
+                .willReturn(1);
+
+        Employee updatedEmployee = employeeService.updateEmployee(employeeId, employee, 3L);
+
+        assertThat(updatedEmployee.getEmail()).isEqualTo("Gabriela@hotmail.com");
+        assertThat(updatedEmployee.getFirstName()).isEqualTo("Gabriela");
+        assertThat(updatedEmployee.getVersion()).isEqualTo(4L);
+        // The expected version plus the request body already describe the new row.
+        verify(employeeRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenThrowsPreconditionFailed() {
+        givenTransactionTemplateRunsCallbacks();
 
-    // Defina o ID do funcionário no objeto employee
-    employee.setId(employeeId);
+        given(employeeRepository.updateIfVersion(eq(1L), eq(2L), any()))
+                .willReturn(0);
+        given(employeeRepository.existsById(1L))
+                .willReturn(true);
 
-    // Configure o comportamento do employeeRepository para retornar um Optional contendo o funcionário
-    given(employeeRepository.findById(employeeId))
-            .willReturn(Optional.of(employee));
+        org.junit.jupiter.api.Assertions.assertThrows(PreconditionFailedException.class, () -> {
+            employeeService.updateEmployee(1L, employee, 2L);
+        });
 
-    given(employeeRepository.save(employee))
-            .willReturn((employee));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
 
-    employee.setEmail("Gabriela@hotmail.com");
-    employee.setFirstName("Gabriela");
+    @Test
+    public void givenMissingEmployee_whenUpdateEmployee_thenThrowsResourceNotFound() {
+        givenTransactionTemplateRunsCallbacks();
 
-    // Atualize o método para passar o ID e os detalhes do funcionário
-    Employee updatedEmployee = employeeService.updateEmployee(employeeId, employee);
+        given(employeeRepository.updateIfVersion(eq(1L), eq(null), any()))
+                .willReturn(0);
+        given(employeeRepository.existsById(1L))
+                .willReturn(false);
 
-    assertThat(updatedEmployee.getEmail()).isEqualTo("Gabriela@hotmail.com");
-    assertThat(updatedEmployee.getFirstName()).isEqualTo("Gabriela");
-    
-    
-}
-    
-    
-    
-    
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.updateEmployee(1L, employee, null);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void givenChangedFields_whenPatchEmployee_thenUpdateOnlyThoseColumns() {
+        givenTransactionTemplateRunsCallbacks();
+        Employee changedFields = Employee.builder()
+                .email("gabi@hotmail.com").build();
+
+        given(employeeRepository.updateIfVersion(eq(1L), eq(null), any()))
+                .willReturn(1);
+        given(employeeRepository.findById(1L))
+                .willReturn(Optional.of(employee));
+
+        employeeService.patchEmployee(1L, changedFields, null);
+
+        ArgumentCaptor<Map<String, Object>> changes = ArgumentCaptor.forClass(Map.class);
+        verify(employeeRepository).updateIfVersion(eq(1L), eq(null), changes.capture());
+        assertThat(changes.getValue()).containsOnly(Map.entry("email", "gabi@hotmail.com"));
+    }
+
+    @Test
+    public void givenEmployeeObject_whenSaveEmployee_thenRecordCreatedChangeInOutbox() {
+
+        givenTransactionTemplateRunsCallbacks();
+        given(employeeRepository.saveAndFlush(employee))
+                .willReturn(employee);
+
+        employeeService.saveEmployee(employee);
+
+        verify(employeeOutbox).record(EmployeeChangedEvent.created(employee));
+    }
 
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenNothing() {
 
-        BDDMockito.willDoNothing().given(employeeRepository)
-                .deleteById(employee.getId());
+        givenTransactionTemplateRunsCallbacks();
+        given(employeeRepository.deleteRowById(employee.getId()))
+                .willReturn(1);
 
         employeeService.deleteEmployee(employee.getId());
 
         verify(employeeRepository, times(1))
-                .deleteById(employee.getId());
-        ;
+                .deleteRowById(employee.getId());
+        verify(employeeOutbox).record(EmployeeChangedEvent.deleted(employee.getId()));
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.deleted(employee.getId()));
+
+    }
 
+    @Test
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenRecordAndPublishNothing() {
+
+        givenTransactionTemplateRunsCallbacks();
+        given(employeeRepository.deleteRowById(employee.getId()))
+                .willReturn(0);
+
+        employeeService.deleteEmployee(employee.getId());
+
+        verify(employeeOutbox, never()).record(any(EmployeeChangedEvent.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void givenNewAndDuplicateEmails_whenSaveEmployees_thenReportResultPerItem() {
+
+        givenTransactionTemplateRunsCallbacks();
+        Employee newEmployee = Employee.builder()
+                .firstName("Gabriela")
+                .lastName("Barbosa")
+                .email("gabriela@hotmail.com").build();
+        Employee repeatedInRequest = Employee.builder()
+                .firstName("Gabi")
+                .lastName("Barbosa")
+                .email("gabriela@hotmail.com").build();
+
+        given(knownEmails.findExisting(any()))
+                .willReturn(List.of("lucas@hotmail.com"));
+        given(employeeRepository.saveAll(List.of(newEmployee)))
+                .willAnswer(invocation -> {
+                    newEmployee.setId(7L);
+                    return List.of(newEmployee);
+                });
+
+        List<BatchItemResult> results = employeeService.saveEmployees(
+                List.of(employee, newEmployee, repeatedInRequest));
+
+        assertThat(results).extracting(BatchItemResult::getStatus).containsExactly(
+                BatchItemResult.Status.DUPLICATE_EMAIL,
+                BatchItemResult.Status.CREATED,
+                BatchItemResult.Status.DUPLICATE_EMAIL);
+        assertThat(results.get(1).getId()).isEqualTo(7L);
+        verify(knownEmails, times(1)).findExisting(any());
+        verify(employeeRepository, never()).findExistingEmails(any());
+    }
+
+    @Test
+    public void givenEmailTheFilterMissed_whenSaveEmployees_thenChunkRedoneWithExactCheck() {
+
+        givenTransactionTemplateRunsCallbacks();
+        Employee taken = Employee.builder()
+                .firstName("Gabriela")
+                .lastName("Barbosa")
+                .email("gabriela@hotmail.com").build();
+
+        given(knownEmails.findExisting(any()))
+                .willReturn(List.of());
+        given(employeeRepository.saveAll(List.of(taken)))
+                .willThrow(new DataIntegrityViolationException("Unique index violation: " + Employee.EMAIL_CONSTRAINT));
+        given(employeeRepository.findExistingEmails(any()))
+                .willReturn(List.of("gabriela@hotmail.com"));
+
+        List<BatchItemResult> results = employeeService.saveEmployees(List.of(taken));
+
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(BatchItemResult.Status.DUPLICATE_EMAIL);
+        verify(employeeRepository, times(1)).findExistingEmails(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void givenExistingAndMissingIds_whenUpdateEmployees_thenReportResultPerItem() {
+
+        givenTransactionTemplateRunsCallbacks();
+        Employee changes = Employee.builder()
+                .id(1L)
+                .firstName("Luke")
+                .lastName("Barbosa")
+                .email("lucas@hotmail.com").build();
+        Employee missing = Employee.builder()
+                .id(9L)
+                .firstName("Nobody")
+                .lastName("Barbosa")
+                .email("nobody@hotmail.com").build();
+
+        given(employeeRepository.findAllById(any()))
+                .willReturn(List.of(employee));
+
+        List<BatchItemResult> results = employeeService.updateEmployees(List.of(changes, missing));
+
+        assertThat(results).extracting(BatchItemResult::getStatus).containsExactly(
+                BatchItemResult.Status.UPDATED,
+                BatchItemResult.Status.NOT_FOUND);
+        assertThat(employee.getFirstName()).isEqualTo("Luke");
+        verify(employeeRepository, times(1)).saveAll(List.of(employee));
+    }
+
+    @Test
+    public void givenExistingAndMissingIds_whenDeleteEmployees_thenDeleteInOneStatement() {
+
+        givenTransactionTemplateRunsCallbacks();
+        given(employeeRepository.findExistingIds(List.of(1L, 2L)))
+                .willReturn(List.of(1L));
+
+        List<BatchItemResult> results = employeeService.deleteEmployees(List.of(1L, 2L));
+
+        assertThat(results).extracting(BatchItemResult::getStatus).containsExactly(
+                BatchItemResult.Status.DELETED,
+                BatchItemResult.Status.NOT_FOUND);
+        verify(employeeRepository, times(1)).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    public void givenEmptyBatch_whenSaveEmployees_thenThrowsException() {
+
+        org.junit.jupiter.api.Assertions.assertThrows(BadRequestException.class, () -> {
+            employeeService.saveEmployees(List.of());
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenTransactionTemplateRunsCallbacks() {
+        BDDMockito.lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> ((TransactionCallback<Object>) invocation.getArgument(0))
+                        .doInTransaction(null));
+        BDDMockito.lenient().doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
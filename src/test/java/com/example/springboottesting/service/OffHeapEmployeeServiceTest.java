@@ -0,0 +1,140 @@
+package com.example.springboottesting.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.example.springboottesting.dto.BatchItemResult;
+import com.example.springboottesting.dto.BatchItemResult.Status;
+import com.example.springboottesting.dto.EmployeePage;
+import com.example.springboottesting.event.EmployeeChangedEvent;
+import com.example.springboottesting.exception.PreconditionFailedException;
+import com.example.springboottesting.exception.ResourceNotFoundException;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.service.impl.OffHeapEmployeeServiceImpl;
+import com.example.springboottesting.tenant.TenantContext;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class OffHeapEmployeeServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MeterRegistry meterRegistry;
+
+    private OffHeapEmployeeServiceImpl employeeService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        employeeService = new OffHeapEmployeeServiceImpl(eventPublisher, meterRegistry, directory, 64 * 1024, 1000);
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        employeeService.close();
+    }
+
+    @Test
+    public void givenEmployeeObject_whenSaveEmployee_thenStoreAndPublishCreatedEvent() {
+
+        Employee savedEmployee = employeeService.saveEmployee(employee("lucas"));
+
+        assertThat(employeeService.getEmployeeById(savedEmployee.getId())).get()
+                .extracting(Employee::getEmail).isEqualTo("lucas@hotmail.com");
+        verify(eventPublisher).publishEvent(EmployeeChangedEvent.created(savedEmployee));
+        assertThat(meterRegistry.get("employee.offheap.size").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("employee.offheap.memory").gauge().value()).isPositive();
+    }
+
+    @Test
+    public void givenExistEmail_whenSaveEmployee_thenThrowsexception() {
+
+        employeeService.saveEmployee(employee("lucas"));
+
+        assertThatThrownBy(() -> employeeService.saveEmployee(employee("lucas")))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    public void givenStaleVersion_whenUpdateEmployee_thenThrowsPreconditionFailed() {
+
+        Employee savedEmployee = employeeService.saveEmployee(employee("lucas"));
+        employeeService.patchEmployee(savedEmployee.getId(), Employee.builder().firstName("Luke").build(), 0L);
+
+        assertThatThrownBy(() -> employeeService.updateEmployee(savedEmployee.getId(), employee("lucas"), 0L))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(employeeService.getEmployeeById(savedEmployee.getId()).get().getFirstName()).isEqualTo("Luke");
+    }
+
+    @Test
+    public void givenMixedBatch_whenSaveEmployees_thenReportEachItemAndPageThroughCreated() {
+
+        List<BatchItemResult> results = employeeService.saveEmployees(List.of(
+                employee("lucas"), employee("gabi"), Employee.builder().firstName("Ana").build(), employee("lucas")));
+
+        assertThat(results).extracting(BatchItemResult::getStatus)
+                .containsExactly(Status.CREATED, Status.CREATED, Status.INVALID, Status.DUPLICATE_EMAIL);
+
+        EmployeePage firstPage = employeeService.getEmployeesPage(null, 1);
+        EmployeePage secondPage = employeeService.getEmployeesPage(firstPage.getNextCursor(), 1);
+        assertThat(firstPage.getContent().get(0).email()).isEqualTo("lucas@hotmail.com");
+        assertThat(secondPage.getContent().get(0).email()).isEqualTo("gabi@hotmail.com");
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void givenTenantWithoutWrites_whenRead_thenEmptyAndNoStoreCreated() {
+
+        TenantContext.run("acme", () -> {
+            assertThat(employeeService.getAllEmployees()).isEmpty();
+            assertThat(employeeService.getEmployeeById(1L)).isEmpty();
+            assertThat(employeeService.getEmployeesPage(null, 10).getContent()).isEmpty();
+            assertThat(employeeService.getEmployeesVersion()).isEqualTo("0");
+            assertThatThrownBy(() -> employeeService.patchEmployee(1L, employee("lucas"), null))
+                    .isInstanceOf(ResourceNotFoundException.class);
+            assertThat(employeeService.deleteEmployees(List.of(1L))).extracting(BatchItemResult::getStatus)
+                    .containsExactly(Status.NOT_FOUND);
+        });
+
+        assertThat(directory.resolve("tenants")).doesNotExist();
+    }
+
+    @Test
+    public void givenTenantWrittenBeforeRestart_whenRead_thenReopenItsStore() throws Exception {
+
+        Employee savedEmployee = TenantContext.call("acme", () -> employeeService.saveEmployee(employee("lucas")));
+        employeeService.close();
+        employeeService = new OffHeapEmployeeServiceImpl(eventPublisher, meterRegistry, directory, 64 * 1024, 1000);
+
+        assertThat(TenantContext.call("acme", () -> employeeService.getEmployeeById(savedEmployee.getId())))
+                .isPresent();
+        assertThat(employeeService.getEmployeeById(savedEmployee.getId())).isEmpty();
+    }
+
+    private static Employee employee(String name) {
+        return Employee.builder()
+                .firstName(name)
+                .lastName("Barbosa")
+                .email(name + "@hotmail.com")
+                .build();
+    }
+}
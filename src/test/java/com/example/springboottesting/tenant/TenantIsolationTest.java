@@ -0,0 +1,112 @@
+package com.example.springboottesting.tenant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class TenantIsolationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @AfterEach
+    public void cleanup() {
+        for (String tenant : new String[] { "acme", "globex", TenantContext.DEFAULT }) {
+            TenantContext.run(tenant, employeeRepository::deleteAll);
+        }
+    }
+
+    @Test
+    public void givenSameEmailInTwoTenants_whenCreate_thenBothAcceptedAndDuplicateWithinTenantRejected()
+            throws Exception {
+        create("acme", employee("shared@hotmail.com"));
+        create("globex", employee("shared@hotmail.com"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/employees")
+                .header(TenantContext.HEADER, "acme")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee("shared@hotmail.com"))))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void givenEmployeeOfOtherTenant_whenReadByIdOrList_thenNotVisible() throws Exception {
+        long acmeId = create("acme", employee("lucas@hotmail.com"));
+        create("globex", employee("gabriela@hotmail.com"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/employees/{id}", acmeId).header(TenantContext.HEADER, "acme"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/employees/{id}", acmeId).header(TenantContext.HEADER, "globex"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+        mockMvc.perform(MockMvcRequestBuilders.get("/employees").header(TenantContext.HEADER, "globex"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[*].email").value("gabriela@hotmail.com"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/employees/search").param("q", "lucas@")
+                .header(TenantContext.HEADER, "globex"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(0));
+        mockMvc.perform(MockMvcRequestBuilders.get("/employees"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void givenEmployeeOfOtherTenant_whenUpdateOrDelete_thenNotFoundAndUnchanged() throws Exception {
+        long acmeId = create("acme", employee("lucas@hotmail.com"));
+
+        mockMvc.perform(MockMvcRequestBuilders.put("/employees/{id}", acmeId)
+                .header(TenantContext.HEADER, "globex")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee("taken@hotmail.com"))))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/employees/{id}", acmeId)
+                .header(TenantContext.HEADER, "globex"));
+
+        assertThat(TenantContext.call("acme", () -> employeeRepository.findById(acmeId)))
+                .hasValueSatisfying(employee -> assertThat(employee.getEmail()).isEqualTo("lucas@hotmail.com"));
+        assertThat(TenantContext.call("globex", () -> employeeRepository.findById(acmeId))).isEmpty();
+    }
+
+    @Test
+    public void givenMalformedTenantHeader_whenRequest_thenBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/employees").header(TenantContext.HEADER, "../acme"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    private long create(String tenant, Employee employee) throws Exception {
+        String body = mockMvc.perform(MockMvcRequestBuilders.post("/employees")
+                .header(TenantContext.HEADER, tenant)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private static Employee employee(String email) {
+        return Employee.builder()
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email(email).build();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.springboottesting.tenant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.springboottesting.datasource.TenantRoutingDataSource;
+import com.example.springboottesting.dto.EmployeeView;
+import com.example.springboottesting.model.Employee;
+import com.example.springboottesting.repository.EmployeeRepository;
+import com.example.springboottesting.service.EmployeeService;
+
+// Two in-memory H2 databases as shards; acme and globex are pinned, everyone else is hashed.
+@SpringBootTest(properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.shards.a.url=" + TenantShardingTest.SHARD_A_URL,
+        "app.sharding.shards.b.url=" + TenantShardingTest.SHARD_B_URL,
+        "app.sharding.tenants.acme=a",
+        "app.sharding.tenants.globex=b",
+        "app.outbox.relay.interval=1h" })
+@ActiveProfiles("test")
+public class TenantShardingTest {
+
+    static final String SHARD_A_URL = "jdbc:h2:mem:shard-a;DB_CLOSE_DELAY=-1";
+
+    static final String SHARD_B_URL = "jdbc:h2:mem:shard-b;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TenantRoutingDataSource tenantRoutingDataSource;
+
+    private JdbcTemplate shardA;
+
+    private JdbcTemplate shardB;
+
+    @BeforeEach
+    public void setup() {
+        shardA = new JdbcTemplate(new DriverManagerDataSource(SHARD_A_URL, "sa", ""));
+        shardB = new JdbcTemplate(new DriverManagerDataSource(SHARD_B_URL, "sa", ""));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        for (String tenant : new String[] { "acme", "globex", TenantContext.DEFAULT }) {
+            TenantContext.run(tenant, employeeRepository::deleteAll);
+        }
+    }
+
+    @Test
+    public void givenTenantsOnDifferentShards_whenSave_thenRowsLandOnTheirShard() {
+
+        Employee acme = TenantContext.call("acme", () -> employeeService.saveEmployee(employee("lucas@hotmail.com")));
+        Employee globex = TenantContext.call("globex",
+                () -> employeeService.saveEmployee(employee("gabriela@hotmail.com")));
+
+        assertThat(shardA.queryForList("select email from employees where tenant_id = 'acme'", String.class))
+                .containsExactly("lucas@hotmail.com");
+        assertThat(shardB.queryForList("select email from employees where tenant_id = 'globex'", String.class))
+                .containsExactly("gabriela@hotmail.com");
+        assertThat(shardA.queryForObject("select count(*) from employees where tenant_id = 'globex'", Long.class))
+                .isZero();
+        assertThat(acme.getId()).isNotEqualTo(globex.getId());
+        assertThat(TenantContext.call("globex", () -> employeeService.getEmployeeById(acme.getId()))).isEmpty();
+    }
+
+    @Test
+    public void givenBatchesOnBothShards_whenSave_thenIdsAreUniqueAcrossShards() {
+
+        TenantContext.run("acme", () -> employeeService.saveEmployees(List.of(employee("a@hotmail.com"),
+                employee("b@hotmail.com"))));
+        TenantContext.run("globex", () -> employeeService.saveEmployees(List.of(employee("a@hotmail.com"),
+                employee("b@hotmail.com"))));
+
+        List<Long> idsA = shardA.queryForList("select id from employees", Long.class);
+        List<Long> idsB = shardB.queryForList("select id from employees", Long.class);
+        assertThat(idsA).hasSize(2).doesNotContainAnyElementsOf(idsB);
+        assertThat(idsB).hasSize(2);
+        assertThat(shardB.queryForObject("select next value for employees_seq", Long.class)).isGreaterThan(1L << 40);
+        assertThat(TenantContext.call("globex", employeeService::getAllEmployees)).extracting(EmployeeView::email)
+                .containsExactly("a@hotmail.com", "b@hotmail.com");
+    }
+
+    @Test
+    public void givenUnmappedTenant_whenRoute_thenHashedToAStableShard() {
+
+        String shard = tenantRoutingDataSource.shardFor("initech");
+
+        assertThat(shard).isIn("a", "b").isEqualTo(tenantRoutingDataSource.shardFor("initech"));
+        assertThat(tenantRoutingDataSource.shardFor("acme")).isEqualTo("a");
+        assertThat(tenantRoutingDataSource.shardFor("globex")).isEqualTo("b");
+    }
+
+    private static Employee employee(String email) {
+        return Employee.builder()
+                .firstName("Lucas")
+                .lastName("Barbosa")
+                .email(email).build();
+    }
+}